@@ -0,0 +1,56 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.debezium.engine.ChangeEvent;
+
+/**
+ * Common parameters for the {@code handleBatch} benchmarks of the sinks.
+ * <p>
+ * {@link Mode#Throughput} reports batches per second, {@link Mode#SampleTime} reports the latency distribution
+ * of a single batch including the p99. Allocation rate is reported when running with {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public abstract class AbstractSinkBenchmark {
+
+    @Param({ "1", "100", "2048" })
+    public int batchSize;
+
+    @Param({ "256", "4096" })
+    public int payloadSize;
+
+    @Param({ "1", "16" })
+    public int destinations;
+
+    protected List<ChangeEvent<Object, Object>> records;
+    protected NoopRecordCommitter committer;
+
+    @Setup(Level.Trial)
+    public void setupRecords() {
+        records = BenchmarkChangeEvents.create(batchSize, payloadSize, destinations);
+        committer = new NoopRecordCommitter();
+    }
+}
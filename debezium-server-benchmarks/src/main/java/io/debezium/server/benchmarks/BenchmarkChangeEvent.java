@@ -0,0 +1,77 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.benchmarks;
+
+import java.util.List;
+
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.Header;
+
+/**
+ * Immutable {@link ChangeEvent} with pre-serialized key, value and headers, as produced by the engine
+ * for the JSON format.
+ */
+public class BenchmarkChangeEvent implements ChangeEvent<Object, Object> {
+
+    private final Object key;
+    private final Object value;
+    private final String destination;
+    private final List<Header<Object>> headers;
+
+    public BenchmarkChangeEvent(Object key, Object value, String destination, List<Header<Object>> headers) {
+        this.key = key;
+        this.value = value;
+        this.destination = destination;
+        this.headers = headers;
+    }
+
+    @Override
+    public Object key() {
+        return key;
+    }
+
+    @Override
+    public Object value() {
+        return value;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    public <H> List<Header<H>> headers() {
+        return (List) headers;
+    }
+
+    @Override
+    public String destination() {
+        return destination;
+    }
+
+    @Override
+    public Integer partition() {
+        return null;
+    }
+
+    public static class StringHeader implements Header<Object> {
+
+        private final String key;
+        private final String value;
+
+        public StringHeader(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import io.debezium.data.Envelope;
+import io.debezium.data.vector.FloatVector;
+import io.debezium.embedded.EmbeddedEngineChangeEvent;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.Header;
+
+/**
+ * Generates synthetic batches of change events resembling JSON-serialized Debezium records.
+ */
+public final class BenchmarkChangeEvents {
+
+    public static final String DESTINATION_PREFIX = "benchmark.inventory.table";
+
+    private BenchmarkChangeEvents() {
+    }
+
+    /**
+     * @param batchSize number of records in the batch
+     * @param payloadSize approximate size of each record value in bytes
+     * @param destinations number of distinct destinations the records are spread over (round-robin)
+     */
+    public static List<ChangeEvent<Object, Object>> create(int batchSize, int payloadSize, int destinations) {
+        final String payload = payload(payloadSize);
+        final List<ChangeEvent<Object, Object>> records = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            final List<Header<Object>> headers = List.of(
+                    new BenchmarkChangeEvent.StringHeader("__debezium.context.connectorLogicalName", "benchmark"),
+                    new BenchmarkChangeEvent.StringHeader("__debezium.context.taskId", "0"),
+                    new BenchmarkChangeEvent.StringHeader("__debezium.context.connectorName", "postgresql"));
+            records.add(new BenchmarkChangeEvent(
+                    "{\"id\":" + i + "}",
+                    payload,
+                    DESTINATION_PREFIX + (i % destinations),
+                    headers));
+        }
+        return records;
+    }
+
+    /**
+     * Creates records as produced by the embedded engine, for the sinks that read the source record. The value of
+     * the source record is a create event envelope with an {@code INT64} key, the payload and a small
+     * {@link FloatVector}, the serialized value is the same JSON as in {@link #create}.
+     */
+    public static List<ChangeEvent<Object, Object>> createEngineRecords(int batchSize, int payloadSize, int destinations) {
+        final String payload = payload(payloadSize);
+        final Schema keySchema = SchemaBuilder.struct().name("benchmark.inventory.Key")
+                .field("id", Schema.INT64_SCHEMA)
+                .build();
+        final Schema rowSchema = SchemaBuilder.struct().name("benchmark.inventory.Value")
+                .field("id", Schema.INT64_SCHEMA)
+                .field("data", Schema.STRING_SCHEMA)
+                .field("embedding", FloatVector.schema())
+                .build();
+        final Envelope envelope = Envelope.defineSchema()
+                .withName("benchmark.inventory.Envelope")
+                .withRecord(rowSchema)
+                .withSource(SchemaBuilder.struct().name("benchmark.Source").optional().build())
+                .build();
+        final Object embedding = FloatVector.fromLogical(FloatVector.schema(), new float[]{ 0.1f, 0.2f, 0.3f, 0.4f });
+
+        final List<ChangeEvent<Object, Object>> records = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            final String destination = DESTINATION_PREFIX + (i % destinations);
+            final Struct key = new Struct(keySchema).put("id", (long) i);
+            final Struct row = new Struct(rowSchema).put("id", (long) i).put("data", payload).put("embedding", embedding);
+            final SourceRecord sourceRecord = new SourceRecord(Map.of("server", "benchmark"), Map.of("lsn", (long) i), destination, null,
+                    keySchema, key, envelope.schema(), envelope.create(row, null, Instant.EPOCH));
+            records.add(new EmbeddedEngineChangeEvent<>("{\"id\":" + i + "}", payload, List.of(), sourceRecord));
+        }
+        return records;
+    }
+
+    private static String payload(int size) {
+        final StringBuilder sb = new StringBuilder(size);
+        sb.append("{\"after\":{\"data\":\"");
+        while (sb.length() < size - 3) {
+            sb.append('x');
+        }
+        sb.append("\"}}");
+        return sb.toString();
+    }
+}
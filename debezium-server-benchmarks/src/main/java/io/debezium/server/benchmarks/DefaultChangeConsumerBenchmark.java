@@ -0,0 +1,52 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.server.DefaultChangeConsumer;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+/**
+ * Measures the overhead the server adds around a sink by wrapping a consumer that only acknowledges
+ * the records into {@link DefaultChangeConsumer}.
+ */
+public class DefaultChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    private DefaultChangeConsumer consumer;
+
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        consumer = new DefaultChangeConsumer(new AcknowledgingChangeConsumer(), new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(Map.of("debezium.sink.type", "benchmark"), "benchmark.properties"))
+                .build());
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+
+    private static class AcknowledgingChangeConsumer implements DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> {
+
+        @Override
+        public void handleBatch(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
+                throws InterruptedException {
+            for (ChangeEvent<Object, Object> record : records) {
+                committer.markProcessed(record);
+            }
+            committer.markBatchFinished();
+        }
+    }
+}
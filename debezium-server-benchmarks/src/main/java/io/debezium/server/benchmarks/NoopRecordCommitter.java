@@ -0,0 +1,46 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.benchmarks;
+
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+
+/**
+ * A committer that only counts the calls so that the benchmark measures the sink and not the offset handling.
+ */
+public class NoopRecordCommitter implements DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> {
+
+    private long processed;
+    private long batches;
+
+    @Override
+    public void markProcessed(ChangeEvent<Object, Object> record) {
+        processed++;
+    }
+
+    @Override
+    public void markBatchFinished() {
+        batches++;
+    }
+
+    @Override
+    public void markProcessed(ChangeEvent<Object, Object> record, DebeziumEngine.Offsets sourceOffsets) {
+        processed++;
+    }
+
+    @Override
+    public DebeziumEngine.Offsets buildOffsets() {
+        return null;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.eventhubs;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.List;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.azure.core.util.IterableStream;
+import com.azure.messaging.eventhubs.EventData;
+import com.azure.messaging.eventhubs.EventDataBatch;
+import com.azure.messaging.eventhubs.EventHubProducerClient;
+import com.azure.messaging.eventhubs.models.CreateBatchOptions;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+
+/**
+ * Drives {@link EventHubsChangeConsumer#handleBatch} against an {@link EventHubProducerClient} stand-in with four
+ * partitions whose batches accept every event.
+ */
+public class EventHubsChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    private EventHubsChangeConsumer consumer;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        // Stub-only mocks do not record invocations, the benchmark would otherwise keep every sent batch
+        final EventDataBatch batch = mock(EventDataBatch.class, withSettings().stubOnly());
+        when(batch.tryAdd(any(EventData.class))).thenReturn(true);
+        when(batch.getCount()).thenReturn(1);
+
+        final EventHubProducerClient producer = mock(EventHubProducerClient.class, withSettings().stubOnly());
+        when(producer.getEventHubName()).thenReturn("benchmark");
+        when(producer.getFullyQualifiedNamespace()).thenReturn("benchmark.servicebus.windows.net");
+        when(producer.getPartitionIds()).thenReturn(new IterableStream<>(List.of("0", "1", "2", "3")));
+        when(producer.createBatch(any(CreateBatchOptions.class))).thenReturn(batch);
+
+        final Instance<EventHubProducerClient> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(producer);
+
+        consumer = new EventHubsChangeConsumer();
+        consumer.customProducer = instance;
+        consumer.connect();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.http;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+/**
+ * Drives {@link HttpChangeConsumer#handleBatch} against an embedded loopback HTTP server that
+ * acknowledges every request with {@code 200 OK}.
+ */
+public class HttpChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean batchEnabled;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpChangeConsumer consumer;
+
+    @Setup(Level.Trial)
+    public void setupConsumer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        consumer = new HttpChangeConsumer();
+        consumer.initWithConfig(new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(Map.of(
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_WEBHOOK_URL,
+                        "http://localhost:" + server.getAddress().getPort() + "/",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_BATCH_ENABLED, Boolean.toString(batchEnabled),
+                        "debezium.format.value", "json"), "benchmark.properties"))
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.infinispan;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+
+/**
+ * Drives {@link InfinispanSinkConsumer#handleBatch} against a {@link RemoteCache} stand-in that accepts every entry.
+ */
+public class InfinispanSinkConsumerBenchmark extends AbstractSinkBenchmark {
+
+    private InfinispanSinkConsumer consumer;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        // Stub-only mocks do not record invocations, the benchmark would otherwise keep every written batch,
+        // deep stubs provide the cache configuration logged on connect
+        final RemoteCache<Object, Object> cache = mock(RemoteCache.class, withSettings().stubOnly().defaultAnswer(RETURNS_DEEP_STUBS));
+
+        final Instance<RemoteCache> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(cache);
+
+        consumer = new InfinispanSinkConsumer();
+        consumer.customCache = instance;
+        consumer.connect();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+}
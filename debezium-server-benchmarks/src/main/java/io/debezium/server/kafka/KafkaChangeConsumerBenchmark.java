@@ -0,0 +1,77 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kafka;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+
+/**
+ * Drives {@link KafkaChangeConsumer#handleBatch} against an auto-completing {@link MockProducer}.
+ * <p>
+ * {@code headerCacheSize=0} disables the header cache, compare the allocation rates with {@code -prof gc}.
+ */
+public class KafkaChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    @Param({ "0", "1024" })
+    public int headerCacheSize;
+
+    private KafkaChangeConsumer consumer;
+    private MockProducer<Object, Object> producer;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        producer = new MockProducer<>(true, null, serializer(), serializer());
+
+        final Instance<Producer<Object, Object>> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(producer);
+
+        consumer = new KafkaChangeConsumer();
+        consumer.customKafkaProducer = instance;
+        consumer.waitMessageDeliveryTimeout = 30_000;
+        consumer.headerCacheSize = headerCacheSize;
+        consumer.start();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        // MockProducer keeps every sent record, do not let it grow for the whole trial
+        producer.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        consumer.stop();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Serializer<Object> serializer() {
+        final Serializer<String> strings = new StringSerializer();
+        final Serializer<byte[]> bytes = new ByteArraySerializer();
+        return (topic, data) -> data instanceof String ? strings.serialize(topic, (String) data) : bytes.serialize(topic, (byte[]) data);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kinesis;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+
+/**
+ * Drives {@link KinesisChangeConsumer#handleBatch} against an in-process {@link KinesisClient} that
+ * accepts every record.
+ */
+public class KinesisChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    private KinesisChangeConsumer consumer;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        final Instance<KinesisClient> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(new AcceptingKinesisClient());
+
+        consumer = new KinesisChangeConsumer();
+        consumer.customClient = instance;
+        consumer.nullKey = "default";
+        consumer.connect();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+
+    private static class AcceptingKinesisClient implements KinesisClient {
+
+        @Override
+        public PutRecordsResponse putRecords(PutRecordsRequest putRecordsRequest) {
+            final List<PutRecordsResultEntry> results = new ArrayList<>(putRecordsRequest.records().size());
+            for (int i = 0; i < putRecordsRequest.records().size(); i++) {
+                results.add(PutRecordsResultEntry.builder().shardId("shardId-000000000000").sequenceNumber(Integer.toString(i)).build());
+            }
+            return PutRecordsResponse.builder().failedRecordCount(0).records(results).build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
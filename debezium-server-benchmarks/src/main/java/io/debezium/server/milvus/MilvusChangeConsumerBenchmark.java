@@ -0,0 +1,67 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.milvus;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.List;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+import io.debezium.server.benchmarks.BenchmarkChangeEvents;
+import io.debezium.server.benchmarks.NoopRecordCommitter;
+import io.milvus.v2.client.MilvusClientV2;
+import io.milvus.v2.service.database.response.ListDatabasesResp;
+
+/**
+ * Drives {@link MilvusChangeConsumer#handleBatch} with engine records against a {@link MilvusClientV2} stand-in that
+ * accepts every upsert.
+ */
+public class MilvusChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    private MilvusChangeConsumer consumer;
+
+    @Override
+    @Setup(Level.Trial)
+    public void setupRecords() {
+        // The sink reads the envelope and the key schema from the source record
+        records = BenchmarkChangeEvents.createEngineRecords(batchSize, payloadSize, destinations);
+        committer = new NoopRecordCommitter();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        final ListDatabasesResp databases = mock(ListDatabasesResp.class);
+        when(databases.getDatabaseNames()).thenReturn(List.of("default"));
+
+        // Stub-only mocks do not record invocations, the benchmark would otherwise keep every upsert request
+        final MilvusClientV2 client = mock(MilvusClientV2.class, withSettings().stubOnly());
+        when(client.listDatabases()).thenReturn(databases);
+
+        final Instance<MilvusClientV2> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(client);
+
+        consumer = new MilvusChangeConsumer();
+        consumer.customClient = instance;
+        consumer.databaseName = "default";
+        consumer.unwindJson = false;
+        consumer.connect();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.nats.jetstream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+import io.nats.client.JetStream;
+import io.nats.client.Message;
+
+/**
+ * Drives {@link NatsJetStreamChangeConsumer#handleBatch} against a {@link JetStream} stand-in that acknowledges every
+ * message immediately, both with synchronous and asynchronous publishing.
+ */
+public class NatsJetStreamChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean asyncEnabled;
+
+    private NatsJetStreamChangeConsumer consumer;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        // Stub-only mocks do not record invocations, the benchmark would otherwise keep every published message,
+        // the synchronous publish returns a null acknowledgement which the sink does not inspect
+        final JetStream jetStream = mock(JetStream.class, withSettings().stubOnly());
+        when(jetStream.publishAsync(any(Message.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        final Instance<JetStream> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(jetStream);
+
+        consumer = new NatsJetStreamChangeConsumer();
+        consumer.customStreamingConnection = instance;
+        consumer.asyncEnabled = asyncEnabled;
+        consumer.asyncTimeoutMs = 5_000;
+        consumer.syncMaxRetryAttempts = 5;
+        consumer.syncRetryIntervalMs = 1_000;
+        consumer.syncRetryMaxIntervalMs = 60_000;
+        consumer.syncRetryBackoffMultiplier = 2.0;
+        consumer.connect();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+}
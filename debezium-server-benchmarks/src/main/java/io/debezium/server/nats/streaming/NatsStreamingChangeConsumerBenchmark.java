@@ -0,0 +1,48 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.nats.streaming;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+import io.nats.streaming.StreamingConnection;
+
+/**
+ * Drives {@link NatsStreamingChangeConsumer#handleBatch} against a {@link StreamingConnection} stand-in that accepts
+ * every message.
+ */
+public class NatsStreamingChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    private NatsStreamingChangeConsumer consumer;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        // Stub-only mocks do not record invocations, the benchmark would otherwise keep every published message
+        final StreamingConnection connection = mock(StreamingConnection.class, withSettings().stubOnly());
+
+        final Instance<StreamingConnection> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(connection);
+
+        consumer = new NatsStreamingChangeConsumer();
+        consumer.customStreamingConnection = instance;
+        consumer.connect();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.pubsub;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.pubsublite.cloudpubsub.Publisher;
+import com.google.pubsub.v1.PubsubMessage;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+
+/**
+ * Drives {@link PubSubLiteChangeConsumer#handleBatch} against a Pub/Sub Lite {@link Publisher} stand-in that
+ * acknowledges every message immediately.
+ */
+public class PubSubLiteChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    private PubSubLiteChangeConsumer consumer;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        // Stub-only mocks do not record invocations, the benchmark would otherwise keep every published message
+        final Publisher publisher = mock(Publisher.class, withSettings().stubOnly());
+        when(publisher.publish(any(PubsubMessage.class))).thenReturn(ApiFutures.immediateFuture("message-id"));
+
+        final Instance<PubSubLiteChangeConsumer.PublisherBuilder> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(topicName -> publisher);
+
+        consumer = new PubSubLiteChangeConsumer();
+        consumer.customPublisherBuilder = instance;
+        consumer.orderingEnabled = true;
+        consumer.nullKey = "default";
+        consumer.waitMessageDeliveryTimeout = 30_000;
+        consumer.connect();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+}
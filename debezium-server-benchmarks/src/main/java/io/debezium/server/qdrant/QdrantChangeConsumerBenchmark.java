@@ -0,0 +1,67 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.qdrant;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Optional;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.google.common.util.concurrent.Futures;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+import io.debezium.server.benchmarks.BenchmarkChangeEvents;
+import io.debezium.server.benchmarks.NoopRecordCommitter;
+import io.qdrant.client.QdrantClient;
+import io.qdrant.client.grpc.Points.UpdateResult;
+
+/**
+ * Drives {@link QdrantChangeConsumer#handleBatch} with engine records against a {@link QdrantClient} stand-in that
+ * completes every upsert immediately.
+ */
+public class QdrantChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    private QdrantChangeConsumer consumer;
+
+    @Override
+    @Setup(Level.Trial)
+    public void setupRecords() {
+        // The sink builds the points from the key and the vector field of the source record
+        records = BenchmarkChangeEvents.createEngineRecords(batchSize, payloadSize, destinations);
+        committer = new NoopRecordCommitter();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        // Stub-only mocks do not record invocations, the benchmark would otherwise keep every upserted point
+        final QdrantClient client = mock(QdrantClient.class, withSettings().stubOnly());
+        when(client.upsertAsync(anyString(), anyList())).thenReturn(Futures.immediateFuture(UpdateResult.getDefaultInstance()));
+
+        final Instance<QdrantClient> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(client);
+
+        consumer = new QdrantChangeConsumer();
+        consumer.customClient = instance;
+        consumer.vectorFieldNames = Optional.empty();
+        consumer.connect();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.rocketmq;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import jakarta.enterprise.inject.Instance;
+
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.MessageQueueSelector;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.common.message.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.debezium.server.benchmarks.AbstractSinkBenchmark;
+
+/**
+ * Drives {@link RocketMqChangeConsumer#handleBatch} against a {@link DefaultMQProducer} that completes every send
+ * on the calling thread without connecting to a name server.
+ */
+public class RocketMqChangeConsumerBenchmark extends AbstractSinkBenchmark {
+
+    private RocketMqChangeConsumer consumer;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setupConsumer() {
+        final Instance<DefaultMQProducer> instance = mock(Instance.class);
+        when(instance.isResolvable()).thenReturn(true);
+        when(instance.get()).thenReturn(new AcceptingProducer());
+
+        consumer = new RocketMqChangeConsumer();
+        consumer.customRocketMqProducer = instance;
+        consumer.connect();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        consumer.close();
+    }
+
+    @Benchmark
+    public void handleBatch() throws InterruptedException {
+        consumer.handleBatch(records, committer);
+    }
+
+    private static class AcceptingProducer extends DefaultMQProducer {
+
+        private final SendResult sendResult = new SendResult();
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public void send(Message msg, MessageQueueSelector selector, Object arg, SendCallback sendCallback) {
+            sendCallback.onSuccess(sendResult);
+        }
+    }
+}
@@ -9,12 +9,17 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 
 import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,17 +37,114 @@ public class BaseChangeConsumer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BaseChangeConsumer.class);
 
+    static final String PROP_STREAM_NAME_CACHE_SIZE = "debezium.sink.stream.name.cache.size";
+
+    private static final int DEFAULT_STREAM_NAME_CACHE_SIZE = 1_024;
+
     protected StreamNameMapper streamNameMapper = (x) -> x;
 
     @Inject
     Instance<StreamNameMapper> customStreamNameMapper;
 
+    @Inject
+    Instance<SinkMetrics> sinkMetricsInstance;
+
+    @Inject
+    Instance<DeadLetterQueue> deadLetterQueueInstance;
+
+    private SinkMetrics sinkMetrics;
+
     @PostConstruct
     void init() {
         if (customStreamNameMapper.isResolvable()) {
             streamNameMapper = customStreamNameMapper.get();
+            // Custom mappers are assumed to be deterministic, non-deterministic ones must disable the cache with size 0
+            final int cacheSize = ConfigProvider.getConfig().getOptionalValue(PROP_STREAM_NAME_CACHE_SIZE, Integer.class)
+                    .orElse(DEFAULT_STREAM_NAME_CACHE_SIZE);
+            if (cacheSize > 0) {
+                streamNameMapper = new CachingStreamNameMapper(streamNameMapper, cacheSize);
+            }
         }
         LOGGER.info("Using '{}' stream name mapper", streamNameMapper);
+        if (sinkMetricsInstance.isResolvable()) {
+            sinkMetrics = sinkMetricsInstance.get();
+        }
+    }
+
+    /**
+     * Whether the sink needs the records exactly as produced by the engine, e.g. to read their source record. Such
+     * a sink cannot be combined with delivery modes that hand over copies of the records, like spilling to disk.
+     *
+     * @return {@code true} if the sink casts the records to the engine representation
+     */
+    public boolean requiresEngineRecords() {
+        return false;
+    }
+
+    /**
+     * Reports a retried delivery attempt to the sink metrics.
+     */
+    protected void countRetry() {
+        if (sinkMetrics != null) {
+            sinkMetrics.retry();
+        }
+    }
+
+    /**
+     * Sends a record that was rejected by the target system to the dead letter queue, if one is configured, and
+     * waits until it was written. The caller should mark the record as processed when it was quarantined and fail
+     * as before otherwise. Only rejections of the record itself, i.e. failures caused by a
+     * {@link RecordRejectedException}, are quarantined; an outage or throttling of the target system fails the batch
+     * so that the records are delivered once the system recovers.
+     *
+     * @param record    The record that cannot be delivered.
+     * @param cause     The reason of the failure.
+     *
+     * @return          {@code true} if the record was quarantined, {@code false} if no dead letter queue is configured
+     *                  or the failure is not a rejection of the record.
+     * @throws DebeziumException if the record could not be written to the dead letter queue
+     */
+    protected boolean deadLetter(ChangeEvent<Object, Object> record, Throwable cause) throws InterruptedException {
+        final CompletableFuture<Boolean> written = deadLetterAsync(record, cause);
+        try {
+            return written.get();
+        }
+        catch (ExecutionException e) {
+            throw unwrapDeadLetterFailure(e.getCause());
+        }
+    }
+
+    /**
+     * Sends a record that was rejected by the target system to the dead letter queue without blocking, see
+     * {@link #deadLetter(ChangeEvent, Throwable)}.
+     *
+     * @return          future completed with {@code true} once the record was written to the dead letter queue, with
+     *                  {@code false} if it is not quarantined, or exceptionally if it could not be written.
+     */
+    protected CompletableFuture<Boolean> deadLetterAsync(ChangeEvent<Object, Object> record, Throwable cause) {
+        // Resolved lazily, the dead letter queue may itself create a sink while it starts
+        if (deadLetterQueueInstance == null || !deadLetterQueueInstance.isResolvable() || !RecordRejectedException.isRejection(cause)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        final DeadLetterQueue deadLetterQueue = deadLetterQueueInstance.get();
+        if (!deadLetterQueue.isEnabled()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        final Named name = getClass().getAnnotation(Named.class);
+        try {
+            return deadLetterQueue.send(record, name != null ? name.value() : getClass().getSimpleName(), cause).thenApply(v -> true);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new DebeziumException("Interrupted while sending record to dead letter queue", e));
+        }
+        catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static DebeziumException unwrapDeadLetterFailure(Throwable failure) {
+        return failure instanceof DebeziumException e ? e : new DebeziumException("Failed to write record to dead letter queue", failure);
     }
 
     /**
@@ -55,16 +157,7 @@ void init() {
      *                  without the prefix.
      */
     protected Map<String, Object> getConfigSubset(Config config, String prefix) {
-        final Map<String, Object> ret = new HashMap<>();
-
-        for (String propName : config.getPropertyNames()) {
-            if (propName.startsWith(prefix)) {
-                final String newPropName = propName.substring(prefix.length());
-                ret.put(newPropName, config.getConfigValue(propName).getValue());
-            }
-        }
-
-        return ret;
+        return ConfigIndex.of(config).subset(prefix);
     }
 
     protected byte[] getBytes(Object object) {
@@ -100,10 +193,25 @@ protected String unsupportedTypeMessage(Object object) {
 
     protected Map<String, String> convertHeaders(ChangeEvent<Object, Object> record) {
         List<Header<Object>> headers = record.headers();
-        Map<String, String> result = new HashMap<>();
+        Map<String, String> result = HashMap.newHashMap(headers.size());
         for (Header<Object> header : headers) {
             result.put(header.getKey(), getString(header.getValue()));
         }
         return result;
     }
+
+    /**
+     * Passes the headers of the record with their values converted to strings to the given action, without
+     * collecting them into an intermediate map. Headers are passed in the record order, duplicate keys are not merged,
+     * so the action should replace an earlier value of the same key to keep the last-wins semantics of
+     * {@link #convertHeaders(ChangeEvent)}.
+     *
+     * @param record    The record whose headers should be processed.
+     * @param action    The action receiving the header key and value.
+     */
+    protected void forEachHeader(ChangeEvent<Object, Object> record, BiConsumer<String, String> action) {
+        for (Header<Object> header : record.headers()) {
+            action.accept(header.getKey(), getString(header.getValue()));
+        }
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import java.util.Map;
+
+import io.debezium.util.BoundedConcurrentHashMap;
+import io.debezium.util.BoundedConcurrentHashMap.Eviction;
+
+/**
+ * Remembers the stream names produced by a deterministic {@link StreamNameMapper} so that the mapping is computed
+ * once per destination instead of once per record. The least recently used destinations are evicted once the
+ * capacity is reached.
+ */
+class CachingStreamNameMapper implements StreamNameMapper {
+
+    private final StreamNameMapper delegate;
+    private final Map<String, String> streamNames;
+
+    CachingStreamNameMapper(StreamNameMapper delegate, int capacity) {
+        this.delegate = delegate;
+        this.streamNames = new BoundedConcurrentHashMap<>(capacity, 16, Eviction.LRU);
+    }
+
+    @Override
+    public String map(String topic) {
+        if (topic == null) {
+            return delegate.map(null);
+        }
+        final String cached = streamNames.get(topic);
+        if (cached != null) {
+            return cached;
+        }
+        final String streamName = delegate.map(topic);
+        if (streamName != null) {
+            streamNames.put(topic, streamName);
+        }
+        return streamName;
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
@@ -7,7 +7,13 @@
 
 import static io.debezium.server.DebeziumServer.PROP_SINK_TYPE;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import jakarta.annotation.PreDestroy;
@@ -29,22 +35,81 @@ public class ChangeConsumerFactory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ChangeConsumerFactory.class);
 
+    static final String PROP_FANOUT_QUORUM = "debezium.sink.fanout.quorum";
+
     private final Config config;
     private final BeanManager beanManager;
+    private final SinkMetrics sinkMetrics;
+    // Sinks may be created by the bootstrap thread
+    private final List<SinkInstance> sinks = new CopyOnWriteArrayList<>();
+    private FanOutChangeConsumer fanOut;
 
-    private Bean<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> consumerBean;
-    private CreationalContext<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> consumerBeanCreationalContext;
-    private DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> consumer;
-
-    public ChangeConsumerFactory(Config config, BeanManager beanManager) {
+    public ChangeConsumerFactory(Config config, BeanManager beanManager, SinkMetrics sinkMetrics) {
         this.config = config;
         this.beanManager = beanManager;
+        this.sinkMetrics = sinkMetrics;
     }
 
     DefaultChangeConsumer create() {
 
-        final String name = config.getValue(PROP_SINK_TYPE, String.class);
+        final List<String> names = sinkNames();
+
+        if (names.size() == 1) {
+            return new DefaultChangeConsumer(createSink(names.get(0)), config, sinkMetrics);
+        }
+
+        final Map<String, DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> consumers = new LinkedHashMap<>();
+        for (String name : names) {
+            consumers.put(name, createSink(name));
+        }
+        final int quorum = config.getOptionalValue(PROP_FANOUT_QUORUM, Integer.class).orElse(consumers.size());
+        fanOut = new FanOutChangeConsumer(consumers, quorum);
+        LOGGER.info("Fan-out to sinks {} enabled, offsets are committed once {} of them acknowledge a batch", names, quorum);
+
+        return new DefaultChangeConsumer(fanOut, config, sinkMetrics);
+    }
+
+    /**
+     * Tells whether the configured sinks support tombstones without creating them, that is possible when one of
+     * the sinks keeps the default support of {@link DebeziumEngine.ChangeConsumer#supportsTombstoneEvents()}.
+     *
+     * @return {@code true} if known to be supported, {@code null} if the sinks must be created to find out
+     */
+    Boolean supportsTombstoneEventsWithoutCreating() {
+        for (String name : sinkNames()) {
+            try {
+                if (resolveBean(name).getBeanClass().getMethod("supportsTombstoneEvents").getDeclaringClass().isInterface()) {
+                    return true;
+                }
+            }
+            catch (NoSuchMethodException e) {
+                throw new DebeziumException(e);
+            }
+        }
+        return null;
+    }
 
+    private List<String> sinkNames() {
+        return Arrays.stream(config.getValue(PROP_SINK_TYPE, String.class).split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> createSink(String name) {
+        final Bean<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> consumerBean = resolveBean(name);
+        final CreationalContext<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> consumerBeanCreationalContext = beanManager
+                .createCreationalContext(consumerBean);
+        final DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> consumer = consumerBean.create(consumerBeanCreationalContext);
+        sinks.add(new SinkInstance(consumerBean, consumerBeanCreationalContext, consumer));
+        LOGGER.info("Consumer '{}' instantiated", consumer.getClass().getName());
+
+        return consumer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Bean<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> resolveBean(String name) {
         final Set<Bean<?>> beans = beanManager.getBeans(name).stream()
                 .filter(x -> DebeziumEngine.ChangeConsumer.class.isAssignableFrom(x.getBeanClass()))
                 .collect(Collectors.toSet());
@@ -57,16 +122,21 @@ else if (beans.size() > 1) {
             throw new DebeziumException("Multiple Debezium consumers named '" + name + "' were found");
         }
 
-        consumerBean = (Bean<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>>) beans.iterator().next();
-        consumerBeanCreationalContext = beanManager.createCreationalContext(consumerBean);
-        consumer = consumerBean.create(consumerBeanCreationalContext);
-        LOGGER.info("Consumer '{}' instantiated", consumer.getClass().getName());
-
-        return new DefaultChangeConsumer(consumer, config);
+        return (Bean<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>>) beans.iterator().next();
     }
 
     @PreDestroy
-    void cleanup() {
-        consumerBean.destroy(consumer, consumerBeanCreationalContext);
+    void cleanup() throws InterruptedException {
+        if (fanOut != null) {
+            fanOut.close(Duration.ofSeconds(10));
+        }
+        for (SinkInstance sink : sinks) {
+            sink.bean().destroy(sink.consumer(), sink.creationalContext());
+        }
+    }
+
+    private record SinkInstance(Bean<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> bean,
+                                CreationalContext<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> creationalContext,
+                                DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> consumer) {
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.eclipse.microprofile.config.Config;
+
+/**
+ * Index of the configuration property names serving prefix lookups.
+ * <p>
+ * The property names are read and environment variable style names (e.g. {@code DEBEZIUM_SINK_TYPE}) are normalized
+ * to their dotted form only once, when the index is built. Lookups by prefix then visit only the matching names
+ * instead of scanning all of them, which matters when thousands of environment variables are present. Values are
+ * still read from the configuration when looked up.
+ */
+final class ConfigIndex {
+
+    private static final Pattern SHELL_PROPERTY_NAME_PATTERN = Pattern.compile("^[a-zA-Z0-9_]+_+[a-zA-Z0-9_]+$");
+
+    private static volatile ConfigIndex last;
+
+    private final Config config;
+    // Normalized name to the original names in the order the configuration returned them
+    private final NavigableMap<String, List<Source>> normalizedNames = new TreeMap<>();
+    private final NavigableSet<String> names = new TreeSet<>();
+
+    /**
+     * An original property name, {@code shell} if it was normalized from an environment variable style name.
+     */
+    private record Source(String name, boolean shell) {
+    }
+
+    private ConfigIndex(Config config) {
+        this.config = config;
+        for (String name : config.getPropertyNames()) {
+            names.add(name);
+            final boolean shell = SHELL_PROPERTY_NAME_PATTERN.matcher(name).matches();
+            final String normalized = shell ? name.replace("_", ".").toLowerCase() : name;
+            normalizedNames.computeIfAbsent(normalized, n -> new ArrayList<>(1)).add(new Source(name, shell));
+        }
+    }
+
+    /**
+     * Returns the index of the configuration, reusing the last index built when it is for the same configuration.
+     */
+    static ConfigIndex of(Config config) {
+        ConfigIndex index = last;
+        if (index == null || index.config != config) {
+            index = new ConfigIndex(config);
+            last = index;
+        }
+        return index;
+    }
+
+    /**
+     * Copies the properties with the given prefix, environment variable style names are matched in their normalized
+     * form, to the properties replacing the prefix with the new one.
+     *
+     * @param overwrite whether a property already present is overwritten
+     */
+    void copyToProperties(Properties props, String oldPrefix, String newPrefix, boolean overwrite) {
+        for (Map.Entry<String, List<Source>> entry : normalizedNames.tailMap(oldPrefix, true).entrySet()) {
+            final String normalized = entry.getKey();
+            if (!normalized.startsWith(oldPrefix)) {
+                break;
+            }
+            final String finalPropertyName = newPrefix + normalized.substring(oldPrefix.length());
+            for (Source source : entry.getValue()) {
+                if (overwrite || !props.containsKey(finalPropertyName)) {
+                    props.setProperty(finalPropertyName, source.shell()
+                            ? config.getOptionalValue(source.name(), String.class).orElse("")
+                            : config.getConfigValue(source.name()).getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the properties whose original name starts with the prefix, keyed by the name without the prefix.
+     */
+    Map<String, Object> subset(String prefix) {
+        final Map<String, Object> subset = new HashMap<>();
+        for (String name : names.tailSet(prefix, true)) {
+            if (!name.startsWith(prefix)) {
+                break;
+            }
+            subset.put(name.substring(prefix.length()), config.getConfigValue(name).getValue());
+        }
+        return subset;
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+
+import org.eclipse.microprofile.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.engine.Header;
+import io.debezium.util.Clock;
+import io.debezium.util.Metronome;
+
+/**
+ * Quarantines records that a sink cannot deliver so that the rest of the stream keeps flowing.
+ * <p>
+ * The records are handed over to a bounded queue and written by a single writer thread to the configured target,
+ * either a local file with one JSON document per line, forced to the storage device after every record, or another
+ * Debezium Server sink. The future returned by {@link #send} completes once the record was written, a sink must not
+ * mark a quarantined record as processed before. The reason of the failure is attached to every record, as a
+ * {@code dlq.reason} header when written to a sink. A write is retried a bounded number of times, when it still
+ * fails the queue stops and fails the pending and all further records.
+ * <p>
+ * The queue is configured by the {@code debezium.dlq.} properties:
+ * <ul>
+ * <li>{@code type} - {@code none} (default), {@code file} or {@code sink}</li>
+ * <li>{@code file.path} - the file the records are appended to, {@code data/dlq.jsonl} by default</li>
+ * <li>{@code sink.type} - name of the sink the records are delivered to</li>
+ * <li>{@code queue.size} - number of records waiting to be written, {@code 1000} by default</li>
+ * <li>{@code retries} and {@code retry.interval.ms} - retries of a failed write, {@code 3} and {@code 1000} by default</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class DeadLetterQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadLetterQueue.class);
+
+    static final String PROP_PREFIX = "debezium.dlq.";
+    static final String PROP_TYPE = PROP_PREFIX + "type";
+    static final String PROP_FILE_PATH = PROP_PREFIX + "file.path";
+    static final String PROP_SINK_TYPE = PROP_PREFIX + "sink.type";
+    static final String PROP_QUEUE_SIZE = PROP_PREFIX + "queue.size";
+    static final String PROP_RETRIES = PROP_PREFIX + "retries";
+    static final String PROP_RETRY_INTERVAL = PROP_PREFIX + "retry.interval.ms";
+
+    static final String HEADER_REASON = "dlq.reason";
+
+    private static final String TYPE_NONE = "none";
+    private static final String TYPE_FILE = "file";
+    private static final String TYPE_SINK = "sink";
+    private static final String DEFAULT_FILE_PATH = "data/dlq.jsonl";
+    private static final int DEFAULT_QUEUE_SIZE = 1_000;
+    private static final int DEFAULT_RETRIES = 3;
+    private static final long DEFAULT_RETRY_INTERVAL = 1_000L;
+
+    private final Config config;
+    private final BeanManager beanManager;
+
+    private BlockingQueue<DeadLetter> queue;
+    private Target target;
+    private Thread writer;
+    private FileChannel fileChannel;
+    private int retries;
+    private Duration retryInterval;
+    private volatile boolean running;
+    private volatile Throwable failure;
+
+    private Bean<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> sinkBean;
+    private CreationalContext<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> sinkCreationalContext;
+    private DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> sink;
+
+    public DeadLetterQueue(Config config, BeanManager beanManager) {
+        this.config = config;
+        this.beanManager = beanManager;
+    }
+
+    @FunctionalInterface
+    private interface Target {
+        void write(DeadLetter deadLetter) throws Exception;
+    }
+
+    private record DeadLetter(ChangeEvent<Object, Object> record, String sink, String reason, Instant timestamp, CompletableFuture<Void> written) {
+    }
+
+    @PostConstruct
+    void start() {
+        final String type = config.getOptionalValue(PROP_TYPE, String.class).orElse(TYPE_NONE);
+        switch (type) {
+            case TYPE_NONE -> {
+                return;
+            }
+            case TYPE_FILE -> target = fileTarget(Paths.get(config.getOptionalValue(PROP_FILE_PATH, String.class).orElse(DEFAULT_FILE_PATH)));
+            case TYPE_SINK -> target = sinkTarget(config.getValue(PROP_SINK_TYPE, String.class));
+            default -> throw new DebeziumException("Unknown dead letter queue type '" + type + "' for option '" + PROP_TYPE + "'");
+        }
+        queue = new ArrayBlockingQueue<>(config.getOptionalValue(PROP_QUEUE_SIZE, Integer.class).orElse(DEFAULT_QUEUE_SIZE));
+        retries = config.getOptionalValue(PROP_RETRIES, Integer.class).orElse(DEFAULT_RETRIES);
+        retryInterval = Duration.ofMillis(config.getOptionalValue(PROP_RETRY_INTERVAL, Long.class).orElse(DEFAULT_RETRY_INTERVAL));
+
+        running = true;
+        writer = new Thread(this::writeLoop, "debezium-server-dlq");
+        writer.setDaemon(true);
+        writer.start();
+        LOGGER.info("Dead letter queue of type '{}' enabled", type);
+    }
+
+    /**
+     * @return {@code true} if failed records are quarantined, {@code false} if they should fail the pipeline
+     */
+    public boolean isEnabled() {
+        return target != null;
+    }
+
+    /**
+     * Hands the record over to the dead letter queue, blocking while the queue is full.
+     *
+     * @param record the record that could not be delivered
+     * @param sink the name of the sink that failed
+     * @param cause the reason of the failure
+     * @return future completed once the record was written, or exceptionally if it could not be written
+     * @throws DebeziumException if a previously quarantined record could not be written
+     */
+    public CompletableFuture<Void> send(ChangeEvent<Object, Object> record, String sink, Throwable cause) throws InterruptedException {
+        throwIfFailed();
+        if (!running) {
+            throw new DebeziumException("Dead letter queue was stopped");
+        }
+        LOGGER.warn("Sending record to '{}' to dead letter queue: {}", record.destination(), cause.getMessage());
+        final DeadLetter deadLetter = new DeadLetter(record, sink, String.valueOf(cause.getMessage()), Instant.now(), new CompletableFuture<>());
+        while (!queue.offer(deadLetter, 1, TimeUnit.SECONDS)) {
+            throwIfFailed();
+        }
+        return deadLetter.written();
+    }
+
+    private void throwIfFailed() {
+        final Throwable t = failure;
+        if (t != null) {
+            throw new DebeziumException("Failed to write record to dead letter queue", t);
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                final DeadLetter deadLetter = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (deadLetter != null) {
+                    try {
+                        write(deadLetter);
+                    }
+                    catch (Throwable t) {
+                        deadLetter.written().completeExceptionally(t);
+                        throw t;
+                    }
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (Throwable t) {
+            LOGGER.error("Failed to write record to dead letter queue, stopping", t);
+            failure = t;
+            failPending(t);
+        }
+    }
+
+    /**
+     * Fails the records that were not written, their sinks must not mark them as processed.
+     */
+    private void failPending(Throwable cause) {
+        DeadLetter deadLetter;
+        while ((deadLetter = queue.poll()) != null) {
+            deadLetter.written().completeExceptionally(new DebeziumException("Failed to write record to dead letter queue", cause));
+        }
+    }
+
+    private void write(DeadLetter deadLetter) throws Exception {
+        int attempts = 0;
+        while (true) {
+            try {
+                target.write(deadLetter);
+                deadLetter.written().complete(null);
+                return;
+            }
+            catch (Exception e) {
+                if (++attempts > retries) {
+                    throw e;
+                }
+                LOGGER.warn("Failed to write record to dead letter queue, retrying", e);
+                Metronome.sleeper(retryInterval, Clock.SYSTEM).pause();
+            }
+        }
+    }
+
+    private Target fileTarget(Path path) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return deadLetter -> {
+                final ByteBuffer line = ByteBuffer.wrap((toJson(deadLetter) + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                while (line.hasRemaining()) {
+                    fileChannel.write(line);
+                }
+                // The sink marks the record as processed once the write completes, it must survive a crash
+                fileChannel.force(false);
+            };
+        }
+        catch (IOException e) {
+            throw new DebeziumException("Failed to open dead letter queue file '" + path + "'", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Target sinkTarget(String name) {
+        final Set<Bean<?>> beans = beanManager.getBeans(name).stream()
+                .filter(x -> DebeziumEngine.ChangeConsumer.class.isAssignableFrom(x.getBeanClass()))
+                .collect(Collectors.toSet());
+        if (beans.size() != 1) {
+            throw new DebeziumException("Expected exactly one Debezium consumer named '" + name + "' for the dead letter queue but found " + beans.size());
+        }
+        sinkBean = (Bean<DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>>) beans.iterator().next();
+        sinkCreationalContext = beanManager.createCreationalContext(sinkBean);
+        sink = sinkBean.create(sinkCreationalContext);
+
+        return deadLetter -> sink.handleBatch(List.of(new DeadLetterChangeEvent(deadLetter)), new DiscardingRecordCommitter());
+    }
+
+    static String toJson(ChangeEvent<Object, Object> record, String sink, String reason, Instant timestamp) {
+        final StringBuilder json = new StringBuilder(256);
+        json.append('{');
+        appendField(json, "timestamp", timestamp.toString()).append(',');
+        appendField(json, "sink", sink).append(',');
+        appendField(json, "reason", reason).append(',');
+        appendField(json, "destination", record.destination()).append(',');
+        appendField(json, "key", record.key()).append(',');
+        appendField(json, "value", record.value()).append(',');
+        json.append("\"headers\":{");
+        boolean first = true;
+        for (Header<Object> header : record.<Object> headers()) {
+            if (!first) {
+                json.append(',');
+            }
+            appendField(json, header.getKey(), header.getValue());
+            first = false;
+        }
+        return json.append("}}").toString();
+    }
+
+    private static String toJson(DeadLetter deadLetter) {
+        return toJson(deadLetter.record(), deadLetter.sink(), deadLetter.reason(), deadLetter.timestamp());
+    }
+
+    private static StringBuilder appendField(StringBuilder json, String name, Object value) {
+        appendString(json, name).append(':');
+        return switch (value) {
+            case null -> json.append("null");
+            case byte[] b -> appendString(json, Base64.getEncoder().encodeToString(b));
+            default -> appendString(json, value.toString());
+        };
+    }
+
+    private static StringBuilder appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"');
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (!queue.isEmpty()) {
+            LOGGER.warn("{} record(s) were not written to the dead letter queue, their batches fail", queue.size());
+            failPending(new DebeziumException("Dead letter queue was stopped"));
+        }
+        if (sink != null) {
+            sinkBean.destroy(sink, sinkCreationalContext);
+        }
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            }
+            catch (IOException e) {
+                LOGGER.warn("Failed to close dead letter queue file", e);
+            }
+        }
+    }
+
+    /**
+     * The quarantined record with the failure reason attached as a header.
+     */
+    private static class DeadLetterChangeEvent implements ChangeEvent<Object, Object> {
+
+        private final ChangeEvent<Object, Object> record;
+        private final List<Header<Object>> headers;
+
+        DeadLetterChangeEvent(DeadLetter deadLetter) {
+            this.record = deadLetter.record();
+            this.headers = new ArrayList<>(record.<Object> headers());
+            this.headers.add(new ReasonHeader(deadLetter.reason()));
+        }
+
+        @Override
+        public Object key() {
+            return record.key();
+        }
+
+        @Override
+        public Object value() {
+            return record.value();
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @Override
+        public <H> List<Header<H>> headers() {
+            return (List) headers;
+        }
+
+        @Override
+        public String destination() {
+            return record.destination();
+        }
+
+        @Override
+        public Integer partition() {
+            return record.partition();
+        }
+    }
+
+    private record ReasonHeader(String reason) implements Header<Object> {
+
+        @Override
+        public String getKey() {
+            return HEADER_REASON;
+        }
+
+        @Override
+        public Object getValue() {
+            return reason;
+        }
+    }
+
+    /**
+     * The offsets are committed by the failed sink, the dead letter sink only needs to deliver the record.
+     */
+    private static class DiscardingRecordCommitter implements DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> {
+
+        @Override
+        public void markProcessed(ChangeEvent<Object, Object> record) {
+        }
+
+        @Override
+        public void markBatchFinished() {
+        }
+
+        @Override
+        public void markProcessed(ChangeEvent<Object, Object> record, DebeziumEngine.Offsets sourceOffsets) {
+        }
+
+        @Override
+        public DebeziumEngine.Offsets buildOffsets() {
+            return null;
+        }
+    }
+}
@@ -7,13 +7,29 @@
 package io.debezium.server;
 
 import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.Dependent;
 
+import javax.management.Attribute;
+import javax.management.AttributeList;
 import javax.management.MBeanServer;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,6 +39,11 @@
  * Reads debezium source pipeline metrics.
  * NOTE: calls for reading metrics should be made after debezium connector initialized,
  * after connector registers metrics, otherwise it will throw `Debezium Mbean not found` error
+ * <p>
+ * The connector MBeans are looked up once with an {@link ObjectName} pattern query and the lookup is invalidated
+ * when a connector MBean is registered or unregistered, e.g. on connector restart. All attributes of a metrics context
+ * are read with a single {@link MBeanServer#getAttributes} call and served from a snapshot that is refreshed at most
+ * once per {@code debezium.metrics.refresh.interval.ms}.
  *
  * @author Ismail Simsek
  */
@@ -32,25 +53,63 @@ public class DebeziumMetrics {
     protected static final Logger LOGGER = LoggerFactory.getLogger(DebeziumMetrics.class);
     public static final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
 
-    private ObjectName snapshotMetricsObjectName;
-    private ObjectName snapshotPartitionMetricsObjectName;
-    private ObjectName streamingMetricsObjectName;
-    private ObjectName streamingPartitionMetricsObjectName;
+    private static final String CONTEXT_SNAPSHOT = "snapshot";
+    private static final String CONTEXT_STREAMING = "streaming";
+
+    private static final String QUEUE_TOTAL_CAPACITY = "QueueTotalCapacity";
+    private static final String QUEUE_REMAINING_CAPACITY = "QueueRemainingCapacity";
+    private static final String MILLISECONDS_BEHIND_SOURCE = "MilliSecondsBehindSource";
+    private static final String SNAPSHOT_RUNNING = "SnapshotRunning";
+    private static final String SNAPSHOT_COMPLETED = "SnapshotCompleted";
+
+    private static final ObjectName CONNECTOR_METRICS_PATTERN = objectName("debezium.*:type=connector-metrics,*");
+
+    @ConfigProperty(name = "debezium.metrics.refresh.interval.ms", defaultValue = "1000")
+    long refreshIntervalMs;
+
+    private volatile ObjectName snapshotMetricsObjectName;
+    private volatile ObjectName snapshotPartitionMetricsObjectName;
+    private volatile ObjectName streamingMetricsObjectName;
+    private volatile ObjectName streamingPartitionMetricsObjectName;
+
+    private final Map<String, MetricsSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final NotificationListener registrationListener = (notification, handback) -> {
+        LOGGER.debug("Debezium MBean {} changed, invalidating cached metrics", ((MBeanServerNotification) notification).getMBeanName());
+        invalidate();
+    };
+
+    @PostConstruct
+    void registerListener() {
+        final NotificationFilter filter = notification -> notification instanceof MBeanServerNotification n
+                && CONNECTOR_METRICS_PATTERN.apply(n.getMBeanName());
+        try {
+            mbeanServer.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, registrationListener, filter, null);
+        }
+        catch (Exception e) {
+            LOGGER.warn("Cannot listen for Debezium MBean registrations, connector restarts will not be detected", e);
+        }
+    }
+
+    @PreDestroy
+    void unregisterListener() {
+        try {
+            mbeanServer.removeNotificationListener(MBeanServerDelegate.DELEGATE_NAME, registrationListener);
+        }
+        catch (Exception e) {
+            LOGGER.debug("Cannot remove Debezium MBean registration listener", e);
+        }
+    }
 
     private static ObjectName getDebeziumMbean(String context, boolean partitioned) {
         ObjectName debeziumMbean = null;
 
-        for (ObjectName mbean : mbeanServer.queryNames(null, null)) {
-
-            if (mbean.getCanonicalName().contains("debezium.")
-                    && mbean.getCanonicalName().contains("type=connector-metrics")
-                    && mbean.getCanonicalName().contains("context=" + context)
-                    && checkConnectorSpecificTags(mbean, partitioned)) {
+        for (ObjectName mbean : mbeanServer.queryNames(objectName("debezium.*:type=connector-metrics,context=" + context + ",*"), null)) {
+            if (checkConnectorSpecificTags(mbean, partitioned)) {
                 LOGGER.debug("Using {} MBean to get {} metrics", mbean, context);
                 debeziumMbean = mbean;
                 break;
             }
-
         }
 
         Objects.requireNonNull(debeziumMbean, "Debezium MBean (context=" + context + ") not found!");
@@ -59,16 +118,36 @@ && checkConnectorSpecificTags(mbean, partitioned)) {
     }
 
     private static boolean checkConnectorSpecificTags(ObjectName mbean, boolean partitioned) {
-        if (mbean.getCanonicalName().contains("debezium.sql_server:")) {
-            return mbean.getCanonicalName().contains("database=") == partitioned;
+        if ("debezium.sql_server".equals(mbean.getDomain())) {
+            return (mbean.getKeyProperty("database") != null) == partitioned;
         }
         return true;
     }
 
+    private static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(name);
+        }
+        catch (MalformedObjectNameException e) {
+            throw new DebeziumException(e);
+        }
+    }
+
+    /**
+     * Drops the resolved MBean names and the cached attribute values so that they are looked up again on next access.
+     */
+    public void invalidate() {
+        snapshotMetricsObjectName = null;
+        snapshotPartitionMetricsObjectName = null;
+        streamingMetricsObjectName = null;
+        streamingPartitionMetricsObjectName = null;
+        snapshots.clear();
+    }
+
     public ObjectName getSnapshotMetricsObjectName() {
 
         if (snapshotMetricsObjectName == null) {
-            snapshotMetricsObjectName = getDebeziumMbean("snapshot", false);
+            snapshotMetricsObjectName = getDebeziumMbean(CONTEXT_SNAPSHOT, false);
         }
 
         return snapshotMetricsObjectName;
@@ -77,7 +156,7 @@ public ObjectName getSnapshotMetricsObjectName() {
     public ObjectName getSnapshotPartitionMetricsObjectName() {
 
         if (snapshotPartitionMetricsObjectName == null) {
-            snapshotPartitionMetricsObjectName = getDebeziumMbean("snapshot", true);
+            snapshotPartitionMetricsObjectName = getDebeziumMbean(CONTEXT_SNAPSHOT, true);
         }
 
         return snapshotPartitionMetricsObjectName;
@@ -86,7 +165,7 @@ public ObjectName getSnapshotPartitionMetricsObjectName() {
     public ObjectName getStreamingMetricsObjectName() {
 
         if (streamingMetricsObjectName == null) {
-            streamingMetricsObjectName = getDebeziumMbean("streaming", false);
+            streamingMetricsObjectName = getDebeziumMbean(CONTEXT_STREAMING, false);
         }
 
         return streamingMetricsObjectName;
@@ -95,59 +174,79 @@ public ObjectName getStreamingMetricsObjectName() {
     public ObjectName getStreamingPartitionMetricsObjectName() {
 
         if (streamingPartitionMetricsObjectName == null) {
-            streamingPartitionMetricsObjectName = getDebeziumMbean("streaming", true);
+            streamingPartitionMetricsObjectName = getDebeziumMbean(CONTEXT_STREAMING, true);
         }
 
         return streamingPartitionMetricsObjectName;
     }
 
     public int maxQueueSize() {
-        try {
-            return (int) mbeanServer.getAttribute(getStreamingMetricsObjectName(), "QueueTotalCapacity");
-        }
-        catch (Exception e) {
-            throw new DebeziumException(e);
-        }
+        return (int) streamingAttribute(QUEUE_TOTAL_CAPACITY);
     }
 
     public boolean snapshotRunning() {
-        try {
-            return (boolean) mbeanServer.getAttribute(getSnapshotPartitionMetricsObjectName(), "SnapshotRunning");
-        }
-        catch (Exception e) {
-            throw new DebeziumException(e);
-        }
+        return (boolean) snapshotAttribute(SNAPSHOT_RUNNING);
     }
 
     public boolean snapshotCompleted() {
-        try {
-            return (boolean) mbeanServer.getAttribute(getSnapshotPartitionMetricsObjectName(), "SnapshotCompleted");
-        }
-        catch (Exception e) {
-            throw new DebeziumException(e);
-        }
+        return (boolean) snapshotAttribute(SNAPSHOT_COMPLETED);
     }
 
     public int streamingQueueRemainingCapacity() {
-        try {
-            return (int) mbeanServer.getAttribute(getStreamingMetricsObjectName(), "QueueRemainingCapacity");
-        }
-        catch (Exception e) {
-            throw new DebeziumException(e);
-        }
+        return (int) streamingAttribute(QUEUE_REMAINING_CAPACITY);
     }
 
     public int streamingQueueCurrentSize() {
-        return maxQueueSize() - streamingQueueRemainingCapacity();
+        final MetricsSnapshot snapshot = streamingSnapshot();
+        return (int) snapshot.get(QUEUE_TOTAL_CAPACITY) - (int) snapshot.get(QUEUE_REMAINING_CAPACITY);
     }
 
     public long streamingMilliSecondsBehindSource() {
+        return (long) streamingAttribute(MILLISECONDS_BEHIND_SOURCE);
+    }
+
+    private Object snapshotAttribute(String attribute) {
+        return snapshot(CONTEXT_SNAPSHOT, () -> Map.of(
+                getSnapshotPartitionMetricsObjectName(), List.of(SNAPSHOT_RUNNING, SNAPSHOT_COMPLETED))).get(attribute);
+    }
+
+    private Object streamingAttribute(String attribute) {
+        return streamingSnapshot().get(attribute);
+    }
+
+    private MetricsSnapshot streamingSnapshot() {
+        return snapshot(CONTEXT_STREAMING, () -> {
+            final Map<ObjectName, List<String>> attributes = new LinkedHashMap<>();
+            attributes.put(getStreamingMetricsObjectName(), List.of(QUEUE_TOTAL_CAPACITY, QUEUE_REMAINING_CAPACITY));
+            // Both are the same MBean for all connectors but SQL Server, read all attributes at once in that case
+            attributes.merge(getStreamingPartitionMetricsObjectName(), List.of(MILLISECONDS_BEHIND_SOURCE),
+                    (first, second) -> List.of(QUEUE_TOTAL_CAPACITY, QUEUE_REMAINING_CAPACITY, MILLISECONDS_BEHIND_SOURCE));
+            return attributes;
+        });
+    }
+
+    private MetricsSnapshot snapshot(String context, Supplier<Map<ObjectName, List<String>>> attributes) {
+        final long now = System.currentTimeMillis();
+        final MetricsSnapshot cached = snapshots.get(context);
+        if (cached != null && now - cached.timestamp() < refreshIntervalMs) {
+            return cached;
+        }
+
+        final Map<String, Object> values = new HashMap<>();
         try {
-            return (long) mbeanServer.getAttribute(getStreamingPartitionMetricsObjectName(), "MilliSecondsBehindSource");
+            for (Map.Entry<ObjectName, List<String>> entry : attributes.get().entrySet()) {
+                final AttributeList read = mbeanServer.getAttributes(entry.getKey(), entry.getValue().toArray(new String[0]));
+                for (Attribute attribute : read.asList()) {
+                    values.put(attribute.getName(), attribute.getValue());
+                }
+            }
         }
         catch (Exception e) {
             throw new DebeziumException(e);
         }
+        final MetricsSnapshot snapshot = new MetricsSnapshot(now, values);
+        snapshots.put(context, snapshot);
+        return snapshot;
     }
 
     public void logMetrics() {
@@ -160,4 +259,15 @@ public void logMetrics() {
                 this.maxQueueSize(),
                 this.streamingMilliSecondsBehindSource());
     }
+
+    private record MetricsSnapshot(long timestamp, Map<String, Object> values) {
+
+        Object get(String attribute) {
+            final Object value = values.get(attribute);
+            if (value == null) {
+                throw new DebeziumException("Attribute '" + attribute + "' is not available");
+            }
+            return value;
+        }
+    }
 }
@@ -6,13 +6,14 @@
 package io.debezium.server;
 
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -30,6 +31,7 @@
 import io.debezium.embedded.ClientProvided;
 import io.debezium.embedded.Connect;
 import io.debezium.embedded.async.ConvertingAsyncEngineBuilderFactory;
+import io.debezium.engine.ChangeEvent;
 import io.debezium.engine.DebeziumEngine;
 import io.debezium.engine.DebeziumEngine.ChangeConsumer;
 import io.debezium.engine.format.Avro;
@@ -51,7 +53,11 @@
  * <p>The implementation uses CDI to find all classes that implements {@link DebeziumEngine.ChangeConsumer} interface.
  * The candidate classes should be annotated with {@code @Named} annotation and should be {@code Dependent}.</p>
  * <p>The configuration option {@code debezium.consumer} provides a name of the consumer that should be used and the value
- * must match to exactly one of the implementation classes.</p>
+ * must match to exactly one of the implementation classes. A comma-separated list of names delivers the same change stream
+ * to all the listed consumers concurrently, see {@code FanOutChangeConsumer}.</p>
+ * <p>By default the consumer is created before the engine. With {@code debezium.bootstrap.parallel.enabled} the consumer
+ * is created in the background while the engine starts the source connector, the first batch waits until the consumer
+ * is ready. A breakdown of the startup time is logged in both modes.</p>
  *
  * @author Jiri Pechanec
  *
@@ -85,6 +91,7 @@ public class DebeziumServer {
     private static final String PROP_TERMINATION_WAIT = PROP_PREFIX + "termination.wait";
 
     private static final String PROP_ENGINE_FACTORY = PROP_PREFIX + "engine.factory";
+    static final String PROP_BOOTSTRAP_PARALLEL = PROP_PREFIX + "bootstrap.parallel.enabled";
 
     private static final String FORMAT_JSON = Json.class.getSimpleName().toLowerCase();
     private static final String FORMAT_JSON_BYTE_ARRAY = JsonByteArray.class.getSimpleName().toLowerCase();
@@ -96,8 +103,6 @@ public class DebeziumServer {
     private static final String FORMAT_CONNECT = Connect.class.getSimpleName().toLowerCase();
     private static final String FORMAT_CLIENT_PROVIDED = ClientProvided.class.getSimpleName().toLowerCase();
 
-    private static final Pattern SHELL_PROPERTY_NAME_PATTERN = Pattern.compile("^[a-zA-Z0-9_]+_+[a-zA-Z0-9_]+$");
-
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
     private int returnCode = 0;
 
@@ -111,7 +116,7 @@ public class DebeziumServer {
     @Liveness
     ConnectorLifecycle health;
 
-    private DefaultChangeConsumer consumer;
+    private CompletableFuture<DefaultChangeConsumer> consumer;
 
     private DebeziumEngine<?> engine;
     private final Properties props = new Properties();
@@ -119,10 +124,27 @@ public class DebeziumServer {
     @SuppressWarnings("unchecked")
     @PostConstruct
     public void start() {
+        final long startNanos = System.nanoTime();
         final Config config = loadConfigOrDie();
         final String name = config.getValue(PROP_SINK_TYPE, String.class);
 
-        consumer = changeConsumerFactory.create();
+        final DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> engineConsumer;
+        final boolean parallelBootstrap = config.getOptionalValue(PROP_BOOTSTRAP_PARALLEL, boolean.class).orElse(false);
+        if (parallelBootstrap) {
+            // The sink is initialized while the engine starts the source connector, the first batch waits for it
+            consumer = CompletableFuture.supplyAsync(() -> {
+                final long sinkStart = System.nanoTime();
+                final DefaultChangeConsumer created = changeConsumerFactory.create();
+                LOGGER.info("Startup timing: sink initialized in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sinkStart));
+                return created;
+            }, runnable -> new Thread(runnable, "debezium-server-bootstrap").start());
+            engineConsumer = new DeferredChangeConsumer(consumer, changeConsumerFactory.supportsTombstoneEventsWithoutCreating(), startNanos);
+        }
+        else {
+            consumer = CompletableFuture.completedFuture(changeConsumerFactory.create());
+            engineConsumer = consumer.join();
+        }
+        final long sinkReadyNanos = System.nanoTime();
 
         final Class<Any> keyFormat = (Class<Any>) getFormat(config, PROP_KEY_FORMAT);
         final Class<Any> valueFormat = (Class<Any>) getFormat(config, PROP_VALUE_FORMAT);
@@ -135,8 +157,11 @@ public void start() {
         configToProperties(config, props, PROP_KEY_FORMAT_PREFIX, "key.converter.", true);
         configToProperties(config, props, PROP_VALUE_FORMAT_PREFIX, "value.converter.", true);
         configToProperties(config, props, PROP_HEADER_FORMAT_PREFIX, "header.converter.", true);
-        configToProperties(config, props, PROP_SINK_PREFIX + name + ".", SchemaHistory.CONFIGURATION_FIELD_PREFIX_STRING + name + ".", false);
-        configToProperties(config, props, PROP_SINK_PREFIX + name + ".", PROP_OFFSET_STORAGE_PREFIX + name + ".", false);
+        for (String sink : name.split(",")) {
+            final String sinkName = sink.trim();
+            configToProperties(config, props, PROP_SINK_PREFIX + sinkName + ".", SchemaHistory.CONFIGURATION_FIELD_PREFIX_STRING + sinkName + ".", false);
+            configToProperties(config, props, PROP_SINK_PREFIX + sinkName + ".", PROP_OFFSET_STORAGE_PREFIX + sinkName + ".", false);
+        }
 
         final Optional<String> transforms = config.getOptionalValue(PROP_TRANSFORMS, String.class);
         if (transforms.isPresent()) {
@@ -158,8 +183,9 @@ public void start() {
                 .using(props)
                 .using((DebeziumEngine.ConnectorCallback) health)
                 .using((DebeziumEngine.CompletionCallback) health)
-                .notifying(consumer)
+                .notifying(engineConsumer)
                 .build();
+        final long engineReadyNanos = System.nanoTime();
 
         executor.execute(() -> {
             try {
@@ -170,29 +196,42 @@ public void start() {
             }
         });
         LOGGER.info("Engine executor started");
-    }
-
-    private void configToProperties(Config config, Properties props, String oldPrefix, String newPrefix, boolean overwrite) {
-        for (String name : config.getPropertyNames()) {
-            String updatedPropertyName = null;
-            if (SHELL_PROPERTY_NAME_PATTERN.matcher(name).matches()) {
-                updatedPropertyName = name.replace("_", ".").toLowerCase();
-            }
-            if (updatedPropertyName != null && updatedPropertyName.startsWith(oldPrefix)) {
-                String finalPropertyName = newPrefix + updatedPropertyName.substring(oldPrefix.length());
-                if (overwrite || !props.containsKey(finalPropertyName)) {
-                    props.setProperty(finalPropertyName, config.getOptionalValue(name, String.class).orElse(""));
-                }
+        LOGGER.info("Startup timing: sink initialization {}, engine creation {} ms",
+                parallelBootstrap ? "in background" : TimeUnit.NANOSECONDS.toMillis(sinkReadyNanos - startNanos) + " ms",
+                TimeUnit.NANOSECONDS.toMillis(engineReadyNanos - sinkReadyNanos));
+
+        consumer.whenComplete((ready, error) -> {
+            if (error != null) {
+                LOGGER.error("Failed to initialize the sink, stopping the engine", error);
+                returnCode = EXIT_CODE_ERROR;
+                closeEngine();
             }
-            else if (name.startsWith(oldPrefix)) {
-                String finalPropertyName = newPrefix + name.substring(oldPrefix.length());
-                if (overwrite || !props.containsKey(finalPropertyName)) {
-                    props.setProperty(finalPropertyName, config.getConfigValue(name).getValue());
-                }
+            else {
+                ready.onDeliveryFailure(this::deliveryFailed);
             }
+        });
+    }
+
+    private void deliveryFailed(Throwable error) {
+        LOGGER.error("Failed to deliver a batch to the sink, stopping the engine", error);
+        returnCode = EXIT_CODE_ERROR;
+        // Called from the delivery thread, the engine may be waiting for it while stopping
+        CompletableFuture.runAsync(this::closeEngine);
+    }
+
+    private void closeEngine() {
+        try {
+            engine.close();
+        }
+        catch (Exception e) {
+            LOGGER.warn("Failed to stop the engine", e);
         }
     }
 
+    private void configToProperties(Config config, Properties props, String oldPrefix, String newPrefix, boolean overwrite) {
+        ConfigIndex.of(config).copyToProperties(props, oldPrefix, newPrefix, overwrite);
+    }
+
     private Class<?> getFormat(Config config, String property) {
         final String formatName = config.getOptionalValue(property, String.class).orElse(FORMAT_JSON);
         if (FORMAT_JSON.equals(formatName)) {
@@ -249,6 +288,12 @@ public void stop(@Observes ShutdownEvent event) {
         try {
             LOGGER.info("Received request to stop the engine");
             final Config config = ConfigProvider.getConfig();
+            final int terminationWait = config.getOptionalValue(PROP_TERMINATION_WAIT, Integer.class).orElse(10);
+            final boolean consumerReady = consumer.isDone() && !consumer.isCompletedExceptionally();
+            if (consumerReady) {
+                // The in-flight batches are delivered and committed while the engine can still write the offsets
+                consumer.join().drain(Duration.ofSeconds(terminationWait));
+            }
             try {
                 engine.close();
             }
@@ -257,7 +302,10 @@ public void stop(@Observes ShutdownEvent event) {
                 LOGGER.info("Cannot shut down engine now: ", e.getMessage());
             }
             executor.shutdown();
-            executor.awaitTermination(config.getOptionalValue(PROP_TERMINATION_WAIT, Integer.class).orElse(10), TimeUnit.SECONDS);
+            executor.awaitTermination(terminationWait, TimeUnit.SECONDS);
+            if (consumerReady) {
+                consumer.join().close(Duration.ofSeconds(terminationWait));
+            }
         }
         catch (Exception e) {
             LOGGER.error("Exception while shutting down Debezium", e);
@@ -296,7 +344,7 @@ private Config loadConfigOrDie() {
      * For test purposes only
      */
     DebeziumEngine.ChangeConsumer<?> getConsumer() {
-        return consumer.getDelegateConsumer();
+        return consumer.join().getDelegateConsumer();
     }
 
     public Properties getProps() {
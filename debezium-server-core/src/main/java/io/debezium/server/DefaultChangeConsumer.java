@@ -6,84 +6,196 @@
 package io.debezium.server;
 
 import static io.debezium.openlineage.OpenLineageConfig.OPEN_LINEAGE_INTEGRATION_ENABLED;
-import static io.debezium.openlineage.dataset.DatasetMetadata.STREAM_DATASET_TYPE;
 import static io.debezium.openlineage.dataset.DatasetMetadata.DataStore.KAFKA;
-import static io.debezium.openlineage.dataset.DatasetMetadata.DatasetKind.OUTPUT;
 import static io.debezium.server.DebeziumServer.PROP_SINK_TYPE;
 import static io.debezium.server.DebeziumServer.PROP_SOURCE_PREFIX;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 
-import org.apache.kafka.connect.header.ConnectHeaders;
-import org.apache.kafka.connect.source.SourceRecord;
 import org.eclipse.microprofile.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.debezium.DebeziumException;
-import io.debezium.connector.common.DebeziumTaskState;
-import io.debezium.embedded.EmbeddedEngineChangeEvent;
 import io.debezium.engine.ChangeEvent;
 import io.debezium.engine.DebeziumEngine;
-import io.debezium.openlineage.ConnectorContext;
-import io.debezium.openlineage.DebeziumOpenLineageEmitter;
-import io.debezium.openlineage.dataset.DatasetDataExtractor;
 import io.debezium.openlineage.dataset.DatasetMetadata;
 
 public class DefaultChangeConsumer extends BaseChangeConsumer implements DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultChangeConsumer.class);
 
+    static final String PROP_PIPELINE_ENABLED = "debezium.pipeline.enabled";
+    static final String PROP_PIPELINE_MAX_IN_FLIGHT_BATCHES = "debezium.pipeline.max.in.flight.batches";
+    static final String PROP_OPEN_LINEAGE_EMIT_INTERVAL = "debezium.openlineage.emit.interval.ms";
+    static final String PROP_SPILL_ENABLED = "debezium.spill.enabled";
+    static final String PROP_SPILL_DIRECTORY = "debezium.spill.directory";
+    static final String PROP_SPILL_SEGMENT_SIZE = "debezium.spill.segment.size.bytes";
+    static final String PROP_SPILL_MAX_BYTES = "debezium.spill.max.bytes";
+
+    private static final int DEFAULT_PIPELINE_MAX_IN_FLIGHT_BATCHES = 2;
+    private static final String DEFAULT_SPILL_DIRECTORY = "data/spill";
+    private static final int DEFAULT_SPILL_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final long DEFAULT_SPILL_MAX_BYTES = 1024L * 1024 * 1024;
+    private static final long DEFAULT_OPEN_LINEAGE_EMIT_INTERVAL = 60_000L;
+
     private final DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> delegateConsumer;
-    private final Config config;
-    private final DatasetDataExtractor datasetDataExtractor;
-    private final boolean isOpenLineageEnabled;
+    private final OpenLineageDatasetEmitter lineageEmitter;
+    private final PipelinedBatchHandler pipeline;
+    private final SpillingBatchHandler spill;
+    private final SinkMetrics sinkMetrics;
+    private final Object drainLock = new Object();
+    private boolean drained;
+    private volatile Throwable deliveryFailure;
+    private volatile Consumer<Throwable> deliveryFailureListener = failure -> {
+    };
 
     public DefaultChangeConsumer(DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> delegateConsumer, Config config) {
+        this(delegateConsumer, config, null);
+    }
+
+    public DefaultChangeConsumer(DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> delegateConsumer, Config config, SinkMetrics sinkMetrics) {
         this.delegateConsumer = delegateConsumer;
-        this.config = config;
-        this.datasetDataExtractor = new DatasetDataExtractor();
-        this.isOpenLineageEnabled = config.getOptionalValue(PROP_SOURCE_PREFIX + OPEN_LINEAGE_INTEGRATION_ENABLED, boolean.class).orElse(false);
+        // Tracked even with metrics disabled, the health checks rely on the progress of the sink
+        this.sinkMetrics = sinkMetrics;
+        this.lineageEmitter = createLineageEmitter(config);
+
+        if (config.getOptionalValue(PROP_PIPELINE_ENABLED, boolean.class).orElse(false)) {
+            final int maxInFlightBatches = config.getOptionalValue(PROP_PIPELINE_MAX_IN_FLIGHT_BATCHES, Integer.class)
+                    .orElse(DEFAULT_PIPELINE_MAX_IN_FLIGHT_BATCHES);
+            LOGGER.info("Pipelined delivery enabled with at most {} in-flight batch(es)", maxInFlightBatches);
+            this.pipeline = new PipelinedBatchHandler(maxInFlightBatches, this::deliveryFailed);
+        }
+        else {
+            this.pipeline = null;
+        }
+
+        if (config.getOptionalValue(PROP_SPILL_ENABLED, boolean.class).orElse(false)) {
+            if (pipeline != null) {
+                throw new DebeziumException("Options '" + PROP_PIPELINE_ENABLED + "' and '" + PROP_SPILL_ENABLED + "' cannot be enabled together");
+            }
+            if (requiresEngineRecords(delegateConsumer)) {
+                throw new DebeziumException("The sink needs the records as produced by the engine, option '" + PROP_SPILL_ENABLED + "' is not supported");
+            }
+            final Path directory = Paths.get(config.getOptionalValue(PROP_SPILL_DIRECTORY, String.class).orElse(DEFAULT_SPILL_DIRECTORY));
+            final int segmentSize = config.getOptionalValue(PROP_SPILL_SEGMENT_SIZE, Integer.class).orElse(DEFAULT_SPILL_SEGMENT_SIZE);
+            final long maxBytes = config.getOptionalValue(PROP_SPILL_MAX_BYTES, Long.class).orElse(DEFAULT_SPILL_MAX_BYTES);
+            LOGGER.info("Spilling batches to '{}' with at most {} bytes waiting for delivery", directory, maxBytes);
+            this.spill = new SpillingBatchHandler(directory, segmentSize, maxBytes, this::deliver, this::deliveryFailed);
+        }
+        else {
+            this.spill = null;
+        }
     }
 
     @Override
     public void handleBatch(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
             throws InterruptedException {
 
-        final String sink = config.getValue(PROP_SINK_TYPE, String.class);
+        if (pipeline != null || spill != null) {
+            synchronized (drainLock) {
+                if (!drained) {
+                    if (pipeline != null) {
+                        // The sink commits the offsets once the records are acknowledged, the engine does not need to wait for it
+                        pipeline.submit(() -> deliver(records, records, committer));
+                    }
+                    else {
+                        // The batch is committed only after it is drained from disk and acknowledged by the sink
+                        spill.submit(records, committer);
+                    }
+                    return;
+                }
+            }
+            // Batches handed over while the engine is stopping are delivered directly, unless an earlier batch was lost
+            final Throwable failure = deliveryFailure;
+            if (failure != null) {
+                throw new DebeziumException("Delivery of a previous batch failed", failure);
+            }
+        }
+        deliver(records, records, committer);
+    }
+
+    /**
+     * @param records the records handed to the sink
+     * @param engineRecords the records as produced by the engine, differ from {@code records} only for spilled batches
+     */
+    private void deliver(List<ChangeEvent<Object, Object>> records, List<ChangeEvent<Object, Object>> engineRecords,
+                         DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
+            throws InterruptedException {
 
+        final long start = System.nanoTime();
+        if (sinkMetrics != null) {
+            sinkMetrics.batchStarted();
+        }
         try {
-            this.delegateConsumer.handleBatch(records, committer);
+            this.delegateConsumer.handleBatch(records, sinkMetrics != null ? sinkMetrics.meteredCommitter(committer) : committer);
         }
         catch (Exception e) {
+            if (sinkMetrics != null) {
+                sinkMetrics.batchFailed();
+            }
             throw new DebeziumException("Error while executing batch", e);
         }
+        finally {
+            if (sinkMetrics != null) {
+                sinkMetrics.batchCompleted();
+            }
+        }
+        if (sinkMetrics != null) {
+            sinkMetrics.batchDelivered(records, System.nanoTime() - start);
+        }
 
-        if (isOpenLineageEnabled) {
-            Optional<DatasetMetadata.DataStore> dataStore = getDataStore(sink);
-            dataStore.ifPresentOrElse(
-                    extractLineageMetadata(records),
-                    () -> LOGGER.warn("Current {} sink is not supported to emit OpenLineage output dataset", sink));
+        if (lineageEmitter != null) {
+            lineageEmitter.batchDelivered(engineRecords);
         }
+    }
+
+    private void deliveryFailed(Throwable failure) {
+        deliveryFailure = failure;
+        deliveryFailureListener.accept(failure);
+    }
 
+    /**
+     * Registers the listener notified as soon as a batch delivered in pipelined or spill mode fails, a failure that
+     * happened before the registration is reported immediately.
+     */
+    void onDeliveryFailure(Consumer<Throwable> listener) {
+        deliveryFailureListener = listener;
+        final Throwable failure = deliveryFailure;
+        if (failure != null) {
+            listener.accept(failure);
+        }
     }
 
-    private Consumer<DatasetMetadata.DataStore> extractLineageMetadata(List<ChangeEvent<Object, Object>> records) {
-        return store -> records.forEach(record -> {
-            SourceRecord sourceRecord = ((EmbeddedEngineChangeEvent<Object, Object, Object>) record).sourceRecord();
-            ConnectHeaders headers = new ConnectHeaders();
+    static boolean requiresEngineRecords(DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> consumer) {
+        return switch (consumer) {
+            case BaseChangeConsumer sink -> sink.requiresEngineRecords();
+            case FanOutChangeConsumer fanOut -> fanOut.requiresEngineRecords();
+            default -> false;
+        };
+    }
 
-            convertHeaders(record).forEach(headers::addString);
-            ConnectorContext connectorContext = ConnectorContext.from(sourceRecord.headers());
-            String datasetName = streamNameMapper.map(record.destination());
+    private OpenLineageDatasetEmitter createLineageEmitter(Config config) {
+        if (!config.getOptionalValue(PROP_SOURCE_PREFIX + OPEN_LINEAGE_INTEGRATION_ENABLED, boolean.class).orElse(false)) {
+            return null;
+        }
+        final String sink = config.getValue(PROP_SINK_TYPE, String.class);
+        final Optional<DatasetMetadata.DataStore> dataStore = getDataStore(sink);
+        if (dataStore.isEmpty()) {
+            LOGGER.warn("Current {} sink is not supported to emit OpenLineage output dataset", sink);
+            return null;
+        }
+        final long interval = config.getOptionalValue(PROP_OPEN_LINEAGE_EMIT_INTERVAL, Long.class).orElse(DEFAULT_OPEN_LINEAGE_EMIT_INTERVAL);
+        return new OpenLineageDatasetEmitter(dataStore.get(), this::mapStreamName, Duration.ofMillis(interval));
+    }
 
-            List<DatasetMetadata.FieldDefinition> fieldDefinitions = datasetDataExtractor
-                    .extract(sourceRecord);
-            DebeziumOpenLineageEmitter.emit(connectorContext, DebeziumTaskState.RUNNING,
-                    List.of(new DatasetMetadata(datasetName, OUTPUT, STREAM_DATASET_TYPE, store, fieldDefinitions)));
-        });
+    private String mapStreamName(String destination) {
+        return streamNameMapper.map(destination);
     }
 
     private Optional<DatasetMetadata.DataStore> getDataStore(String sink) {
@@ -101,4 +213,34 @@ public boolean supportsTombstoneEvents() {
     public DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> getDelegateConsumer() {
         return this.delegateConsumer;
     }
+
+    /**
+     * Waits for the batches that are still being delivered in pipelined or spill mode. Batches handed over by the
+     * engine afterwards are delivered directly on the engine thread, so the offsets of all batches can be committed
+     * before the engine is stopped.
+     */
+    void drain(Duration timeout) throws InterruptedException {
+        // Held while draining so that a batch handed over concurrently is delivered only after the in-flight ones
+        synchronized (drainLock) {
+            if (drained) {
+                return;
+            }
+            drained = true;
+            final boolean delivered = pipeline != null ? pipeline.close(timeout) : spill == null || spill.close(timeout);
+            if (!delivered && deliveryFailure == null) {
+                // Later batches must not commit offsets past the batches that were not delivered
+                deliveryFailure = new DebeziumException("Batches were not delivered within " + timeout);
+            }
+        }
+    }
+
+    /**
+     * Drains the batches that are still being delivered in pipelined or spill mode and waits for pending lineage events.
+     */
+    void close(Duration timeout) throws InterruptedException {
+        drain(timeout);
+        if (lineageEmitter != null) {
+            lineageEmitter.close(timeout);
+        }
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+
+/**
+ * Consumer handed to the engine while the sink is still being initialized in the background.
+ * <p>
+ * The engine can start the source connector right away, the first batch waits until the sink is ready. The support
+ * of tombstones is answered without waiting when it is known from the sink classes, otherwise the engine waits for
+ * the sink already when it asks.
+ */
+class DeferredChangeConsumer implements DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeferredChangeConsumer.class);
+
+    private final CompletableFuture<DefaultChangeConsumer> consumer;
+    private final Boolean supportsTombstoneEvents;
+    private final long startNanos;
+    private volatile boolean firstBatch = true;
+
+    /**
+     * @param consumer the sink being initialized
+     * @param supportsTombstoneEvents the tombstone support of the sink if known up front, {@code null} otherwise
+     * @param startNanos the {@link System#nanoTime()} the server started at
+     */
+    DeferredChangeConsumer(CompletableFuture<DefaultChangeConsumer> consumer, Boolean supportsTombstoneEvents, long startNanos) {
+        this.consumer = consumer;
+        this.supportsTombstoneEvents = supportsTombstoneEvents;
+        this.startNanos = startNanos;
+    }
+
+    @Override
+    public void handleBatch(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
+            throws InterruptedException {
+        if (firstBatch) {
+            final long waitStart = System.nanoTime();
+            final DefaultChangeConsumer ready = ready();
+            firstBatch = false;
+            LOGGER.info("Startup timing: first batch received {} ms after start, waited {} ms for the sink to become ready",
+                    TimeUnit.NANOSECONDS.toMillis(waitStart - startNanos), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waitStart));
+            ready.handleBatch(records, committer);
+            return;
+        }
+        ready().handleBatch(records, committer);
+    }
+
+    @Override
+    public boolean supportsTombstoneEvents() {
+        if (supportsTombstoneEvents != null) {
+            return supportsTombstoneEvents;
+        }
+        try {
+            return ready().supportsTombstoneEvents();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DebeziumException("Interrupted while waiting for the sink to become ready", e);
+        }
+    }
+
+    private DefaultChangeConsumer ready() throws InterruptedException {
+        try {
+            return consumer.get();
+        }
+        catch (ExecutionException e) {
+            throw new DebeziumException("Sink initialization failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+
+/**
+ * Delivers every batch to several sinks concurrently, each sink on its own thread.
+ * <p>
+ * The sinks acknowledge records through their own {@link DebeziumEngine.RecordCommitter}, the acknowledgements
+ * are collected and forwarded to the engine only after all sinks finished the batch. The batch is finished when at
+ * least {@code quorum} sinks delivered it without a failure, otherwise the batch fails and no offsets are committed.
+ * <p>
+ * A record is acknowledged once at least {@code quorum} sinks acknowledged it. Only the records up to the first one
+ * that was not acknowledged are marked as processed, the offsets must not move past a record that did not reach the
+ * quorum. When a record after such a gap was acknowledged, the sinks acknowledged out of order and the batch fails.
+ * <p>
+ * Tombstones are passed only to the sinks that support them, for the other sinks they count as acknowledged.
+ */
+class FanOutChangeConsumer implements DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FanOutChangeConsumer.class);
+
+    private final Map<String, DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> sinks;
+    private final int quorum;
+    private final boolean supportsTombstones;
+    private final ExecutorService executor;
+
+    FanOutChangeConsumer(Map<String, DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> sinks, int quorum) {
+        if (quorum < 1 || quorum > sinks.size()) {
+            throw new DebeziumException("The fan-out quorum must be between 1 and " + sinks.size() + " but was " + quorum);
+        }
+        this.sinks = new LinkedHashMap<>(sinks);
+        this.quorum = quorum;
+        this.supportsTombstones = sinks.values().stream().anyMatch(DebeziumEngine.ChangeConsumer::supportsTombstoneEvents);
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(sinks.size(), r -> new Thread(r, "debezium-server-fanout-" + threadCount.getAndIncrement()));
+    }
+
+    /**
+     * @return {@code true} if any of the sinks needs the records exactly as produced by the engine
+     */
+    boolean requiresEngineRecords() {
+        return sinks.values().stream().anyMatch(DefaultChangeConsumer::requiresEngineRecords);
+    }
+
+    @Override
+    public void handleBatch(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
+            throws InterruptedException {
+
+        final Map<ChangeEvent<Object, Object>, Integer> positions = new IdentityHashMap<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            positions.put(records.get(i), i);
+        }
+
+        final Map<String, CollectingRecordCommitter> committers = new LinkedHashMap<>();
+        final Map<String, Future<?>> deliveries = new LinkedHashMap<>();
+        for (Map.Entry<String, DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> sink : sinks.entrySet()) {
+            final DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> consumer = sink.getValue();
+            final CollectingRecordCommitter sinkCommitter = new CollectingRecordCommitter(committer, positions);
+            final List<ChangeEvent<Object, Object>> sinkRecords = sinkRecords(records, consumer, sinkCommitter);
+
+            committers.put(sink.getKey(), sinkCommitter);
+            deliveries.put(sink.getKey(), executor.submit(() -> {
+                consumer.handleBatch(sinkRecords, sinkCommitter);
+                return null;
+            }));
+        }
+
+        final int[] acknowledgements = new int[records.size()];
+        final DebeziumEngine.Offsets[] offsets = new DebeziumEngine.Offsets[records.size()];
+        Throwable failure = null;
+        int delivered = 0;
+
+        for (Map.Entry<String, Future<?>> delivery : deliveries.entrySet()) {
+            final CollectingRecordCommitter sinkCommitter = committers.get(delivery.getKey());
+            try {
+                delivery.getValue().get();
+            }
+            catch (ExecutionException e) {
+                LOGGER.error("Sink '{}' failed to deliver batch", delivery.getKey(), e.getCause());
+                failure = e.getCause();
+                continue;
+            }
+            catch (InterruptedException e) {
+                deliveries.values().forEach(f -> f.cancel(true));
+                throw e;
+            }
+            if (sinkCommitter.batchFinished) {
+                delivered++;
+            }
+            for (int i = 0; i < records.size(); i++) {
+                if (sinkCommitter.processed[i]) {
+                    acknowledgements[i]++;
+                    if (sinkCommitter.offsets[i] != null) {
+                        offsets[i] = sinkCommitter.offsets[i];
+                    }
+                }
+            }
+        }
+
+        if (delivered < quorum) {
+            throw new DebeziumException("Batch was delivered by " + delivered + " sink(s) but the quorum is " + quorum, failure);
+        }
+
+        int acknowledged = 0;
+        while (acknowledged < records.size() && acknowledgements[acknowledged] >= quorum) {
+            acknowledged++;
+        }
+        for (int i = acknowledged + 1; i < records.size(); i++) {
+            if (acknowledgements[i] >= quorum) {
+                throw new DebeziumException("Record " + i + " of the batch reached the quorum of " + quorum + " but record " + acknowledged
+                        + " did not, the sinks acknowledged the batch out of order");
+            }
+        }
+
+        for (int i = 0; i < acknowledged; i++) {
+            if (offsets[i] != null) {
+                committer.markProcessed(records.get(i), offsets[i]);
+            }
+            else {
+                committer.markProcessed(records.get(i));
+            }
+        }
+        committer.markBatchFinished();
+    }
+
+    private List<ChangeEvent<Object, Object>> sinkRecords(List<ChangeEvent<Object, Object>> records,
+                                                          DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> consumer,
+                                                          CollectingRecordCommitter sinkCommitter) {
+        if (!supportsTombstones || consumer.supportsTombstoneEvents()) {
+            return records;
+        }
+        final List<ChangeEvent<Object, Object>> filtered = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            if (records.get(i).value() == null) {
+                sinkCommitter.processed[i] = true;
+            }
+            else {
+                filtered.add(records.get(i));
+            }
+        }
+        return filtered;
+    }
+
+    @Override
+    public boolean supportsTombstoneEvents() {
+        return supportsTombstones;
+    }
+
+    Map<String, DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> getSinks() {
+        return sinks;
+    }
+
+    void close(Duration timeout) throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Records the acknowledgements of a single sink, offsets are built by the engine committer.
+     */
+    private static class CollectingRecordCommitter implements DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> {
+
+        private final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> engineCommitter;
+        private final Map<ChangeEvent<Object, Object>, Integer> positions;
+        private final boolean[] processed;
+        private final DebeziumEngine.Offsets[] offsets;
+        private volatile boolean batchFinished;
+
+        CollectingRecordCommitter(DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> engineCommitter,
+                                  Map<ChangeEvent<Object, Object>, Integer> positions) {
+            this.engineCommitter = engineCommitter;
+            this.positions = positions;
+            this.processed = new boolean[positions.size()];
+            this.offsets = new DebeziumEngine.Offsets[positions.size()];
+        }
+
+        @Override
+        public void markProcessed(ChangeEvent<Object, Object> record) {
+            final Integer position = positions.get(record);
+            if (position != null) {
+                processed[position] = true;
+            }
+        }
+
+        @Override
+        public void markBatchFinished() {
+            batchFinished = true;
+        }
+
+        @Override
+        public void markProcessed(ChangeEvent<Object, Object> record, DebeziumEngine.Offsets sourceOffsets) {
+            final Integer position = positions.get(record);
+            if (position != null) {
+                processed[position] = true;
+                offsets[position] = sourceOffsets;
+            }
+        }
+
+        @Override
+        public DebeziumEngine.Offsets buildOffsets() {
+            return engineCommitter.buildOffsets();
+        }
+    }
+}
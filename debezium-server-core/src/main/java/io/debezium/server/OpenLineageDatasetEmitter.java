@@ -0,0 +1,122 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static io.debezium.openlineage.dataset.DatasetMetadata.STREAM_DATASET_TYPE;
+import static io.debezium.openlineage.dataset.DatasetMetadata.DatasetKind.OUTPUT;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.connector.common.DebeziumTaskState;
+import io.debezium.embedded.EmbeddedEngineChangeEvent;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.openlineage.ConnectorContext;
+import io.debezium.openlineage.DebeziumOpenLineageEmitter;
+import io.debezium.openlineage.dataset.DatasetDataExtractor;
+import io.debezium.openlineage.dataset.DatasetMetadata;
+
+/**
+ * Emits OpenLineage output datasets for the delivered records.
+ * <p>
+ * Instead of emitting a dataset for every record, a dataset is emitted for a destination when it is seen for the
+ * first time, when the value schema of its records changes, or when the emit interval elapsed since the previous
+ * emission. The field extraction and the emission itself run on a background thread so they do not delay the
+ * delivery of the next batch.
+ */
+class OpenLineageDatasetEmitter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenLineageDatasetEmitter.class);
+
+    private final DatasetMetadata.DataStore dataStore;
+    private final StreamNameMapper streamNameMapper;
+    private final long intervalNanos;
+    private final DatasetDataExtractor datasetDataExtractor = new DatasetDataExtractor();
+    private final Map<String, Emission> emissions = new HashMap<>();
+    private final DatasetEmission emission;
+    private final ExecutorService executor;
+
+    /**
+     * Emits the output datasets of a record, the connector context is carried by the record headers.
+     */
+    @FunctionalInterface
+    interface DatasetEmission {
+        void emit(SourceRecord sourceRecord, List<DatasetMetadata> datasets);
+    }
+
+    OpenLineageDatasetEmitter(DatasetMetadata.DataStore dataStore, StreamNameMapper streamNameMapper, Duration interval) {
+        this(dataStore, streamNameMapper, interval, (sourceRecord, datasets) -> DebeziumOpenLineageEmitter.emit(
+                ConnectorContext.from(sourceRecord.headers()), DebeziumTaskState.RUNNING, datasets));
+    }
+
+    OpenLineageDatasetEmitter(DatasetMetadata.DataStore dataStore, StreamNameMapper streamNameMapper, Duration interval, DatasetEmission emission) {
+        this.dataStore = dataStore;
+        this.streamNameMapper = streamNameMapper;
+        this.intervalNanos = interval.toNanos();
+        this.emission = emission;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            final Thread thread = new Thread(r, "debezium-server-openlineage");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the emission of datasets for destinations of the batch that are new, changed their schema or
+     * were last emitted before the emit interval. Must be called from a single thread.
+     */
+    void batchDelivered(List<ChangeEvent<Object, Object>> records) {
+        final long now = System.nanoTime();
+        for (ChangeEvent<Object, Object> record : records) {
+            final SourceRecord sourceRecord = ((EmbeddedEngineChangeEvent<Object, Object, Object>) record).sourceRecord();
+            final String destination = record.destination();
+            final Schema schema = sourceRecord.valueSchema();
+
+            final Emission previous = emissions.get(destination);
+            if (previous != null && now - previous.timestamp() < intervalNanos && sameSchema(previous.schema(), schema)) {
+                continue;
+            }
+            emissions.put(destination, new Emission(schema, now));
+            executor.execute(() -> emit(destination, sourceRecord));
+        }
+    }
+
+    private static boolean sameSchema(Schema previous, Schema current) {
+        return previous == current || Objects.equals(previous, current);
+    }
+
+    private void emit(String destination, SourceRecord sourceRecord) {
+        try {
+            final String datasetName = streamNameMapper.map(destination);
+            final List<DatasetMetadata.FieldDefinition> fieldDefinitions = datasetDataExtractor.extract(sourceRecord);
+            emission.emit(sourceRecord, List.of(new DatasetMetadata(datasetName, OUTPUT, STREAM_DATASET_TYPE, dataStore, fieldDefinitions)));
+        }
+        catch (Exception e) {
+            LOGGER.warn("Failed to emit OpenLineage dataset for '{}'", destination, e);
+        }
+    }
+
+    void close(Duration timeout) throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private record Emission(Schema schema, long timestamp) {
+    }
+}
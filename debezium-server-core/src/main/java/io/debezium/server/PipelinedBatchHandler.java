@@ -0,0 +1,126 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+
+/**
+ * Delivers batches to the sink on a dedicated thread so that the engine can poll and convert the next batch
+ * while the previous one is still being delivered.
+ * <p>
+ * Batches are delivered strictly one after another in submission order, so the sink acknowledges records and
+ * commits offsets through the {@link io.debezium.engine.DebeziumEngine.RecordCommitter} in the same order as
+ * without pipelining. At most {@code maxInFlightBatches} batches can be submitted and not yet delivered, the
+ * engine thread blocks in {@link #submit(Batch)} once the limit is reached.
+ * <p>
+ * When a delivery fails the pipeline stops, batches queued after the failed one are discarded without
+ * committing their offsets. The failure is reported to the failure listener as soon as it happens and is
+ * rethrown to the engine on the next submission.
+ */
+class PipelinedBatchHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelinedBatchHandler.class);
+
+    @FunctionalInterface
+    interface Batch {
+        void deliver() throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final Semaphore inFlightBatches;
+    private final Consumer<Throwable> failureListener;
+    private volatile Throwable failure;
+
+    PipelinedBatchHandler(int maxInFlightBatches) {
+        this(maxInFlightBatches, failure -> {
+        });
+    }
+
+    PipelinedBatchHandler(int maxInFlightBatches, Consumer<Throwable> failureListener) {
+        if (maxInFlightBatches < 1) {
+            throw new DebeziumException("The number of in-flight batches must be at least 1 but was " + maxInFlightBatches);
+        }
+        this.inFlightBatches = new Semaphore(maxInFlightBatches);
+        this.failureListener = failureListener;
+        this.executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "debezium-server-pipeline"));
+    }
+
+    /**
+     * Hands the batch over for delivery, blocking while the maximum number of batches is in flight.
+     *
+     * @throws DebeziumException if a previously submitted batch failed
+     */
+    void submit(Batch batch) throws InterruptedException {
+        throwIfFailed();
+        inFlightBatches.acquire();
+        try {
+            throwIfFailed();
+            executor.execute(() -> deliver(batch));
+        }
+        catch (RejectedExecutionException e) {
+            inFlightBatches.release();
+            throw new DebeziumException("Batch pipeline is already closed", e);
+        }
+        catch (RuntimeException e) {
+            inFlightBatches.release();
+            throw e;
+        }
+    }
+
+    private void deliver(Batch batch) {
+        Throwable failed = null;
+        try {
+            if (failure == null) {
+                batch.deliver();
+            }
+        }
+        catch (Throwable t) {
+            LOGGER.error("Failed to deliver batch, discarding all subsequent batches", t);
+            failure = t;
+            failed = t;
+        }
+        finally {
+            inFlightBatches.release();
+        }
+        // Reported only once the slot is released so that the listener can wait for the engine thread
+        if (failed != null) {
+            failureListener.accept(failed);
+        }
+    }
+
+    private void throwIfFailed() {
+        final Throwable t = failure;
+        if (t != null) {
+            throw new DebeziumException("Delivery of a previous batch failed", t);
+        }
+    }
+
+    /**
+     * Stops accepting new batches and waits for the in-flight ones to be delivered.
+     *
+     * @return {@code false} if not all batches were delivered within the timeout
+     */
+    boolean close(Duration timeout) throws InterruptedException {
+        executor.shutdown();
+        final boolean terminated = executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (!terminated) {
+            LOGGER.warn("In-flight batches were not delivered within {}, their offsets will not be committed", timeout);
+            executor.shutdownNow();
+        }
+        return terminated;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import io.debezium.DebeziumException;
+
+/**
+ * Thrown by a sink when the target system rejected the record itself, e.g. because it is too large or malformed.
+ * Retrying the record cannot succeed, unlike an outage or throttling of the target system, so only records failing
+ * with this exception are sent to the {@link DeadLetterQueue}.
+ */
+public class RecordRejectedException extends DebeziumException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RecordRejectedException(String message) {
+        super(message);
+    }
+
+    public RecordRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * @return {@code true} if the given failure or any of its causes is a rejection of the record
+     */
+    public static boolean isRejection(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof RecordRejectedException) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Readiness check reflecting whether the sink keeps up with the source.
+ * <p>
+ * The liveness check of {@link ConnectorLifecycle} only tells whether the connector task runs, a sink that is stuck
+ * on a batch or retrying forever stays live. This check reports the sink as not ready when
+ * <ul>
+ * <li>a batch has been in flight for longer than {@code debezium.health.sink.stalled.max.ms} (default 5 minutes)
+ * without any batch completing</li>
+ * <li>the streaming lag exceeds {@code debezium.health.lag.max.ms} (disabled by default)</li>
+ * </ul>
+ * The sink is reported as degraded, with the check still up, when the retry rate averaged over the last minute
+ * exceeds {@code debezium.health.retries.per.second.max} (default 1) or the fill ratio of the connector queue exceeds
+ * {@code debezium.health.queue.fill.max} (default 0.9). Setting {@code debezium.health.degraded.not.ready} to
+ * {@code true} reports a degraded sink as not ready as well.
+ * <p>
+ * The values the decision was based on are attached to the response so they can be scraped by an autoscaler.
+ */
+@Readiness
+@ApplicationScoped
+public class SinkHealthCheck implements HealthCheck {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SinkHealthCheck.class);
+
+    static final String PROP_PREFIX = "debezium.health.";
+    static final String PROP_STALLED_MAX = PROP_PREFIX + "sink.stalled.max.ms";
+    static final String PROP_LAG_MAX = PROP_PREFIX + "lag.max.ms";
+    static final String PROP_RETRIES_MAX = PROP_PREFIX + "retries.per.second.max";
+    static final String PROP_QUEUE_FILL_MAX = PROP_PREFIX + "queue.fill.max";
+    static final String PROP_DEGRADED_NOT_READY = PROP_PREFIX + "degraded.not.ready";
+
+    private static final long DEFAULT_STALLED_MAX_MS = 300_000;
+
+    private final SinkMetrics sinkMetrics;
+    private final DebeziumMetrics debeziumMetrics;
+    private final LongSupplier clock;
+    private final long stalledMaxMs;
+    private final long lagMaxMs;
+    private final double retriesPerSecondMax;
+    private final double queueFillMax;
+    private final boolean degradedNotReady;
+
+    @Inject
+    public SinkHealthCheck(SinkMetrics sinkMetrics, DebeziumMetrics debeziumMetrics, Config config) {
+        this(sinkMetrics, debeziumMetrics, config, System::currentTimeMillis);
+    }
+
+    SinkHealthCheck(SinkMetrics sinkMetrics, DebeziumMetrics debeziumMetrics, Config config, LongSupplier clock) {
+        this.sinkMetrics = sinkMetrics;
+        this.debeziumMetrics = debeziumMetrics;
+        this.clock = clock;
+        this.stalledMaxMs = config.getOptionalValue(PROP_STALLED_MAX, Long.class).orElse(DEFAULT_STALLED_MAX_MS);
+        this.lagMaxMs = config.getOptionalValue(PROP_LAG_MAX, Long.class).orElse(-1L);
+        this.retriesPerSecondMax = config.getOptionalValue(PROP_RETRIES_MAX, Double.class).orElse(1.0);
+        this.queueFillMax = config.getOptionalValue(PROP_QUEUE_FILL_MAX, Double.class).orElse(0.9);
+        this.degradedNotReady = config.getOptionalValue(PROP_DEGRADED_NOT_READY, Boolean.class).orElse(false);
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        final HealthCheckResponseBuilder response = HealthCheckResponse.named("debezium-sink");
+        final List<String> failures = new ArrayList<>();
+        final List<String> degradations = new ArrayList<>();
+
+        final long stalledMs = sinkMetrics.stalledMillis();
+        response.withData("stalledMs", stalledMs);
+        if (stalledMaxMs > 0 && stalledMs > stalledMaxMs) {
+            failures.add("sink has not completed a batch for " + stalledMs + " ms");
+        }
+
+        final long lastBatchFinished = sinkMetrics.lastBatchFinishedMillis();
+        if (lastBatchFinished > 0) {
+            response.withData("lastBatchFinishedAgoMs", clock.getAsLong() - lastBatchFinished);
+        }
+
+        final double retriesPerSecond = sinkMetrics.retriesPerSecond();
+        response.withData("retriesPerSecond", String.format(Locale.ROOT, "%.2f", retriesPerSecond));
+        if (retriesPerSecondMax > 0 && retriesPerSecond > retriesPerSecondMax) {
+            degradations.add("sink retries " + String.format(Locale.ROOT, "%.2f", retriesPerSecond) + " times per second");
+        }
+
+        try {
+            final long lagMs = debeziumMetrics.streamingMilliSecondsBehindSource();
+            response.withData("lagMs", lagMs);
+            if (lagMaxMs > 0 && lagMs > lagMaxMs) {
+                failures.add("streaming lag is " + lagMs + " ms");
+            }
+
+            final int maxQueueSize = debeziumMetrics.maxQueueSize();
+            if (maxQueueSize > 0) {
+                final double queueFill = (double) debeziumMetrics.streamingQueueCurrentSize() / maxQueueSize;
+                response.withData("queueFill", String.format(Locale.ROOT, "%.2f", queueFill));
+                if (queueFill > queueFillMax) {
+                    degradations.add("connector queue is " + Math.round(queueFill * 100) + "% full");
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            // The streaming MBeans are not registered before streaming starts (e.g. during a snapshot)
+            LOGGER.trace("Streaming metrics are not available", e);
+        }
+
+        response.withData("degraded", !degradations.isEmpty());
+        if (!degradations.isEmpty()) {
+            response.withData("degradedReason", String.join(", ", degradations));
+            if (degradedNotReady) {
+                failures.addAll(degradations);
+            }
+        }
+        if (!failures.isEmpty()) {
+            response.withData("reason", String.join(", ", failures));
+        }
+        LOGGER.trace("Sink health check called - failures = {}, degradations = {}", failures, degradations);
+        return response.status(failures.isEmpty()).build();
+    }
+}
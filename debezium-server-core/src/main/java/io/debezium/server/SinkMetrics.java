@@ -0,0 +1,310 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static io.debezium.server.DebeziumServer.PROP_SINK_TYPE;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.Config;
+
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Sink side metrics exported via Micrometer, complementing the source side metrics read by {@link DebeziumMetrics}.
+ * <p>
+ * All meters are tagged with the sink type, per-destination meters are additionally tagged with the
+ * destination of the record as provided by the engine (before stream name mapping), records without a destination
+ * are counted as {@code unknown}.
+ * <ul>
+ * <li>{@code debezium.sink.records} - number of delivered records per destination</li>
+ * <li>{@code debezium.sink.bytes} - approximate size of delivered record values per destination</li>
+ * <li>{@code debezium.sink.batch.size} - distribution of the number of records per batch</li>
+ * <li>{@code debezium.sink.batch.duration} - time spent by the sink in {@code handleBatch}</li>
+ * <li>{@code debezium.sink.batch.failures} - number of batches the sink failed to deliver</li>
+ * <li>{@code debezium.sink.commit.duration} - time spent committing the offsets of a batch</li>
+ * <li>{@code debezium.sink.retries} - number of delivery retries reported by the sink</li>
+ * </ul>
+ * <p>
+ * Independently of the meters, the progress of the sink is always tracked for the health checks, see
+ * {@link SinkHealthCheck}.
+ */
+@ApplicationScoped
+public class SinkMetrics {
+
+    static final String PROP_ENABLED = "debezium.metrics.sink.enabled";
+
+    private static final String TAG_SINK = "sink";
+    private static final String TAG_DESTINATION = "destination";
+    private static final String UNKNOWN_DESTINATION = "unknown";
+    static final int RETRY_RATE_WINDOW_SECONDS = 60;
+
+    private final MeterRegistry registry;
+    private final String sink;
+    private final boolean enabled;
+
+    private final DistributionSummary batchSize;
+    private final Timer batchDuration;
+    private final Counter batchFailures;
+    private final Timer commitDuration;
+    private final Counter retries;
+    private final Map<String, DestinationMeters> destinations = new ConcurrentHashMap<>();
+
+    private final LongSupplier clock;
+    private final LongAdder retryCount = new LongAdder();
+    // Ring of per-second retry counters, a slot is reused once its second falls out of the window
+    private final long[] retrySeconds = new long[RETRY_RATE_WINDOW_SECONDS];
+    private final long[] retriesInSecond = new long[RETRY_RATE_WINDOW_SECONDS];
+    private final AtomicInteger batchesInFlight = new AtomicInteger();
+    private volatile long lastProgressMillis;
+    private volatile long lastBatchFinishedMillis;
+
+    @Inject
+    public SinkMetrics(MeterRegistry registry, Config config) {
+        this(registry, config.getValue(PROP_SINK_TYPE, String.class), config.getOptionalValue(PROP_ENABLED, boolean.class).orElse(true));
+    }
+
+    public SinkMetrics(MeterRegistry registry, String sink, boolean enabled) {
+        this(registry, sink, enabled, System::currentTimeMillis);
+    }
+
+    SinkMetrics(MeterRegistry registry, String sink, boolean enabled, LongSupplier clock) {
+        // An empty composite registry hands out no-op meters
+        this.registry = enabled ? registry : new CompositeMeterRegistry();
+        this.sink = sink;
+        this.enabled = enabled;
+        this.clock = clock;
+        this.lastProgressMillis = clock.getAsLong();
+
+        batchSize = DistributionSummary.builder("debezium.sink.batch.size")
+                .description("Number of records in a batch handed over to the sink")
+                .baseUnit("records")
+                .tag(TAG_SINK, sink)
+                .publishPercentileHistogram()
+                .register(this.registry);
+        batchDuration = Timer.builder("debezium.sink.batch.duration")
+                .description("Time spent by the sink delivering a batch")
+                .tag(TAG_SINK, sink)
+                .publishPercentileHistogram()
+                .register(this.registry);
+        batchFailures = Counter.builder("debezium.sink.batch.failures")
+                .description("Number of batches the sink failed to deliver")
+                .tag(TAG_SINK, sink)
+                .register(this.registry);
+        commitDuration = Timer.builder("debezium.sink.commit.duration")
+                .description("Time spent committing the offsets of a delivered batch")
+                .tag(TAG_SINK, sink)
+                .publishPercentileHistogram()
+                .register(this.registry);
+        retries = Counter.builder("debezium.sink.retries")
+                .description("Number of delivery attempts retried by the sink")
+                .tag(TAG_SINK, sink)
+                .register(this.registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a successfully delivered batch.
+     */
+    public void batchDelivered(List<ChangeEvent<Object, Object>> records, long durationNanos) {
+        if (!enabled) {
+            return;
+        }
+        batchDuration.record(durationNanos, TimeUnit.NANOSECONDS);
+        batchSize.record(records.size());
+
+        // Batches are usually long runs of records for the same table, so count per run rather than per record
+        String destination = null;
+        long count = 0;
+        long bytes = 0;
+        for (ChangeEvent<Object, Object> record : records) {
+            if (count > 0 && !Objects.equals(record.destination(), destination)) {
+                destinationDelivered(destination, count, bytes);
+                count = 0;
+                bytes = 0;
+            }
+            destination = record.destination();
+            count++;
+            bytes += approximateSize(record.value());
+        }
+        if (count > 0) {
+            destinationDelivered(destination, count, bytes);
+        }
+    }
+
+    public void batchFailed() {
+        batchFailures.increment();
+    }
+
+    public void retry() {
+        retryCount.increment();
+        retries.increment();
+        countRetryInWindow(clock.getAsLong() / 1_000);
+    }
+
+    private synchronized void countRetryInWindow(long second) {
+        final int slot = (int) (second % RETRY_RATE_WINDOW_SECONDS);
+        if (retrySeconds[slot] != second) {
+            retrySeconds[slot] = second;
+            retriesInSecond[slot] = 0;
+        }
+        retriesInSecond[slot]++;
+    }
+
+    /**
+     * Records that a batch was handed over to the sink, must be followed by {@link #batchCompleted()}.
+     */
+    public void batchStarted() {
+        if (batchesInFlight.getAndIncrement() == 0) {
+            lastProgressMillis = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Records that the sink returned from a batch, successfully or not.
+     */
+    public void batchCompleted() {
+        batchesInFlight.decrementAndGet();
+        lastProgressMillis = clock.getAsLong();
+    }
+
+    private void batchFinished() {
+        lastBatchFinishedMillis = clock.getAsLong();
+        lastProgressMillis = lastBatchFinishedMillis;
+    }
+
+    /**
+     * @return the number of retries reported by the sink since start
+     */
+    public long retryCount() {
+        return retryCount.sum();
+    }
+
+    /**
+     * @return the average number of retries per second over the last {@value #RETRY_RATE_WINDOW_SECONDS} seconds,
+     *         independent of how often it is read
+     */
+    public synchronized double retriesPerSecond() {
+        final long now = clock.getAsLong() / 1_000;
+        long retries = 0;
+        for (int slot = 0; slot < RETRY_RATE_WINDOW_SECONDS; slot++) {
+            if (now - retrySeconds[slot] < RETRY_RATE_WINDOW_SECONDS) {
+                retries += retriesInSecond[slot];
+            }
+        }
+        return (double) retries / RETRY_RATE_WINDOW_SECONDS;
+    }
+
+    /**
+     * @return the time of the last offset commit of a batch, {@code 0} if no batch was committed yet
+     */
+    public long lastBatchFinishedMillis() {
+        return lastBatchFinishedMillis;
+    }
+
+    /**
+     * @return for how long batches are in flight without any of them completing, {@code 0} if no batch is in flight
+     */
+    public long stalledMillis() {
+        return batchesInFlight.get() > 0 ? Math.max(0, clock.getAsLong() - lastProgressMillis) : 0;
+    }
+
+    /**
+     * Wraps the committer so that the time spent committing the offsets of the batch is recorded.
+     */
+    public <R> DebeziumEngine.RecordCommitter<R> meteredCommitter(DebeziumEngine.RecordCommitter<R> committer) {
+        return new MeteredRecordCommitter<>(committer, commitDuration, this::batchFinished);
+    }
+
+    private void destinationDelivered(String destination, long count, long bytes) {
+        final DestinationMeters meters = destinations.computeIfAbsent(destination != null ? destination : UNKNOWN_DESTINATION, this::createDestinationMeters);
+        meters.records.increment(count);
+        meters.bytes.increment(bytes);
+    }
+
+    private DestinationMeters createDestinationMeters(String destination) {
+        return new DestinationMeters(
+                Counter.builder("debezium.sink.records")
+                        .description("Number of records delivered by the sink")
+                        .tags(TAG_SINK, sink, TAG_DESTINATION, destination)
+                        .register(registry),
+                Counter.builder("debezium.sink.bytes")
+                        .description("Approximate size of record values delivered by the sink")
+                        .baseUnit("bytes")
+                        .tags(TAG_SINK, sink, TAG_DESTINATION, destination)
+                        .register(registry));
+    }
+
+    /**
+     * Size of the serialized value, for strings the number of characters is used to avoid encoding the value.
+     */
+    private static long approximateSize(Object value) {
+        return switch (value) {
+            case null -> 0;
+            case byte[] b -> b.length;
+            case String s -> s.length();
+            default -> 0;
+        };
+    }
+
+    private record DestinationMeters(Counter records, Counter bytes) {
+    }
+
+    private static class MeteredRecordCommitter<R> implements DebeziumEngine.RecordCommitter<R> {
+
+        private final DebeziumEngine.RecordCommitter<R> delegate;
+        private final Timer commitDuration;
+        private final Runnable onBatchFinished;
+
+        MeteredRecordCommitter(DebeziumEngine.RecordCommitter<R> delegate, Timer commitDuration, Runnable onBatchFinished) {
+            this.delegate = delegate;
+            this.commitDuration = commitDuration;
+            this.onBatchFinished = onBatchFinished;
+        }
+
+        @Override
+        public void markProcessed(R record) throws InterruptedException {
+            delegate.markProcessed(record);
+        }
+
+        @Override
+        public void markBatchFinished() throws InterruptedException {
+            final long start = System.nanoTime();
+            delegate.markBatchFinished();
+            commitDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            onBatchFinished.run();
+        }
+
+        @Override
+        public void markProcessed(R record, DebeziumEngine.Offsets sourceOffsets) throws InterruptedException {
+            delegate.markProcessed(record, sourceOffsets);
+        }
+
+        @Override
+        public DebeziumEngine.Offsets buildOffsets() {
+            return delegate.buildOffsets();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+
+/**
+ * Append-only storage of spilled batches in memory-mapped segment files.
+ * <p>
+ * Entries are appended to the current segment until it is full, then a new segment is started. A segment file is
+ * deleted and unmapped once it is full and all of its entries were released. Entries larger than the segment size
+ * get a segment of their own.
+ * <p>
+ * The segments only move the spilled batches out of the heap, they are not a durable log. Entries are not forced to
+ * the storage device and the buffer is not replayed after a restart. Offsets of spilled batches are committed only
+ * after they are drained, so the source replays the batches that were lost. Segment files left over from a previous
+ * run are kept for inspection and new segments are numbered after them.
+ */
+class SpillBuffer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillBuffer.class);
+
+    private static final String SEGMENT_SUFFIX = ".spill";
+    private static final Unmapper UNMAPPER = Unmapper.create();
+
+    private final Path directory;
+    private final int segmentSize;
+    private Segment current;
+    private long segmentCount;
+
+    /**
+     * Reference to a spilled entry.
+     */
+    record Entry(Segment segment, int offset, int length) {
+    }
+
+    SpillBuffer(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    final String name = file.getFileName().toString();
+                    if (name.endsWith(SEGMENT_SUFFIX)) {
+                        LOGGER.warn("Spill segment '{}' was left over from a previous run, it is not replayed and can be removed", file);
+                        segmentCount = Math.max(segmentCount, segmentNumber(name) + 1);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new DebeziumException("Failed to prepare spill directory '" + directory + "'", e);
+        }
+    }
+
+    /**
+     * Stores the entry and returns the reference needed to read it back.
+     */
+    synchronized Entry append(byte[] data) {
+        if (current == null || current.remaining() < data.length) {
+            if (current != null) {
+                current.seal();
+            }
+            current = openSegment(Math.max(segmentSize, data.length));
+        }
+        return current.append(data);
+    }
+
+    private static long segmentNumber(String fileName) {
+        try {
+            return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    byte[] read(Entry entry) {
+        final byte[] data = new byte[entry.length()];
+        entry.segment().buffer.slice(entry.offset(), entry.length()).get(data);
+        return data;
+    }
+
+    /**
+     * Releases the entry after it was drained, deleting its segment when no other entry needs it.
+     */
+    synchronized void release(Entry entry) {
+        entry.segment().release();
+    }
+
+    private Segment openSegment(int size) {
+        final Path file = directory.resolve(String.format("%020d%s", segmentCount++, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            LOGGER.debug("Opening spill segment '{}'", file);
+            return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+        catch (IOException e) {
+            throw new DebeziumException("Failed to create spill segment '" + file + "'", e);
+        }
+    }
+
+    /**
+     * Deletes the current segment unless it still has entries that were not drained, those are kept on disk.
+     */
+    @Override
+    public synchronized void close() {
+        if (current != null) {
+            current.seal();
+            current = null;
+        }
+    }
+
+    static final class Segment {
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int pendingEntries;
+        private boolean sealed;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        private int remaining() {
+            return buffer.remaining();
+        }
+
+        private Entry append(byte[] data) {
+            final int offset = buffer.position();
+            buffer.put(data);
+            pendingEntries++;
+            return new Entry(this, offset, data.length);
+        }
+
+        private void seal() {
+            sealed = true;
+            if (pendingEntries == 0) {
+                delete();
+            }
+        }
+
+        private void release() {
+            pendingEntries--;
+            if (sealed && pendingEntries == 0) {
+                delete();
+            }
+        }
+
+        private void delete() {
+            // Entries are read before they are released, no reader can access the mapping any more
+            UNMAPPER.unmap(buffer);
+            try {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException e) {
+                throw new DebeziumException("Failed to delete spill segment '" + file + "'", e);
+            }
+        }
+    }
+
+    /**
+     * Releases the memory mapping of a deleted segment right away. Without it the mapping, and on some platforms
+     * the disk space of the deleted file, is kept until the buffer is garbage collected.
+     */
+    private record Unmapper(Object unsafe, Method invokeCleaner) {
+
+        static Unmapper create() {
+            try {
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                final Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                return new Unmapper(field.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class));
+            }
+            catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.warn("Spill segments cannot be unmapped explicitly, they are released by the garbage collector", e);
+                return new Unmapper(null, null);
+            }
+        }
+
+        void unmap(MappedByteBuffer buffer) {
+            if (invokeCleaner == null) {
+                return;
+            }
+            try {
+                invokeCleaner.invoke(unsafe, buffer);
+            }
+            catch (ReflectiveOperationException e) {
+                LOGGER.debug("Failed to unmap spill segment", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.kafka.connect.source.SourceRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.embedded.EmbeddedEngineChangeEvent;
+import io.debezium.engine.Header;
+
+/**
+ * Decouples the engine from a slow sink by spilling batches to local disk.
+ * <p>
+ * A submitted batch is serialized into a {@link SpillBuffer} and the engine can continue immediately. A dedicated
+ * thread drains the spilled batches in submission order, reads them back and delivers them to the sink. The sink
+ * acknowledges the records read from disk, the acknowledgements are translated to the engine records so the
+ * offsets are committed only once a batch was drained. The engine thread blocks in {@link #submit} while more
+ * than {@code maxSpilledBytes} are waiting to be drained.
+ * <p>
+ * The records of the engine are not kept in memory until the batch is drained, only their source partition, offset
+ * and schemas that are needed to commit the offsets. Sinks that need the complete records of the engine cannot be
+ * used with spilling.
+ * <p>
+ * Only records with {@code String} or {@code byte[]} keys, values and header values can be spilled. When a
+ * delivery fails the drain stops and later batches are discarded without committing their offsets. The failure is
+ * reported to the failure listener as soon as it happens and is rethrown to the engine on the next submission.
+ */
+class SpillingBatchHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillingBatchHandler.class);
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_BYTES = 2;
+
+    /**
+     * Delivers the records read back from disk, the engine records stripped of their keys and values are passed
+     * along for consumers that need the source metadata of the records.
+     */
+    @FunctionalInterface
+    interface Delivery {
+        void deliver(List<ChangeEvent<Object, Object>> spilled, List<ChangeEvent<Object, Object>> engineRecords,
+                     DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
+                throws Exception;
+    }
+
+    private final SpillBuffer buffer;
+    private final long maxSpilledBytes;
+    private final Delivery delivery;
+    private final ExecutorService executor;
+    private final Consumer<Throwable> failureListener;
+    private final Object spilledBytesLock = new Object();
+    private long spilledBytes;
+    private volatile Throwable failure;
+
+    SpillingBatchHandler(Path directory, int segmentSize, long maxSpilledBytes, Delivery delivery) {
+        this(directory, segmentSize, maxSpilledBytes, delivery, failure -> {
+        });
+    }
+
+    SpillingBatchHandler(Path directory, int segmentSize, long maxSpilledBytes, Delivery delivery, Consumer<Throwable> failureListener) {
+        this.buffer = new SpillBuffer(directory, segmentSize);
+        this.maxSpilledBytes = maxSpilledBytes;
+        this.delivery = delivery;
+        this.failureListener = failureListener;
+        this.executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "debezium-server-spill"));
+    }
+
+    /**
+     * Spills the batch to disk and schedules its delivery.
+     *
+     * @throws DebeziumException if a previously spilled batch failed
+     */
+    void submit(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
+            throws InterruptedException {
+        throwIfFailed();
+        final byte[] data = serialize(records);
+
+        synchronized (spilledBytesLock) {
+            // A single batch larger than the limit is still accepted once everything else was drained
+            while (spilledBytes > 0 && spilledBytes + data.length > maxSpilledBytes) {
+                spilledBytesLock.wait(1_000);
+                throwIfFailed();
+            }
+            spilledBytes += data.length;
+        }
+
+        // The batch is read back from the spill segment, only the data needed to commit the offsets stays in memory
+        final List<ChangeEvent<Object, Object>> engineRecords = new ArrayList<>(records.size());
+        for (ChangeEvent<Object, Object> record : records) {
+            engineRecords.add(committable(record));
+        }
+        final SpillBuffer.Entry entry = buffer.append(data);
+        try {
+            executor.execute(() -> drain(entry, engineRecords, committer));
+        }
+        catch (RejectedExecutionException e) {
+            released(entry);
+            throw new DebeziumException("Spill buffer is already closed", e);
+        }
+    }
+
+    private void drain(SpillBuffer.Entry entry, List<ChangeEvent<Object, Object>> engineRecords,
+                       DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer) {
+        Throwable failed = null;
+        try {
+            if (failure == null) {
+                final List<ChangeEvent<Object, Object>> spilled = deserialize(buffer.read(entry));
+                delivery.deliver(spilled, engineRecords, new TranslatingRecordCommitter(spilled, engineRecords, committer));
+            }
+        }
+        catch (Throwable t) {
+            LOGGER.error("Failed to deliver spilled batch, discarding all subsequent batches", t);
+            failure = t;
+            failed = t;
+        }
+        finally {
+            released(entry);
+        }
+        if (failed != null) {
+            failureListener.accept(failed);
+        }
+    }
+
+    private void released(SpillBuffer.Entry entry) {
+        buffer.release(entry);
+        synchronized (spilledBytesLock) {
+            spilledBytes -= entry.length();
+            spilledBytesLock.notifyAll();
+        }
+    }
+
+    private void throwIfFailed() {
+        final Throwable t = failure;
+        if (t != null) {
+            throw new DebeziumException("Delivery of a spilled batch failed", t);
+        }
+    }
+
+    /**
+     * Stops accepting new batches and waits for the spilled ones to be drained.
+     *
+     * @return {@code false} if not all batches were delivered within the timeout
+     */
+    boolean close(Duration timeout) throws InterruptedException {
+        executor.shutdown();
+        final boolean terminated = executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (!terminated) {
+            LOGGER.warn("Spilled batches were not drained within {}, their offsets will not be committed", timeout);
+            executor.shutdownNow();
+        }
+        buffer.close();
+        return terminated;
+    }
+
+    /**
+     * Returns the record the engine needs to commit the offset of the given record, without its key, value and
+     * headers. Records not produced by the embedded engine are kept as they are.
+     */
+    static ChangeEvent<Object, Object> committable(ChangeEvent<Object, Object> record) {
+        if (record instanceof EmbeddedEngineChangeEvent<?, ?, ?> event && event.sourceRecord() != null) {
+            final SourceRecord source = event.sourceRecord();
+            return new EmbeddedEngineChangeEvent<>(null, null, List.of(), new SourceRecord(source.sourcePartition(), source.sourceOffset(),
+                    source.topic(), source.kafkaPartition(), source.keySchema(), null, source.valueSchema(), null, source.timestamp(), source.headers()));
+        }
+        return record;
+    }
+
+    static byte[] serialize(List<ChangeEvent<Object, Object>> records) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(records.size());
+            for (ChangeEvent<Object, Object> record : records) {
+                writeValue(out, record.destination());
+                out.writeInt(record.partition() == null ? -1 : record.partition());
+                writeValue(out, record.key());
+                writeValue(out, record.value());
+                final List<Header<Object>> headers = record.headers();
+                out.writeInt(headers.size());
+                for (Header<Object> header : headers) {
+                    writeValue(out, header.getKey());
+                    writeValue(out, header.getValue());
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new DebeziumException("Failed to serialize batch", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<ChangeEvent<Object, Object>> deserialize(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            final int count = in.readInt();
+            final List<ChangeEvent<Object, Object>> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final String destination = (String) readValue(in);
+                final int partition = in.readInt();
+                final Object key = readValue(in);
+                final Object value = readValue(in);
+                final int headerCount = in.readInt();
+                final List<Header<Object>> headers = new ArrayList<>(headerCount);
+                for (int h = 0; h < headerCount; h++) {
+                    headers.add(new SpilledHeader((String) readValue(in), readValue(in)));
+                }
+                records.add(new SpilledChangeEvent(key, value, headers, destination, partition == -1 ? null : partition));
+            }
+            return records;
+        }
+        catch (IOException e) {
+            throw new DebeziumException("Failed to deserialize spilled batch", e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(TYPE_NULL);
+            case String s -> {
+                final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                out.writeByte(TYPE_STRING);
+                out.writeInt(b.length);
+                out.write(b);
+            }
+            case byte[] b -> {
+                out.writeByte(TYPE_BYTES);
+                out.writeInt(b.length);
+                out.write(b);
+            }
+            default -> throw new DebeziumException("Cannot spill value of type '" + value.getClass().getName() + "', only string and binary formats are supported");
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        final byte type = in.readByte();
+        if (type == TYPE_NULL) {
+            return null;
+        }
+        final byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return type == TYPE_STRING ? new String(b, StandardCharsets.UTF_8) : b;
+    }
+
+    private record SpilledHeader(String key, Object value) implements Header<Object> {
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    private record SpilledChangeEvent(Object key, Object value, List<Header<Object>> spilledHeaders, String destination, Integer partition)
+            implements ChangeEvent<Object, Object> {
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @Override
+        public <H> List<Header<H>> headers() {
+            return (List) spilledHeaders;
+        }
+    }
+
+    /**
+     * Acknowledges the records of the engine for the records read back from disk.
+     */
+    private static class TranslatingRecordCommitter implements DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> {
+
+        private final Map<ChangeEvent<Object, Object>, ChangeEvent<Object, Object>> originals;
+        private final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> delegate;
+
+        TranslatingRecordCommitter(List<ChangeEvent<Object, Object>> spilled, List<ChangeEvent<Object, Object>> records,
+                                   DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> delegate) {
+            this.originals = new IdentityHashMap<>(records.size());
+            for (int i = 0; i < records.size(); i++) {
+                originals.put(spilled.get(i), records.get(i));
+            }
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void markProcessed(ChangeEvent<Object, Object> record) throws InterruptedException {
+            delegate.markProcessed(originals.getOrDefault(record, record));
+        }
+
+        @Override
+        public void markBatchFinished() throws InterruptedException {
+            delegate.markBatchFinished();
+        }
+
+        @Override
+        public void markProcessed(ChangeEvent<Object, Object> record, DebeziumEngine.Offsets sourceOffsets) throws InterruptedException {
+            delegate.markProcessed(originals.getOrDefault(record, record), sourceOffsets);
+        }
+
+        @Override
+        public DebeziumEngine.Offsets buildOffsets() {
+            return delegate.buildOffsets();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import java.time.Duration;
+
+import org.eclipse.microprofile.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+
+/**
+ * Controls the size of the sub-batches a sink sends to the target system in one request.
+ * <p>
+ * When adaptive sizing is disabled the size is the fixed value configured for the sink. When enabled the size
+ * follows an additive-increase/multiplicative-decrease (AIMD) policy driven by the latency of the requests: it
+ * grows by a constant step after every request that completed within the target latency and is halved after a
+ * request that was slower than the target or failed, always staying within the configured bounds.
+ * <p>
+ * The controller is configured with the sink property prefix, e.g. {@code debezium.sink.kinesis.}:
+ * <ul>
+ * <li>{@code batch.adaptive.enabled} - enables adaptive sizing, {@code false} by default</li>
+ * <li>{@code batch.adaptive.min.size} - lower bound of the size, {@code 1} by default</li>
+ * <li>{@code batch.adaptive.max.size} - upper bound of the size, the maximum supported by the sink by default</li>
+ * <li>{@code batch.adaptive.target.latency.ms} - request latency the controller aims for, {@code 1000} by default</li>
+ * </ul>
+ */
+public class AdaptiveBatchSizer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveBatchSizer.class);
+
+    public static final String PROP_ADAPTIVE_ENABLED = "batch.adaptive.enabled";
+    public static final String PROP_ADAPTIVE_MIN_SIZE = "batch.adaptive.min.size";
+    public static final String PROP_ADAPTIVE_MAX_SIZE = "batch.adaptive.max.size";
+    public static final String PROP_ADAPTIVE_TARGET_LATENCY = "batch.adaptive.target.latency.ms";
+
+    private static final long DEFAULT_TARGET_LATENCY_MS = 1_000L;
+    private static final int INCREASE_STEPS = 20;
+
+    private final boolean adaptive;
+    private final int minSize;
+    private final int maxSize;
+    private final int increment;
+    private final long targetLatencyNanos;
+    private int size;
+
+    /**
+     * Creates a controller that always returns the given size.
+     */
+    public static AdaptiveBatchSizer fixed(int size) {
+        return new AdaptiveBatchSizer(false, size, size, size, Duration.ZERO);
+    }
+
+    /**
+     * Creates a controller from the sink configuration.
+     *
+     * @param config the configuration
+     * @param prefix the property prefix of the sink, e.g. {@code debezium.sink.kinesis.}
+     * @param batchSize the configured (or default) batch size of the sink, used as the initial size
+     * @param maxBatchSize the maximum batch size supported by the sink
+     */
+    public static AdaptiveBatchSizer fromConfig(Config config, String prefix, int batchSize, int maxBatchSize) {
+        if (!config.getOptionalValue(prefix + PROP_ADAPTIVE_ENABLED, Boolean.class).orElse(false)) {
+            return fixed(batchSize);
+        }
+        final int min = config.getOptionalValue(prefix + PROP_ADAPTIVE_MIN_SIZE, Integer.class).orElse(1);
+        final int max = config.getOptionalValue(prefix + PROP_ADAPTIVE_MAX_SIZE, Integer.class).orElse(maxBatchSize);
+        final long targetLatency = config.getOptionalValue(prefix + PROP_ADAPTIVE_TARGET_LATENCY, Long.class).orElse(DEFAULT_TARGET_LATENCY_MS);
+
+        if (min < 1 || min > max || max > maxBatchSize) {
+            throw new DebeziumException("Adaptive batch size bounds must satisfy 1 <= " + prefix + PROP_ADAPTIVE_MIN_SIZE + " <= "
+                    + prefix + PROP_ADAPTIVE_MAX_SIZE + " <= " + maxBatchSize + " but were " + min + " and " + max);
+        }
+        LOGGER.info("Adaptive batch size enabled for '{}' with bounds [{}, {}] and target latency {} ms", prefix, min, max, targetLatency);
+        return new AdaptiveBatchSizer(true, Math.max(min, Math.min(max, batchSize)), min, max, Duration.ofMillis(targetLatency));
+    }
+
+    AdaptiveBatchSizer(boolean adaptive, int initialSize, int minSize, int maxSize, Duration targetLatency) {
+        this.adaptive = adaptive;
+        this.size = initialSize;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.increment = Math.max(1, (maxSize - minSize) / INCREASE_STEPS);
+        this.targetLatencyNanos = targetLatency.toNanos();
+    }
+
+    /**
+     * @return the number of records the sink should send in the next request
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Reports a request that was delivered successfully.
+     *
+     * @param durationNanos the time it took to deliver the request
+     */
+    public synchronized void onSuccess(long durationNanos) {
+        if (!adaptive) {
+            return;
+        }
+        if (durationNanos > targetLatencyNanos) {
+            decrease();
+        }
+        else {
+            size = Math.min(maxSize, size + increment);
+        }
+    }
+
+    /**
+     * Reports a request that failed or was throttled by the target system.
+     */
+    public synchronized void onFailure() {
+        if (adaptive) {
+            decrease();
+        }
+    }
+
+    private void decrease() {
+        final int previous = size;
+        size = Math.max(minSize, size / 2);
+        LOGGER.debug("Decreasing batch size from {} to {}", previous, size);
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+import io.debezium.server.RecordRejectedException;
+import io.debezium.util.Clock;
+import io.debezium.util.Metronome;
+
+/**
+ * Guards the calls of a sink to the target system so that an outage fails fast instead of every record waiting
+ * for its own timeouts.
+ * <p>
+ * The breaker is {@code CLOSED} while the calls succeed. After the configured number of consecutive failures it
+ * opens and every call fails immediately with {@link CircuitBreakerOpenException}. Once the open interval elapsed
+ * the breaker is {@code HALF_OPEN} and lets a single probe call through, the breaker closes when the probe
+ * succeeds and opens again when it fails. A record rejected by the target system proves that the system is
+ * available, it is not counted as a failure.
+ * <p>
+ * A sink wraps its retried delivery with {@link #holdWhileOpen} so that an open breaker holds the batch back and
+ * the delivery is started again once the open interval elapsed, instead of failing the batch and stopping the engine.
+ * <p>
+ * The breaker is configured with the sink property prefix, e.g. {@code debezium.sink.http.}:
+ * <ul>
+ * <li>{@code circuit.breaker.enabled} - enables the breaker, {@code false} by default</li>
+ * <li>{@code circuit.breaker.failure.threshold} - consecutive failures opening the breaker, {@code 5} by default</li>
+ * <li>{@code circuit.breaker.open.interval.ms} - time the breaker stays open before a probe, {@code 30000} by default</li>
+ * </ul>
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public static final String PROP_ENABLED = "circuit.breaker.enabled";
+    public static final String PROP_FAILURE_THRESHOLD = "circuit.breaker.failure.threshold";
+    public static final String PROP_OPEN_INTERVAL = "circuit.breaker.open.interval.ms";
+
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final long DEFAULT_OPEN_INTERVAL_MS = 30_000L;
+    private static final long PROBE_WAIT_MS = 100L;
+
+    /**
+     * A delivery operation that can be held back, usually a retried call of {@link #execute}.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        void run() throws InterruptedException;
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openIntervalNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    /**
+     * Creates a breaker that never opens.
+     */
+    public static CircuitBreaker disabled(String name) {
+        return new CircuitBreaker(name, false, Integer.MAX_VALUE, Duration.ZERO);
+    }
+
+    /**
+     * Creates a breaker from the sink configuration.
+     *
+     * @param config the configuration
+     * @param prefix the property prefix of the sink, e.g. {@code debezium.sink.http.}
+     * @param name the name of the guarded system used in logs and errors
+     */
+    public static CircuitBreaker fromConfig(Config config, String prefix, String name) {
+        if (!config.getOptionalValue(prefix + PROP_ENABLED, Boolean.class).orElse(false)) {
+            return disabled(name);
+        }
+        final int threshold = config.getOptionalValue(prefix + PROP_FAILURE_THRESHOLD, Integer.class).orElse(DEFAULT_FAILURE_THRESHOLD);
+        final long openInterval = config.getOptionalValue(prefix + PROP_OPEN_INTERVAL, Long.class).orElse(DEFAULT_OPEN_INTERVAL_MS);
+
+        if (threshold < 1) {
+            throw new DebeziumException(prefix + PROP_FAILURE_THRESHOLD + " must be at least 1 but was " + threshold);
+        }
+        LOGGER.info("Circuit breaker for '{}' enabled, opening after {} consecutive failures for {} ms", name, threshold, openInterval);
+        return new CircuitBreaker(name, true, threshold, Duration.ofMillis(openInterval));
+    }
+
+    CircuitBreaker(String name, boolean enabled, int failureThreshold, Duration openInterval) {
+        this.name = name;
+        this.enabled = enabled;
+        this.failureThreshold = failureThreshold;
+        this.openIntervalNanos = openInterval.toNanos();
+    }
+
+    /**
+     * Calls the action unless the breaker is open. Any exception or error thrown by the action except an
+     * interruption or a rejection of the record is counted as a failure of the target system.
+     *
+     * @throws CircuitBreakerOpenException if the breaker is open
+     */
+    public <T> T execute(Callable<T> action) throws Exception {
+        if (!enabled) {
+            return action.call();
+        }
+        acquirePermission();
+        final T result;
+        try {
+            result = action.call();
+        }
+        catch (InterruptedException e) {
+            released();
+            throw e;
+        }
+        catch (Throwable t) {
+            completed(t);
+            throw t;
+        }
+        onSuccess();
+        return result;
+    }
+
+    /**
+     * Calls the action, that has no return statement, unless the breaker is open.
+     *
+     * @throws CircuitBreakerOpenException if the breaker is open
+     */
+    public void execute(RetryExecutor.ThrowingRunnable action) throws Exception {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Starts the asynchronous action unless the breaker is open, the outcome of the returned stage is counted
+     * as the outcome of the call.
+     *
+     * @return the stage of the action, or a failed stage with {@link CircuitBreakerOpenException} if the breaker is open
+     */
+    public <T> CompletionStage<T> executeAsync(Supplier<? extends CompletionStage<T>> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        try {
+            acquirePermission();
+        }
+        catch (CircuitBreakerOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final CompletionStage<T> stage;
+        try {
+            stage = action.get();
+        }
+        catch (Throwable t) {
+            completed(t);
+            return CompletableFuture.failedFuture(t);
+        }
+        return stage.whenComplete((result, error) -> {
+            if (error == null) {
+                onSuccess();
+            }
+            else {
+                completed(error);
+            }
+        });
+    }
+
+    /**
+     * Runs the operation and holds the caller back while the breaker is open. When the operation fails because
+     * the breaker is open, it is run again once the open interval elapsed, so an outage of the target system
+     * delays the batch instead of failing it.
+     */
+    public void holdWhileOpen(Operation operation) throws InterruptedException {
+        while (true) {
+            try {
+                operation.run();
+                return;
+            }
+            catch (RuntimeException e) {
+                if (!isOpen(e)) {
+                    throw e;
+                }
+            }
+            final long wait = remainingOpenMillis();
+            LOGGER.debug("Circuit breaker for '{}' is open, holding back the delivery for {} ms", name, wait);
+            Metronome.sleeper(Duration.ofMillis(wait), Clock.SYSTEM).pause();
+        }
+    }
+
+    /**
+     * Starts the asynchronous operation and starts it again, without blocking a thread, once the open interval
+     * elapsed while it fails because the breaker is open, see {@link #holdWhileOpen}.
+     */
+    public <T> CompletableFuture<T> holdWhileOpenAsync(Supplier<? extends CompletionStage<T>> operation) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        holdAsync(operation, result);
+        return result;
+    }
+
+    private <T> void holdAsync(Supplier<? extends CompletionStage<T>> operation, CompletableFuture<T> result) {
+        CompletionStage<T> attempt;
+        try {
+            attempt = operation.get();
+        }
+        catch (RuntimeException e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        attempt.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            }
+            else if (isOpen(error)) {
+                CompletableFuture.delayedExecutor(remainingOpenMillis(), TimeUnit.MILLISECONDS).execute(() -> holdAsync(operation, result));
+            }
+            else {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * @return {@code true} if the failure or any of its causes is a call rejected by an open breaker
+     */
+    private static boolean isOpen(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof CircuitBreakerOpenException) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Time until a probe call is let through, a short wait while another probe is in flight.
+     */
+    synchronized long remainingOpenMillis() {
+        return switch (state) {
+            case CLOSED -> 0;
+            case OPEN -> Math.max(1, TimeUnit.NANOSECONDS.toMillis(openIntervalNanos - (System.nanoTime() - openedAt)));
+            case HALF_OPEN -> PROBE_WAIT_MS;
+        };
+    }
+
+    private void completed(Throwable failure) {
+        if (RecordRejectedException.isRejection(failure)) {
+            onSuccess();
+        }
+        else {
+            onFailure();
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private synchronized void acquirePermission() {
+        switch (state) {
+            case CLOSED -> {
+            }
+            case OPEN -> {
+                if (System.nanoTime() - openedAt < openIntervalNanos) {
+                    throw new CircuitBreakerOpenException(name);
+                }
+                LOGGER.info("Circuit breaker for '{}' is half-open, probing the target system", name);
+                state = State.HALF_OPEN;
+            }
+            // A probe is already in flight
+            case HALF_OPEN -> throw new CircuitBreakerOpenException(name);
+        }
+    }
+
+    private synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            LOGGER.info("Circuit breaker for '{}' is closed, the target system recovered", name);
+            state = State.CLOSED;
+        }
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            LOGGER.warn("Circuit breaker for '{}' is open after {} consecutive failure(s), calls fail fast for the next {} ms",
+                    name, consecutiveFailures, Duration.ofNanos(openIntervalNanos).toMillis());
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    private synchronized void released() {
+        // An interrupted probe neither proves nor disproves the recovery, let the next call probe again
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+}
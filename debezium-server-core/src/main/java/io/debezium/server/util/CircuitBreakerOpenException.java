@@ -0,0 +1,20 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import io.debezium.DebeziumException;
+
+/**
+ * Thrown instead of calling the target system while the {@link CircuitBreaker} guarding it is open.
+ */
+public class CircuitBreakerOpenException extends DebeziumException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitBreakerOpenException(String name) {
+        super("Circuit breaker '" + name + "' is open, the target system is considered unavailable");
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine.RecordCommitter;
+
+/**
+ * Delivers the records of a batch in parallel partitions.
+ * <p>
+ * The batch is split by the record destination and optionally by the hash of the record key, every partition is
+ * delivered sequentially by one worker thread so the records of the same destination (or key) are delivered in
+ * their original order. The records are marked as processed in batch order once all partitions were delivered;
+ * when any partition fails, no record of the batch is marked and the failure is rethrown.
+ * <p>
+ * With a single thread, the default, the records are delivered on the calling thread and every record is marked
+ * as processed right after its delivery.
+ * <p>
+ * The delivery is configured with the sink property prefix, e.g. {@code debezium.sink.sqs.}:
+ * <ul>
+ * <li>{@code parallel.threads} - number of worker threads, {@code 1} by default</li>
+ * <li>{@code parallel.partition.by.key} - partitions records by key in addition to destination, {@code false} by default</li>
+ * </ul>
+ * The number of threads is capped server-wide by {@code debezium.delivery.max.concurrency}, {@code 64} by default.
+ * <p>
+ * The server-wide virtual thread mode, enabled by {@code debezium.delivery.virtual.threads.enabled}, delivers the
+ * partitions on virtual threads instead of a platform thread pool, so blocking sends do not occupy a platform thread
+ * each. The mode does not change the number of partitions, every sink still opts in with {@code parallel.threads}.
+ * Both options apply only to the sinks that deliver through this class, currently HTTP and SQS; other sinks ignore
+ * them.
+ */
+public class PartitionedBatchDelivery implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedBatchDelivery.class);
+
+    public static final String PROP_PARALLEL_THREADS = "parallel.threads";
+    public static final String PROP_PARALLEL_PARTITION_BY_KEY = "parallel.partition.by.key";
+    public static final String PROP_VIRTUAL_THREADS_ENABLED = "debezium.delivery.virtual.threads.enabled";
+    public static final String PROP_MAX_CONCURRENCY = "debezium.delivery.max.concurrency";
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 64;
+
+    /**
+     * Delivers a single record to the target system.
+     */
+    @FunctionalInterface
+    public interface RecordDelivery {
+        void deliver(ChangeEvent<Object, Object> record) throws Exception;
+    }
+
+    private final int threads;
+    private final boolean partitionByKey;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the delivery from the sink configuration.
+     *
+     * @param config the configuration
+     * @param prefix the property prefix of the sink, e.g. {@code debezium.sink.sqs.}
+     */
+    public static PartitionedBatchDelivery fromConfig(Config config, String prefix) {
+        final boolean virtualThreads = config.getOptionalValue(PROP_VIRTUAL_THREADS_ENABLED, Boolean.class).orElse(false);
+        final int maxConcurrency = config.getOptionalValue(PROP_MAX_CONCURRENCY, Integer.class).orElse(DEFAULT_MAX_CONCURRENCY);
+        int threads = config.getOptionalValue(prefix + PROP_PARALLEL_THREADS, Integer.class).orElse(1);
+        if (threads > maxConcurrency) {
+            LOGGER.warn("'{}' of {} exceeds '{}', delivering with {} threads", prefix + PROP_PARALLEL_THREADS, threads, PROP_MAX_CONCURRENCY,
+                    maxConcurrency);
+            threads = maxConcurrency;
+        }
+        final boolean partitionByKey = config.getOptionalValue(prefix + PROP_PARALLEL_PARTITION_BY_KEY, Boolean.class).orElse(false);
+        return new PartitionedBatchDelivery(threads, partitionByKey, virtualThreads);
+    }
+
+    public PartitionedBatchDelivery(int threads, boolean partitionByKey) {
+        this(threads, partitionByKey, false);
+    }
+
+    public PartitionedBatchDelivery(int threads, boolean partitionByKey, boolean virtualThreads) {
+        if (threads < 1) {
+            throw new DebeziumException("The number of delivery threads must be at least 1 but was " + threads);
+        }
+        this.threads = threads;
+        this.partitionByKey = partitionByKey;
+        if (threads > 1 && virtualThreads) {
+            // At most one task per partition is submitted, so the number of partitions bounds the concurrency
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("debezium-server-delivery-", 0).factory());
+            LOGGER.info("Parallel delivery enabled with {} virtual threads, partitioned by destination{}", threads, partitionByKey ? " and key" : "");
+        }
+        else if (threads > 1) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, r -> {
+                final Thread thread = new Thread(r, "debezium-server-delivery-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            LOGGER.info("Parallel delivery enabled with {} threads, partitioned by destination{}", threads, partitionByKey ? " and key" : "");
+        }
+        else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Delivers all records of the batch and marks them as processed, the batch itself is not finished.
+     */
+    public void deliver(List<ChangeEvent<Object, Object>> records, RecordCommitter<ChangeEvent<Object, Object>> committer, RecordDelivery delivery)
+            throws InterruptedException {
+        if (executor == null) {
+            for (ChangeEvent<Object, Object> record : records) {
+                deliverRecord(record, delivery);
+                committer.markProcessed(record);
+            }
+            return;
+        }
+
+        final List<List<ChangeEvent<Object, Object>>> partitions = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (ChangeEvent<Object, Object> record : records) {
+            partitions.get(partition(record)).add(record);
+        }
+
+        final List<Future<?>> futures = new ArrayList<>(threads);
+        for (List<ChangeEvent<Object, Object>> partition : partitions) {
+            if (!partition.isEmpty()) {
+                futures.add(executor.submit(() -> {
+                    for (ChangeEvent<Object, Object> record : partition) {
+                        deliverRecord(record, delivery);
+                    }
+                    return null;
+                }));
+            }
+        }
+
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            }
+            catch (ExecutionException e) {
+                failure = e.getCause();
+            }
+            catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                throw e;
+            }
+        }
+        if (failure instanceof DebeziumException e) {
+            throw e;
+        }
+        else if (failure != null) {
+            throw new DebeziumException("Failed to deliver batch", failure);
+        }
+
+        for (ChangeEvent<Object, Object> record : records) {
+            committer.markProcessed(record);
+        }
+    }
+
+    private int partition(ChangeEvent<Object, Object> record) {
+        int hash = Objects.hashCode(record.destination());
+        if (partitionByKey) {
+            final Object key = record.key();
+            hash = 31 * hash + (key instanceof byte[] bytes ? Arrays.hashCode(bytes) : Objects.hashCode(key));
+        }
+        return Math.floorMod(hash, threads);
+    }
+
+    private static void deliverRecord(ChangeEvent<Object, Object> record, RecordDelivery delivery) throws InterruptedException {
+        try {
+            delivery.deliver(record);
+        }
+        catch (InterruptedException | DebeziumException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new DebeziumException("Failed to deliver record " + record, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
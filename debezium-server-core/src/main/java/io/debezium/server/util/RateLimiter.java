@@ -0,0 +1,195 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+
+/**
+ * Limits the throughput of a sink to stay within the quotas of the target system.
+ * <p>
+ * The records and bytes sent are limited by token buckets, globally for the sink and separately for every
+ * destination. Each bucket holds at most one second worth of tokens, so short bursts are passed through while
+ * longer bursts, e.g. during a snapshot, are smoothed to the configured rate. The calling thread waits until all
+ * the buckets the send draws from permit it. A single send larger than a bucket is allowed, the following sends
+ * wait until the deficit is refilled.
+ * <p>
+ * The limiter is configured with the sink property prefix, e.g. {@code debezium.sink.kinesis.}, every limit is
+ * disabled by default:
+ * <ul>
+ * <li>{@code rate.limit.records.per.second} - records sent by the sink</li>
+ * <li>{@code rate.limit.bytes.per.second} - bytes of keys and values sent by the sink</li>
+ * <li>{@code rate.limit.destination.records.per.second} - records sent to a single destination</li>
+ * <li>{@code rate.limit.destination.bytes.per.second} - bytes of keys and values sent to a single destination</li>
+ * </ul>
+ */
+public class RateLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateLimiter.class);
+
+    public static final String PROP_RECORDS_PER_SECOND = "rate.limit.records.per.second";
+    public static final String PROP_BYTES_PER_SECOND = "rate.limit.bytes.per.second";
+    public static final String PROP_DESTINATION_RECORDS_PER_SECOND = "rate.limit.destination.records.per.second";
+    public static final String PROP_DESTINATION_BYTES_PER_SECOND = "rate.limit.destination.bytes.per.second";
+
+    private static final RateLimiter UNLIMITED = new RateLimiter(0, 0, 0, 0);
+
+    private final TokenBucket records;
+    private final TokenBucket bytes;
+    private final double destinationRecordsPerSecond;
+    private final double destinationBytesPerSecond;
+    private final Map<String, TokenBucket> destinationRecords = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> destinationBytes = new ConcurrentHashMap<>();
+    private final boolean enabled;
+
+    /**
+     * Returns a limiter that never waits.
+     */
+    public static RateLimiter unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Creates a limiter from the sink configuration.
+     *
+     * @param config the configuration
+     * @param prefix the property prefix of the sink, e.g. {@code debezium.sink.kinesis.}
+     */
+    public static RateLimiter fromConfig(Config config, String prefix) {
+        final double recordsPerSecond = rate(config, prefix + PROP_RECORDS_PER_SECOND);
+        final double bytesPerSecond = rate(config, prefix + PROP_BYTES_PER_SECOND);
+        final double destinationRecordsPerSecond = rate(config, prefix + PROP_DESTINATION_RECORDS_PER_SECOND);
+        final double destinationBytesPerSecond = rate(config, prefix + PROP_DESTINATION_BYTES_PER_SECOND);
+
+        if (recordsPerSecond == 0 && bytesPerSecond == 0 && destinationRecordsPerSecond == 0 && destinationBytesPerSecond == 0) {
+            return UNLIMITED;
+        }
+        LOGGER.info("Rate limit for '{}' is {} records/s and {} bytes/s, per destination {} records/s and {} bytes/s (0 is unlimited)",
+                prefix, recordsPerSecond, bytesPerSecond, destinationRecordsPerSecond, destinationBytesPerSecond);
+        return new RateLimiter(recordsPerSecond, bytesPerSecond, destinationRecordsPerSecond, destinationBytesPerSecond);
+    }
+
+    private static double rate(Config config, String property) {
+        final double rate = config.getOptionalValue(property, Double.class).orElse(0.0);
+        if (rate < 0) {
+            throw new DebeziumException(property + " must not be negative but was " + rate);
+        }
+        return rate;
+    }
+
+    RateLimiter(double recordsPerSecond, double bytesPerSecond, double destinationRecordsPerSecond, double destinationBytesPerSecond) {
+        this.records = recordsPerSecond > 0 ? new TokenBucket(recordsPerSecond) : null;
+        this.bytes = bytesPerSecond > 0 ? new TokenBucket(bytesPerSecond) : null;
+        this.destinationRecordsPerSecond = destinationRecordsPerSecond;
+        this.destinationBytesPerSecond = destinationBytesPerSecond;
+        this.enabled = records != null || bytes != null || destinationRecordsPerSecond > 0 || destinationBytesPerSecond > 0;
+    }
+
+    /**
+     * Waits until the record can be sent.
+     */
+    public void acquire(ChangeEvent<Object, Object> record) throws InterruptedException {
+        if (enabled) {
+            acquire(record.destination(), 1, sizeOf(record));
+        }
+    }
+
+    /**
+     * Waits until the records sent in a single request can be sent, the request is accounted to the destination
+     * of its first record.
+     */
+    public void acquire(List<ChangeEvent<Object, Object>> records) throws InterruptedException {
+        if (!enabled || records.isEmpty()) {
+            return;
+        }
+        long size = 0;
+        for (ChangeEvent<Object, Object> record : records) {
+            size += sizeOf(record);
+        }
+        acquire(records.getFirst().destination(), records.size(), size);
+    }
+
+    /**
+     * Waits until the given number of records and bytes can be sent to the destination.
+     */
+    public void acquire(String destination, int recordCount, long byteCount) throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        long waitNanos = 0;
+        if (records != null) {
+            waitNanos = Math.max(waitNanos, records.reserve(recordCount));
+        }
+        if (bytes != null) {
+            waitNanos = Math.max(waitNanos, bytes.reserve(byteCount));
+        }
+        if (destinationRecordsPerSecond > 0 && destination != null) {
+            waitNanos = Math.max(waitNanos, destinationRecords.computeIfAbsent(destination, d -> new TokenBucket(destinationRecordsPerSecond)).reserve(recordCount));
+        }
+        if (destinationBytesPerSecond > 0 && destination != null) {
+            waitNanos = Math.max(waitNanos, destinationBytes.computeIfAbsent(destination, d -> new TokenBucket(destinationBytesPerSecond)).reserve(byteCount));
+        }
+        if (waitNanos > 0) {
+            LOGGER.trace("Rate limit reached for destination '{}', waiting {} ms", destination, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Approximates the size of the record on the wire by the size of its key and value.
+     */
+    static long sizeOf(ChangeEvent<Object, Object> record) {
+        return sizeOf(record.key()) + sizeOf(record.value());
+    }
+
+    private static long sizeOf(Object value) {
+        return switch (value) {
+            case null -> 0;
+            case String s -> s.length();
+            case byte[] b -> b.length;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Token bucket holding at most one second worth of tokens. Tokens are reserved up front and the bucket may go
+     * into deficit, the caller waits until the reserved tokens are refilled.
+     */
+    static class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double tokensPerSecond) {
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = tokensPerSecond;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Takes the tokens and returns how long the caller has to wait before using them.
+         */
+        synchronized long reserve(long count) {
+            final long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            tokens -= count;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        }
+    }
+}
@@ -7,8 +7,15 @@
 
 import java.time.Duration;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+import org.eclipse.microprofile.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,13 +25,43 @@
 
 /**
  * Retry executor for running callables with retry logic and exponential backoff.
+ * <p>
+ * Optionally the intervals are randomized with decorrelated jitter, so that many operations failing at the same
+ * time do not retry in lockstep against a recovering system, and retries are limited by a {@link RetryBudget}
+ * shared by all operations of the executor. Retries can be waited for on the calling thread with
+ * {@link #executeWithRetry} or scheduled without blocking any thread with {@link #executeAsync}.
+ * <p>
+ * An executor created from the sink configuration reads the properties relative to the sink property prefix,
+ * e.g. {@code debezium.sink.http.}:
+ * <ul>
+ * <li>{@code retries} - maximum number of attempts, the default of the sink if not set</li>
+ * <li>{@code retry.interval.ms} - initial wait interval, the default of the sink if not set</li>
+ * <li>{@code retry.max.interval.ms} - maximum wait interval, five times the initial interval by default</li>
+ * <li>{@code retry.jitter.enabled} - randomizes the intervals with decorrelated jitter, {@code true} by default</li>
+ * <li>{@code retry.budget.per.second} - retries allowed per second across all operations of the sink, unlimited by default</li>
+ * <li>{@code retry.budget.burst} - retries allowed in a burst, ten times the budget per second by default</li>
+ * </ul>
  */
 public class RetryExecutor {
 
+    public static final String PROP_RETRIES = "retries";
+    public static final String PROP_RETRY_INTERVAL = "retry.interval.ms";
+    public static final String PROP_RETRY_MAX_INTERVAL = "retry.max.interval.ms";
+    public static final String PROP_RETRY_JITTER = "retry.jitter.enabled";
+    public static final String PROP_RETRY_BUDGET_PER_SECOND = "retry.budget.per.second";
+    public static final String PROP_RETRY_BUDGET_BURST = "retry.budget.burst";
+
+    private static final int DEFAULT_MAX_INTERVAL_FACTOR = 5;
+    private static final int DEFAULT_BUDGET_BURST_FACTOR = 10;
+
     private final int maxRetries;
     private final long initialIntervalMs;
     private final long maxIntervalMs;
     private final double backoffMultiplier;
+    private final boolean jitter;
+    private final RetryBudget budget;
+    private volatile Runnable retryListener = () -> {
+    };
     private static final Logger LOGGER = LoggerFactory.getLogger(RetryExecutor.class);
 
     /**
@@ -37,15 +74,71 @@ public class RetryExecutor {
      */
     public RetryExecutor(int maxRetries, long initialIntervalMs,
                          long maxIntervalMs, double backoffMultiplier) {
+        this(maxRetries, initialIntervalMs, maxIntervalMs, backoffMultiplier, false, null);
+    }
+
+    /**
+     * RetryExecutor.
+     *
+     * @param maxRetries Maximum number of retry attempts
+     * @param initialIntervalMs Initial wait interval in milliseconds
+     * @param maxIntervalMs Maximum wait interval in milliseconds
+     * @param backoffMultiplier Multiplier for exponential backoff, not used with jitter
+     * @param jitter Whether the intervals are randomized with decorrelated jitter
+     * @param budget Budget limiting the retries of all operations, or {@code null} for unlimited retries
+     */
+    public RetryExecutor(int maxRetries, long initialIntervalMs,
+                         long maxIntervalMs, double backoffMultiplier, boolean jitter, RetryBudget budget) {
         this.maxRetries = maxRetries;
         this.initialIntervalMs = initialIntervalMs;
         this.maxIntervalMs = maxIntervalMs;
         this.backoffMultiplier = backoffMultiplier;
+        this.jitter = jitter;
+        this.budget = budget;
+    }
+
+    /**
+     * Creates an executor from the sink configuration.
+     *
+     * @param config the configuration
+     * @param prefix the property prefix of the sink, e.g. {@code debezium.sink.http.}
+     * @param maxRetries the default maximum number of attempts of the sink
+     * @param initialIntervalMs the default initial wait interval of the sink in milliseconds
+     */
+    public static RetryExecutor fromConfig(Config config, String prefix, int maxRetries, long initialIntervalMs) {
+        final int retries = config.getOptionalValue(prefix + PROP_RETRIES, Integer.class).orElse(maxRetries);
+        final long interval = config.getOptionalValue(prefix + PROP_RETRY_INTERVAL, Long.class).orElse(initialIntervalMs);
+        final long maxInterval = config.getOptionalValue(prefix + PROP_RETRY_MAX_INTERVAL, Long.class).orElse(interval * DEFAULT_MAX_INTERVAL_FACTOR);
+        final boolean jitter = config.getOptionalValue(prefix + PROP_RETRY_JITTER, Boolean.class).orElse(true);
+        final double budgetPerSecond = config.getOptionalValue(prefix + PROP_RETRY_BUDGET_PER_SECOND, Double.class).orElse(0.0);
+
+        if (maxInterval < interval) {
+            throw new DebeziumException(prefix + PROP_RETRY_MAX_INTERVAL + " must not be lower than the initial interval " + interval + " but was " + maxInterval);
+        }
+        RetryBudget budget = null;
+        if (budgetPerSecond > 0) {
+            final int burst = config.getOptionalValue(prefix + PROP_RETRY_BUDGET_BURST, Integer.class)
+                    .orElse((int) Math.ceil(budgetPerSecond * DEFAULT_BUDGET_BURST_FACTOR));
+            LOGGER.info("Retry budget for '{}' is {} retries per second with burst of {}", prefix, budgetPerSecond, burst);
+            budget = new RetryBudget(budgetPerSecond, burst);
+        }
+        return new RetryExecutor(retries, interval, maxInterval, 2.0, jitter, budget);
+    }
+
+    /**
+     * Registers a callback invoked before every retry, e.g. to count the retries in the sink metrics.
+     *
+     * @return this executor
+     */
+    public RetryExecutor onRetry(Runnable listener) {
+        this.retryListener = listener;
+        return this;
     }
 
     /**
      * Execute a callable action with retry logic.
      * Observability services that consuming Debezium logs can track the retries and failures.
+     * An interruption of the calling thread is never retried and is propagated as is.
      *
      * @param action
      * @param isRetryable Predicate to determine if an exception is retryable
@@ -58,7 +151,7 @@ public <T> T executeWithRetry(
             throws InterruptedException {
 
         int attempts = 0;
-        long currentInterval = initialIntervalMs;
+        long currentInterval = 0;
 
         while (true) {
             try {
@@ -69,23 +162,13 @@ public <T> T executeWithRetry(
                 }
                 return result;
             }
+            catch (InterruptedException e) {
+                throw e;
+            }
             catch (Exception e) {
                 attempts++;
-
-                if (!isRetryable.test(e)) {
-                    throw new DebeziumException("Non-retryable error in " + operationName, e);
-                }
-
-                if (attempts >= maxRetries) {
-                    throw new DebeziumException(
-                            String.format("Exceeded max retries (%d) for %s", maxRetries, operationName), e);
-                }
-
-                LOGGER.warn("{} failed (attempt {}/{}): {}. Retrying in {}ms...",
-                        operationName, attempts, maxRetries, e.getMessage(), currentInterval);
-
+                currentInterval = nextInterval(e, attempts, currentInterval, isRetryable, operationName);
                 Metronome.sleeper(Duration.ofMillis(currentInterval), Clock.SYSTEM).pause();
-                currentInterval = Math.min((long) (currentInterval * backoffMultiplier), maxIntervalMs);
             }
         }
     }
@@ -109,8 +192,139 @@ public void executeWithRetry(
         }, isRetryable, operationName);
     }
 
+    /**
+     * Execute an asynchronous action with retry logic. No thread is blocked while waiting for a retry, the
+     * retries are scheduled with a delayed executor and the action is started again from its thread, so the
+     * action itself should not block.
+     *
+     * @param action Supplier starting an attempt of the operation
+     * @param isRetryable Predicate to determine if an exception is retryable
+     * @param operationName Name for logging purposes
+     * @return future completed with the result of the first successful attempt, or exceptionally with a
+     *         {@link DebeziumException} once the operation cannot be retried any more
+     */
+    public <T> CompletableFuture<T> executeAsync(
+                                                 Supplier<? extends CompletionStage<T>> action,
+                                                 Predicate<Exception> isRetryable,
+                                                 String operationName) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(action, isRetryable, operationName, result, 0, 0);
+        return result;
+    }
+
+    private <T> void attemptAsync(Supplier<? extends CompletionStage<T>> action, Predicate<Exception> isRetryable, String operationName,
+                                  CompletableFuture<T> result, int attempts, long previousInterval) {
+        CompletionStage<T> attempt;
+        try {
+            attempt = action.get();
+        }
+        catch (Exception e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        attempt.whenComplete((value, error) -> {
+            if (error == null) {
+                if (attempts > 0) {
+                    LOGGER.info("Successfully completed {} after {} retry attempt(s)", operationName, attempts);
+                }
+                result.complete(value);
+                return;
+            }
+            final Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!(cause instanceof Exception e)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            try {
+                final long interval = nextInterval(e, attempts + 1, previousInterval, isRetryable, operationName);
+                CompletableFuture.delayedExecutor(interval, TimeUnit.MILLISECONDS)
+                        .execute(() -> attemptAsync(action, isRetryable, operationName, result, attempts + 1, interval));
+            }
+            catch (Exception failure) {
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    /**
+     * Decides whether the failed attempt is retried and returns the interval to wait before the retry.
+     *
+     * @throws DebeziumException if the failure is not retryable, the attempts or the budget are exhausted
+     */
+    private long nextInterval(Exception e, int attempts, long previousInterval, Predicate<Exception> isRetryable, String operationName) {
+        if (!isRetryable.test(e)) {
+            throw new DebeziumException("Non-retryable error in " + operationName, e);
+        }
+
+        if (attempts >= maxRetries) {
+            throw new DebeziumException(
+                    String.format("Exceeded max retries (%d) for %s", maxRetries, operationName), e);
+        }
+
+        if (budget != null && !budget.tryAcquire()) {
+            throw new DebeziumException("Retry budget exhausted for " + operationName, e);
+        }
+
+        final long interval = interval(previousInterval);
+        retryListener.run();
+        LOGGER.warn("{} failed (attempt {}/{}): {}. Retrying in {}ms...",
+                operationName, attempts, maxRetries, e.getMessage(), interval);
+        return interval;
+    }
+
+    /**
+     * Returns the interval to wait after the given previous interval, {@code 0} before the first retry.
+     * With jitter the interval is drawn from {@code [initial, 3 * previous]} (decorrelated jitter), otherwise it
+     * grows exponentially. Both are capped by the maximum interval.
+     */
+    long interval(long previousInterval) {
+        if (!jitter) {
+            return previousInterval == 0 ? initialIntervalMs : Math.min((long) (previousInterval * backoffMultiplier), maxIntervalMs);
+        }
+        final long upper = Math.min(Math.max(previousInterval, initialIntervalMs) * 3, maxIntervalMs);
+        return upper <= initialIntervalMs ? upper : ThreadLocalRandom.current().nextLong(initialIntervalMs, upper + 1);
+    }
+
     @FunctionalInterface
     public interface ThrowingRunnable {
         void run() throws Exception;
     }
+
+    /**
+     * Token bucket limiting the rate of retries. Every retry takes a token, tokens are refilled at a constant
+     * rate up to the burst size. When a system is down for longer, the retries of all operations sharing the
+     * budget fail fast instead of multiplying the load on the recovering system.
+     */
+    public static class RetryBudget {
+
+        private final double tokensPerNano;
+        private final int burst;
+        private double tokens;
+        private long lastRefill;
+
+        public RetryBudget(double tokensPerSecond, int burst) {
+            if (tokensPerSecond <= 0 || burst < 1) {
+                throw new DebeziumException("Retry budget must allow a positive rate and burst but was " + tokensPerSecond + " and " + burst);
+            }
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.burst = burst;
+            this.tokens = burst;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Takes a token if one is available.
+         *
+         * @return {@code true} if the retry is allowed
+         */
+        public synchronized boolean tryAcquire() {
+            final long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class CachingStreamNameMapperTest {
+
+    @Test
+    public void shouldMapEachDestinationOnce() {
+        final AtomicInteger invocations = new AtomicInteger();
+        final StreamNameMapper mapper = new CachingStreamNameMapper(topic -> {
+            invocations.incrementAndGet();
+            return "mapped." + topic;
+        }, 16);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(mapper.map("inventory.customers")).isEqualTo("mapped.inventory.customers");
+            assertThat(mapper.map("inventory.orders")).isEqualTo("mapped.inventory.orders");
+        }
+
+        assertThat(invocations.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotCacheNullDestinationOrStreamName() {
+        final AtomicInteger invocations = new AtomicInteger();
+        final StreamNameMapper mapper = new CachingStreamNameMapper(topic -> {
+            invocations.incrementAndGet();
+            return null;
+        }, 16);
+
+        assertThat(mapper.map("inventory.customers")).isNull();
+        assertThat(mapper.map("inventory.customers")).isNull();
+        assertThat(mapper.map(null)).isNull();
+
+        assertThat(invocations.get()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.microprofile.config.Config;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class ConfigIndexTest {
+
+    private static Config config(Map<String, String> properties) {
+        return new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(properties, "test.properties"))
+                .build();
+    }
+
+    @Test
+    public void shouldCopyPrefixedAndNormalizedEnvironmentProperties() {
+        final Config config = config(Map.of(
+                "debezium.source.database.hostname", "localhost",
+                "DEBEZIUM_SOURCE_DATABASE_PORT", "5432",
+                "debezium.sourcex.ignored", "x",
+                "debezium.sink.type", "test"));
+
+        final Properties props = new Properties();
+        ConfigIndex.of(config).copyToProperties(props, "debezium.source.", "", true);
+
+        assertThat(props).containsOnly(
+                entry("database.hostname", "localhost"),
+                entry("database.port", "5432"));
+    }
+
+    @Test
+    public void shouldNotOverwriteExistingPropertiesUnlessRequested() {
+        final Config config = config(Map.of("debezium.sink.test.offset", "new"));
+
+        final Properties props = new Properties();
+        props.setProperty("offset.storage.test.offset", "old");
+        ConfigIndex.of(config).copyToProperties(props, "debezium.sink.test.", "offset.storage.test.", false);
+        assertThat(props.getProperty("offset.storage.test.offset")).isEqualTo("old");
+
+        ConfigIndex.of(config).copyToProperties(props, "debezium.sink.test.", "offset.storage.test.", true);
+        assertThat(props.getProperty("offset.storage.test.offset")).isEqualTo("new");
+    }
+
+    @Test
+    public void shouldReturnSubsetByOriginalName() {
+        final Config config = config(Map.of(
+                "debezium.sink.kafka.producer.acks", "all",
+                "debezium.sink.kafka.producer.linger.ms", "5",
+                "DEBEZIUM_SINK_KAFKA_PRODUCER_RETRIES", "3",
+                "debezium.sink.kafka.producerx", "x"));
+
+        assertThat(ConfigIndex.of(config).subset("debezium.sink.kafka.producer.")).containsOnly(
+                entry("acks", "all"),
+                entry("linger.ms", "5"));
+    }
+
+    @Test
+    public void shouldReuseIndexForSameConfig() {
+        final Config config = config(Map.of("a", "b"));
+
+        assertThat(ConfigIndex.of(config)).isSameAs(ConfigIndex.of(config));
+        assertThat(ConfigIndex.of(config(Map.of("a", "b")))).isNotSameAs(ConfigIndex.of(config));
+    }
+}
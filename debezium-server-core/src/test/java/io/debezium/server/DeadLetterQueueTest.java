@@ -0,0 +1,105 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.Header;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class DeadLetterQueueTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void shouldBeDisabledByDefault() {
+        final DeadLetterQueue queue = new DeadLetterQueue(new SmallRyeConfigBuilder().build(), null);
+        queue.start();
+
+        assertThat(queue.isEnabled()).isFalse();
+    }
+
+    @Test
+    public void shouldWriteRecordsWithReasonToFile() throws Exception {
+        final Path file = directory.resolve("dlq.jsonl");
+        final DeadLetterQueue queue = new DeadLetterQueue(new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(Map.of(
+                        "debezium.dlq.type", "file",
+                        "debezium.dlq.file.path", file.toString()), "test.properties"))
+                .build(), null);
+        queue.start();
+
+        final CompletableFuture<Void> written = queue.send(record("inventory.customers", "{\"id\":1}", "line\nbreak"), "eventhubs",
+                new DebeziumException("Event data is too large"));
+
+        // The record is in the file once the write is acknowledged, before the queue is stopped
+        written.get(5, TimeUnit.SECONDS);
+        final List<String> lines = Files.readAllLines(file);
+        queue.stop();
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0))
+                .contains("\"sink\":\"eventhubs\"")
+                .contains("\"reason\":\"Event data is too large\"")
+                .contains("\"destination\":\"inventory.customers\"")
+                .contains("\"key\":\"{\\\"id\\\":1}\"")
+                .contains("\"value\":\"line\\nbreak\"")
+                .contains("\"headers\":{\"h\":\"v\"}");
+    }
+
+    @Test
+    public void shouldRejectRecordsAfterStop() throws Exception {
+        final DeadLetterQueue queue = new DeadLetterQueue(new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(Map.of(
+                        "debezium.dlq.type", "file",
+                        "debezium.dlq.file.path", directory.resolve("dlq.jsonl").toString()), "test.properties"))
+                .build(), null);
+        queue.start();
+        queue.stop();
+
+        assertThatThrownBy(() -> queue.send(record("inventory.customers", "1", "v"), "http", new RecordRejectedException("Bad request")))
+                .isInstanceOf(DebeziumException.class)
+                .hasMessage("Dead letter queue was stopped");
+    }
+
+    @Test
+    public void shouldDetectRejectionInCauseChain() {
+        assertThat(RecordRejectedException.isRejection(new DebeziumException("Exceeded max retries",
+                new RecordRejectedException("Bad request")))).isTrue();
+        assertThat(RecordRejectedException.isRejection(new DebeziumException("Exceeded max retries",
+                new DebeziumException("Service unavailable")))).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeEvent<Object, Object> record(String destination, Object key, Object value) {
+        final Header<Object> header = mock(Header.class);
+        when(header.getKey()).thenReturn("h");
+        when(header.getValue()).thenReturn("v");
+
+        final ChangeEvent<Object, Object> record = mock(ChangeEvent.class);
+        when(record.destination()).thenReturn(destination);
+        when(record.key()).thenReturn(key);
+        when(record.value()).thenReturn(value);
+        when(record.<Object> headers()).thenReturn(List.of(header));
+        return record;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.debezium.DebeziumException;
+
+public class DebeziumMetricsTest {
+
+    private static final String STREAMING_MBEAN = "debezium.test:type=connector-metrics,context=streaming,server=metrics-test";
+    private static final String SNAPSHOT_MBEAN = "debezium.test:type=connector-metrics,context=snapshot,server=metrics-test";
+
+    private final DebeziumMetrics metrics = new DebeziumMetrics();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        metrics.refreshIntervalMs = 60_000;
+        metrics.registerListener();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        metrics.unregisterListener();
+        for (ObjectName name : registered) {
+            if (DebeziumMetrics.mbeanServer.isRegistered(name)) {
+                DebeziumMetrics.mbeanServer.unregisterMBean(name);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadConnectorMetrics() throws Exception {
+        register(STREAMING_MBEAN, new StreamingMetrics(100, 40, 500), StreamingMetricsMXBean.class);
+        register(SNAPSHOT_MBEAN, new SnapshotMetrics(false, true), SnapshotMetricsMXBean.class);
+
+        assertThat(metrics.maxQueueSize()).isEqualTo(100);
+        assertThat(metrics.streamingQueueRemainingCapacity()).isEqualTo(40);
+        assertThat(metrics.streamingQueueCurrentSize()).isEqualTo(60);
+        assertThat(metrics.streamingMilliSecondsBehindSource()).isEqualTo(500);
+        assertThat(metrics.snapshotRunning()).isFalse();
+        assertThat(metrics.snapshotCompleted()).isTrue();
+    }
+
+    @Test
+    public void shouldServeCachedValuesWithinRefreshInterval() throws Exception {
+        final StreamingMetrics streaming = new StreamingMetrics(100, 40, 500);
+        register(STREAMING_MBEAN, streaming, StreamingMetricsMXBean.class);
+
+        assertThat(metrics.streamingMilliSecondsBehindSource()).isEqualTo(500);
+        streaming.milliSecondsBehindSource = 900;
+        assertThat(metrics.streamingMilliSecondsBehindSource()).isEqualTo(500);
+
+        metrics.refreshIntervalMs = 0;
+        assertThat(metrics.streamingMilliSecondsBehindSource()).isEqualTo(900);
+    }
+
+    @Test
+    public void shouldFollowMBeanReRegisteredOnConnectorRestart() throws Exception {
+        final ObjectName name = register(STREAMING_MBEAN, new StreamingMetrics(100, 40, 500), StreamingMetricsMXBean.class);
+        assertThat(metrics.streamingMilliSecondsBehindSource()).isEqualTo(500);
+        assertThat(metrics.getStreamingMetricsObjectName()).isEqualTo(name);
+
+        // The restarted connector registers new MBeans, the cached values must not outlive the old ones
+        DebeziumMetrics.mbeanServer.unregisterMBean(name);
+        final ObjectName restarted = register("debezium.test:type=connector-metrics,context=streaming,server=metrics-test-restarted",
+                new StreamingMetrics(200, 200, 42), StreamingMetricsMXBean.class);
+
+        assertThat(metrics.streamingMilliSecondsBehindSource()).isEqualTo(42);
+        assertThat(metrics.maxQueueSize()).isEqualTo(200);
+        assertThat(metrics.getStreamingMetricsObjectName()).isEqualTo(restarted);
+    }
+
+    @Test
+    public void shouldFailWhenMBeanIsNotRegistered() {
+        assertThatThrownBy(metrics::streamingMilliSecondsBehindSource)
+                .isInstanceOf(DebeziumException.class)
+                .hasMessageContaining("not found");
+    }
+
+    private <T> ObjectName register(String name, T mbean, Class<T> mbeanInterface) throws Exception {
+        final ObjectName objectName = new ObjectName(name);
+        DebeziumMetrics.mbeanServer.registerMBean(new StandardMBean(mbean, mbeanInterface, true), objectName);
+        registered.add(objectName);
+        return objectName;
+    }
+
+    public interface StreamingMetricsMXBean {
+        int getQueueTotalCapacity();
+
+        int getQueueRemainingCapacity();
+
+        long getMilliSecondsBehindSource();
+    }
+
+    public interface SnapshotMetricsMXBean {
+        boolean getSnapshotRunning();
+
+        boolean getSnapshotCompleted();
+    }
+
+    private static class StreamingMetrics implements StreamingMetricsMXBean {
+
+        private final int queueTotalCapacity;
+        private final int queueRemainingCapacity;
+        private volatile long milliSecondsBehindSource;
+
+        StreamingMetrics(int queueTotalCapacity, int queueRemainingCapacity, long milliSecondsBehindSource) {
+            this.queueTotalCapacity = queueTotalCapacity;
+            this.queueRemainingCapacity = queueRemainingCapacity;
+            this.milliSecondsBehindSource = milliSecondsBehindSource;
+        }
+
+        @Override
+        public int getQueueTotalCapacity() {
+            return queueTotalCapacity;
+        }
+
+        @Override
+        public int getQueueRemainingCapacity() {
+            return queueRemainingCapacity;
+        }
+
+        @Override
+        public long getMilliSecondsBehindSource() {
+            return milliSecondsBehindSource;
+        }
+    }
+
+    private record SnapshotMetrics(boolean snapshotRunning, boolean snapshotCompleted) implements SnapshotMetricsMXBean {
+
+        @Override
+        public boolean getSnapshotRunning() {
+            return snapshotRunning;
+        }
+
+        @Override
+        public boolean getSnapshotCompleted() {
+            return snapshotCompleted;
+        }
+    }
+}
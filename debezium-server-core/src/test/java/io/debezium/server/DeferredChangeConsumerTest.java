@@ -0,0 +1,74 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+
+public class DeferredChangeConsumerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldWaitForSinkBeforeFirstBatch() throws Exception {
+        final CompletableFuture<DefaultChangeConsumer> sink = new CompletableFuture<>();
+        final DeferredChangeConsumer consumer = new DeferredChangeConsumer(sink, true, System.nanoTime());
+        final DefaultChangeConsumer ready = mock(DefaultChangeConsumer.class);
+        final List<ChangeEvent<Object, Object>> records = List.of(mock(ChangeEvent.class));
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        final CountDownLatch handled = new CountDownLatch(1);
+
+        final Thread engine = new Thread(() -> {
+            try {
+                consumer.handleBatch(records, committer);
+                handled.countDown();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        engine.start();
+
+        assertThat(consumer.supportsTombstoneEvents()).isTrue();
+        assertThat(handled.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+        sink.complete(ready);
+        assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(ready).handleBatch(records, committer);
+    }
+
+    @Test
+    public void shouldAskSinkForUnknownTombstoneSupport() {
+        final DefaultChangeConsumer ready = mock(DefaultChangeConsumer.class);
+        when(ready.supportsTombstoneEvents()).thenReturn(false);
+
+        assertThat(new DeferredChangeConsumer(CompletableFuture.completedFuture(ready), null, System.nanoTime()).supportsTombstoneEvents()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldFailBatchWhenSinkInitializationFailed() {
+        final DeferredChangeConsumer consumer = new DeferredChangeConsumer(
+                CompletableFuture.failedFuture(new IllegalStateException("cannot connect")), true, System.nanoTime());
+
+        assertThatThrownBy(() -> consumer.handleBatch(List.of(), mock(DebeziumEngine.RecordCommitter.class)))
+                .isInstanceOf(DebeziumException.class)
+                .hasRootCauseMessage("cannot connect");
+    }
+}
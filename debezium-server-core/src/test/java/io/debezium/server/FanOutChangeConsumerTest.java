@@ -0,0 +1,137 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+
+public class FanOutChangeConsumerTest {
+
+    private final ChangeEvent<Object, Object> first = mock(ChangeEvent.class);
+    private final ChangeEvent<Object, Object> second = mock(ChangeEvent.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCommitOnlyAfterAllSinksAcknowledged() throws Exception {
+        final FanOutChangeConsumer fanOut = new FanOutChangeConsumer(sinks(acknowledging(), acknowledging()), 2);
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+
+        fanOut.handleBatch(List.of(first, second), committer);
+
+        final InOrder order = inOrder(committer);
+        order.verify(committer).markProcessed(first);
+        order.verify(committer).markProcessed(second);
+        order.verify(committer).markBatchFinished();
+        fanOut.close(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCommitWhenQuorumReached() throws Exception {
+        final FanOutChangeConsumer fanOut = new FanOutChangeConsumer(sinks(acknowledging(), failing()), 1);
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+
+        fanOut.handleBatch(List.of(first, second), committer);
+
+        verify(committer).markProcessed(first);
+        verify(committer).markProcessed(second);
+        verify(committer).markBatchFinished();
+        fanOut.close(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldFailWithoutCommittingWhenQuorumNotReached() throws Exception {
+        final FanOutChangeConsumer fanOut = new FanOutChangeConsumer(sinks(acknowledging(), failing()), 2);
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+
+        assertThatThrownBy(() -> fanOut.handleBatch(List.of(first, second), committer))
+                .isInstanceOf(DebeziumException.class)
+                .hasRootCauseMessage("sink is down");
+        verify(committer, never()).markProcessed(first);
+        verify(committer, never()).markBatchFinished();
+        fanOut.close(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCommitOnlyContiguousPrefixReachingQuorum() throws Exception {
+        final FanOutChangeConsumer fanOut = new FanOutChangeConsumer(sinks(acknowledging(), acknowledgingOnly(first)), 2);
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+
+        fanOut.handleBatch(List.of(first, second), committer);
+
+        verify(committer).markProcessed(first);
+        verify(committer, never()).markProcessed(second);
+        verify(committer).markBatchFinished();
+        fanOut.close(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldFailWhenRecordAfterGapReachesQuorum() throws Exception {
+        final FanOutChangeConsumer fanOut = new FanOutChangeConsumer(sinks(acknowledging(), acknowledgingOnly(second)), 2);
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+
+        assertThatThrownBy(() -> fanOut.handleBatch(List.of(first, second), committer))
+                .isInstanceOf(DebeziumException.class)
+                .hasMessageContaining("out of order");
+        verify(committer, never()).markProcessed(second);
+        verify(committer, never()).markBatchFinished();
+        fanOut.close(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void shouldRejectInvalidQuorum() {
+        assertThatThrownBy(() -> new FanOutChangeConsumer(sinks(acknowledging(), acknowledging()), 3))
+                .isInstanceOf(DebeziumException.class);
+    }
+
+    private static Map<String, DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> sinks(DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> a,
+                                                                                          DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> b) {
+        final Map<String, DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>>> sinks = new LinkedHashMap<>();
+        sinks.put("a", a);
+        sinks.put("b", b);
+        return sinks;
+    }
+
+    private static DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> acknowledging() {
+        return (records, committer) -> {
+            for (ChangeEvent<Object, Object> record : records) {
+                committer.markProcessed(record);
+            }
+            committer.markBatchFinished();
+        };
+    }
+
+    private static DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> acknowledgingOnly(ChangeEvent<Object, Object> acknowledged) {
+        return (records, committer) -> {
+            committer.markProcessed(acknowledged);
+            committer.markBatchFinished();
+        };
+    }
+
+    private static DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> failing() {
+        return (records, committer) -> {
+            throw new IllegalStateException("sink is down");
+        };
+    }
+}
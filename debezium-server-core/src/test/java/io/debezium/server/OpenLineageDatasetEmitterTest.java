@@ -0,0 +1,166 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static io.debezium.openlineage.dataset.DatasetMetadata.STREAM_DATASET_TYPE;
+import static io.debezium.openlineage.dataset.DatasetMetadata.DataStore.KAFKA;
+import static io.debezium.openlineage.dataset.DatasetMetadata.DatasetKind.OUTPUT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.eclipse.microprofile.config.Config;
+import org.junit.jupiter.api.Test;
+
+import io.debezium.embedded.EmbeddedEngineChangeEvent;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.openlineage.OpenLineageConfig;
+import io.debezium.openlineage.dataset.DatasetDataExtractor;
+import io.debezium.openlineage.dataset.DatasetMetadata;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class OpenLineageDatasetEmitterTest {
+
+    private static final Schema CUSTOMER_SCHEMA = SchemaBuilder.struct().name("testc.inventory.customers.Value").optional()
+            .field("id", Schema.INT32_SCHEMA)
+            .field("name", Schema.STRING_SCHEMA)
+            .build();
+    private static final Schema CUSTOMER_ENVELOPE = envelope("testc.inventory.customers.Envelope", CUSTOMER_SCHEMA);
+
+    private final List<DatasetMetadata> emitted = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void shouldEmitOutputDatasetWithFieldsOfRecord() throws Exception {
+        final OpenLineageDatasetEmitter emitter = emitter(Duration.ofMinutes(1));
+        final EmbeddedEngineChangeEvent<Object, Object, Object> record = record("testc.inventory.customers", CUSTOMER_ENVELOPE);
+
+        emitter.batchDelivered(List.of(record));
+        emitter.close(Duration.ofSeconds(5));
+
+        final List<DatasetMetadata.FieldDefinition> fields = new DatasetDataExtractor().extract(record.sourceRecord());
+        assertThat(fields).isNotEmpty();
+        assertThat(emitted).containsExactly(new DatasetMetadata("mapped.testc.inventory.customers", OUTPUT, STREAM_DATASET_TYPE, KAFKA, fields));
+    }
+
+    @Test
+    public void shouldEmitOnlyForNewDestinationOrChangedSchema() throws Exception {
+        final OpenLineageDatasetEmitter emitter = emitter(Duration.ofMinutes(1));
+        final Schema changedSchema = envelope("testc.inventory.customers.Envelope", SchemaBuilder.struct().name("testc.inventory.customers.Value")
+                .optional()
+                .field("id", Schema.INT32_SCHEMA)
+                .field("name", Schema.STRING_SCHEMA)
+                .field("email", Schema.OPTIONAL_STRING_SCHEMA)
+                .build());
+
+        emitter.batchDelivered(List.of(record("testc.inventory.customers", CUSTOMER_ENVELOPE), record("testc.inventory.customers", CUSTOMER_ENVELOPE)));
+        emitter.batchDelivered(List.of(record("testc.inventory.customers", CUSTOMER_ENVELOPE), record("testc.inventory.orders", CUSTOMER_ENVELOPE)));
+        emitter.batchDelivered(List.of(record("testc.inventory.customers", changedSchema)));
+        emitter.close(Duration.ofSeconds(5));
+
+        assertThat(emitted).hasSize(3);
+        assertThat(emitted.get(0)).isEqualTo(dataset("testc.inventory.customers", CUSTOMER_ENVELOPE));
+        assertThat(emitted.get(1)).isEqualTo(dataset("testc.inventory.orders", CUSTOMER_ENVELOPE));
+        assertThat(emitted.get(2)).isEqualTo(dataset("testc.inventory.customers", changedSchema));
+    }
+
+    @Test
+    public void shouldEmitAgainOnceIntervalElapsed() throws Exception {
+        final OpenLineageDatasetEmitter emitter = emitter(Duration.ZERO);
+
+        emitter.batchDelivered(List.of(record("testc.inventory.customers", CUSTOMER_ENVELOPE)));
+        emitter.batchDelivered(List.of(record("testc.inventory.customers", CUSTOMER_ENVELOPE)));
+        emitter.close(Duration.ofSeconds(5));
+
+        assertThat(emitted).hasSize(2);
+    }
+
+    @Test
+    public void shouldKeepEmittingAfterFailedEmission() throws Exception {
+        final OpenLineageDatasetEmitter emitter = new OpenLineageDatasetEmitter(KAFKA, destination -> destination, Duration.ofMinutes(1),
+                (sourceRecord, datasets) -> {
+                    if (sourceRecord.topic().endsWith("customers")) {
+                        throw new IllegalStateException("lineage backend is down");
+                    }
+                    emitted.addAll(datasets);
+                });
+
+        emitter.batchDelivered(List.of(record("testc.inventory.customers", CUSTOMER_ENVELOPE), record("testc.inventory.orders", CUSTOMER_ENVELOPE)));
+        emitter.close(Duration.ofSeconds(5));
+
+        final EmbeddedEngineChangeEvent<Object, Object, Object> delivered = record("testc.inventory.orders", CUSTOMER_ENVELOPE);
+        assertThat(emitted).containsExactly(new DatasetMetadata("testc.inventory.orders", OUTPUT, STREAM_DATASET_TYPE, KAFKA,
+                new DatasetDataExtractor().extract(delivered.sourceRecord())));
+    }
+
+    @Test
+    public void shouldDeliverWithoutLineageWhenDisabled() throws Exception {
+        assertDeliveredWithoutLineage(Map.of(DebeziumServer.PROP_SINK_TYPE, "kafka"));
+        // Output datasets are only supported for the Kafka sink
+        assertDeliveredWithoutLineage(Map.of(
+                DebeziumServer.PROP_SINK_TYPE, "http",
+                DebeziumServer.PROP_SOURCE_PREFIX + OpenLineageConfig.OPEN_LINEAGE_INTEGRATION_ENABLED, "true"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertDeliveredWithoutLineage(Map<String, String> properties) throws Exception {
+        final Config config = new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(properties, "test.properties"))
+                .build();
+        final DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> sink = mock(DebeziumEngine.ChangeConsumer.class);
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        // Not a record produced by the engine, the lineage emitter would fail on it
+        final ChangeEvent<Object, Object> record = mock(ChangeEvent.class);
+        when(record.destination()).thenReturn("testc.inventory.customers");
+
+        final DefaultChangeConsumer consumer = new DefaultChangeConsumer(sink, config);
+        consumer.handleBatch(List.of(record), committer);
+        consumer.close(Duration.ofSeconds(5));
+
+        verify(sink).handleBatch(List.of(record), committer);
+    }
+
+    private OpenLineageDatasetEmitter emitter(Duration interval) {
+        return new OpenLineageDatasetEmitter(KAFKA, destination -> "mapped." + destination, interval,
+                (sourceRecord, datasets) -> emitted.addAll(datasets));
+    }
+
+    private static DatasetMetadata dataset(String destination, Schema schema) {
+        return new DatasetMetadata("mapped." + destination, OUTPUT, STREAM_DATASET_TYPE, KAFKA,
+                new DatasetDataExtractor().extract(record(destination, schema).sourceRecord()));
+    }
+
+    private static Schema envelope(String name, Schema valueSchema) {
+        return SchemaBuilder.struct().name(name)
+                .field("before", valueSchema)
+                .field("after", valueSchema)
+                .field("op", Schema.STRING_SCHEMA)
+                .build();
+    }
+
+    private static EmbeddedEngineChangeEvent<Object, Object, Object> record(String destination, Schema schema) {
+        final Schema valueSchema = schema.field("after").schema();
+        final Struct after = new Struct(valueSchema).put("id", 1).put("name", "Sally");
+        if (valueSchema.field("email") != null) {
+            after.put("email", "sally@example.com");
+        }
+        final Struct value = new Struct(schema).put("after", after).put("op", "c");
+        final SourceRecord sourceRecord = new SourceRecord(Map.of("server", "testc"), Map.of("lsn", 1L), destination, null,
+                Schema.STRING_SCHEMA, "1", schema, value);
+        return new EmbeddedEngineChangeEvent<>("1", value, List.of(), sourceRecord);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import io.debezium.DebeziumException;
+
+public class PipelinedBatchHandlerTest {
+
+    @Test
+    public void shouldDeliverBatchesInSubmissionOrder() throws Exception {
+        final PipelinedBatchHandler pipeline = new PipelinedBatchHandler(2);
+        final List<Integer> delivered = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            final int batch = i;
+            pipeline.submit(() -> delivered.add(batch));
+        }
+        pipeline.close(Duration.ofSeconds(5));
+
+        assertThat(delivered).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    public void shouldBlockWhenMaxInFlightBatchesReached() throws Exception {
+        final PipelinedBatchHandler pipeline = new PipelinedBatchHandler(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch secondSubmitted = new CountDownLatch(1);
+
+        pipeline.submit(release::await);
+        final Thread engine = new Thread(() -> {
+            try {
+                pipeline.submit(() -> {
+                });
+                secondSubmitted.countDown();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        engine.start();
+
+        assertThat(secondSubmitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        release.countDown();
+        assertThat(secondSubmitted.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.close(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void shouldDiscardBatchesAfterFailureAndRethrow() throws Exception {
+        final PipelinedBatchHandler pipeline = new PipelinedBatchHandler(3);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> delivered = new CopyOnWriteArrayList<>();
+
+        pipeline.submit(() -> {
+            release.await();
+            throw new IllegalStateException("sink is down");
+        });
+        pipeline.submit(() -> delivered.add(1));
+        release.countDown();
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThatThrownBy(() -> pipeline.submit(() -> delivered.add(2)))
+                        .isInstanceOf(DebeziumException.class)
+                        .hasRootCauseMessage("sink is down"));
+        pipeline.close(Duration.ofSeconds(5));
+
+        assertThat(delivered).isEmpty();
+    }
+
+    @Test
+    public void shouldReportFailureWithoutWaitingForNextSubmission() throws Exception {
+        final AtomicReference<Throwable> reported = new AtomicReference<>();
+        final PipelinedBatchHandler pipeline = new PipelinedBatchHandler(2, reported::set);
+
+        pipeline.submit(() -> {
+            throw new IllegalStateException("sink is down");
+        });
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThat(reported.get()).hasMessage("sink is down"));
+        pipeline.close(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class SinkHealthCheckTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final SinkMetrics sinkMetrics = new SinkMetrics(new SimpleMeterRegistry(), "test", false, clock::get);
+    private final DebeziumMetrics debeziumMetrics = mock(DebeziumMetrics.class);
+
+    @Test
+    public void shouldBeUpWhenStreamingMetricsAreNotAvailable() {
+        when(debeziumMetrics.streamingMilliSecondsBehindSource()).thenThrow(new IllegalStateException("not registered"));
+
+        final HealthCheckResponse response = healthCheck(Map.of()).call();
+
+        assertThat(response.getStatus()).isEqualTo(HealthCheckResponse.Status.UP);
+        assertThat(response.getData().get()).containsEntry("degraded", false).doesNotContainKey("lagMs");
+    }
+
+    @Test
+    public void shouldBeDownWhenLagExceedsMaximum() {
+        when(debeziumMetrics.streamingMilliSecondsBehindSource()).thenReturn(60_000L);
+
+        final HealthCheckResponse response = healthCheck(Map.of(SinkHealthCheck.PROP_LAG_MAX, "30000")).call();
+
+        assertThat(response.getStatus()).isEqualTo(HealthCheckResponse.Status.DOWN);
+        assertThat(response.getData().get()).containsEntry("lagMs", 60_000L).containsEntry("reason", "streaming lag is 60000 ms");
+    }
+
+    @Test
+    public void shouldBeDownWhenBatchIsStalled() {
+        final SinkHealthCheck healthCheck = healthCheck(Map.of(SinkHealthCheck.PROP_STALLED_MAX, "1"));
+
+        sinkMetrics.batchStarted();
+        clock.addAndGet(10);
+        assertThat(healthCheck.call().getStatus()).isEqualTo(HealthCheckResponse.Status.DOWN);
+
+        sinkMetrics.batchCompleted();
+        assertThat(healthCheck.call().getStatus()).isEqualTo(HealthCheckResponse.Status.UP);
+    }
+
+    @Test
+    public void shouldReportDegradedOnRetriesAndQueueFill() {
+        when(debeziumMetrics.maxQueueSize()).thenReturn(100);
+        when(debeziumMetrics.streamingQueueCurrentSize()).thenReturn(95);
+        final SinkHealthCheck healthCheck = healthCheck(Map.of());
+
+        for (int i = 0; i < 120; i++) {
+            sinkMetrics.retry();
+        }
+        clock.addAndGet(10_000);
+        final HealthCheckResponse response = healthCheck.call();
+
+        assertThat(response.getStatus()).isEqualTo(HealthCheckResponse.Status.UP);
+        assertThat(response.getData().get())
+                .containsEntry("degraded", true)
+                .containsEntry("retriesPerSecond", "2.00")
+                .containsEntry("queueFill", "0.95")
+                .containsEntry("degradedReason", "sink retries 2.00 times per second, connector queue is 95% full");
+    }
+
+    @Test
+    public void shouldReportRetryRateOverFixedWindowRegardlessOfProbes() {
+        final SinkHealthCheck healthCheck = healthCheck(Map.of());
+
+        for (int i = 0; i < 30; i++) {
+            sinkMetrics.retry();
+            clock.addAndGet(1_000);
+        }
+
+        // Concurrent probes must not reset the rate seen by each other
+        assertThat(healthCheck.call().getData().get()).containsEntry("retriesPerSecond", "0.50");
+        assertThat(healthCheck.call().getData().get()).containsEntry("retriesPerSecond", "0.50");
+
+        // The retries of the oldest seconds fall out of the window
+        clock.addAndGet(44_000);
+        assertThat(healthCheck.call().getData().get()).containsEntry("retriesPerSecond", "0.25");
+        clock.addAndGet(60_000);
+        assertThat(healthCheck.call().getData().get()).containsEntry("retriesPerSecond", "0.00");
+    }
+
+    @Test
+    public void shouldBeDownWhenDegradedIfConfigured() {
+        when(debeziumMetrics.maxQueueSize()).thenReturn(100);
+        when(debeziumMetrics.streamingQueueCurrentSize()).thenReturn(100);
+
+        final HealthCheckResponse response = healthCheck(Map.of(SinkHealthCheck.PROP_DEGRADED_NOT_READY, "true")).call();
+
+        assertThat(response.getStatus()).isEqualTo(HealthCheckResponse.Status.DOWN);
+    }
+
+    private SinkHealthCheck healthCheck(Map<String, String> properties) {
+        return new SinkHealthCheck(sinkMetrics, debeziumMetrics, new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(properties, "test.properties"))
+                .build(), clock::get);
+    }
+}
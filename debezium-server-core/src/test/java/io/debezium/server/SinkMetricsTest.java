@@ -0,0 +1,81 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SinkMetricsTest {
+
+    @Test
+    public void shouldCountRecordsAndBytesPerDestination() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SinkMetrics metrics = new SinkMetrics(registry, "test", true);
+
+        metrics.batchDelivered(List.of(event("a", "12345"), event("a", "123"), event("b", new byte[]{ 1, 2 }), event("a", null)), 1_000_000);
+
+        assertThat(registry.get("debezium.sink.records").tag("destination", "a").counter().count()).isEqualTo(3);
+        assertThat(registry.get("debezium.sink.records").tag("destination", "b").counter().count()).isEqualTo(1);
+        assertThat(registry.get("debezium.sink.bytes").tag("destination", "a").counter().count()).isEqualTo(8);
+        assertThat(registry.get("debezium.sink.bytes").tag("destination", "b").counter().count()).isEqualTo(2);
+        assertThat(registry.get("debezium.sink.batch.size").summary().totalAmount()).isEqualTo(4);
+        assertThat(registry.get("debezium.sink.batch.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCountRecordsWithoutDestination() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SinkMetrics metrics = new SinkMetrics(registry, "test", true);
+
+        metrics.batchDelivered(List.of(event(null, "12"), event(null, "1"), event("a", "123"), event(null, "1234")), 1_000_000);
+
+        assertThat(registry.get("debezium.sink.records").tag("destination", "unknown").counter().count()).isEqualTo(3);
+        assertThat(registry.get("debezium.sink.bytes").tag("destination", "unknown").counter().count()).isEqualTo(7);
+        assertThat(registry.get("debezium.sink.records").tag("destination", "a").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldTimeOffsetCommit() throws Exception {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SinkMetrics metrics = new SinkMetrics(registry, "test", true);
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+
+        metrics.meteredCommitter(committer).markBatchFinished();
+
+        verify(committer).markBatchFinished();
+        assertThat(registry.get("debezium.sink.commit.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotRegisterMetersWhenDisabled() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SinkMetrics metrics = new SinkMetrics(registry, "test", false);
+
+        metrics.retry();
+        metrics.batchDelivered(List.of(event("a", "1")), 1);
+
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeEvent<Object, Object> event(String destination, Object value) {
+        final ChangeEvent<Object, Object> event = mock(ChangeEvent.class);
+        when(event.destination()).thenReturn(destination);
+        when(event.value()).thenReturn(value);
+        return event;
+    }
+}
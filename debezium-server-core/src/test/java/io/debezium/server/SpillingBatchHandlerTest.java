@@ -0,0 +1,179 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.awaitility.Awaitility;
+import org.eclipse.microprofile.config.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import io.debezium.DebeziumException;
+import io.debezium.embedded.EmbeddedEngineChangeEvent;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.engine.Header;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class SpillingBatchHandlerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDeliverSpilledRecordsAndCommitOriginals() throws Exception {
+        final ChangeEvent<Object, Object> first = record("inventory.customers", "k1", "{\"id\":1}");
+        final ChangeEvent<Object, Object> second = record("inventory.orders", "k2".getBytes(), null);
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        final List<ChangeEvent<Object, Object>> delivered = new CopyOnWriteArrayList<>();
+
+        final SpillingBatchHandler spill = new SpillingBatchHandler(directory, 1024, 1024 * 1024, (spilled, originals, sinkCommitter) -> {
+            for (ChangeEvent<Object, Object> record : spilled) {
+                delivered.add(record);
+                sinkCommitter.markProcessed(record);
+            }
+            sinkCommitter.markBatchFinished();
+        });
+        spill.submit(List.of(first, second), committer);
+        spill.close(Duration.ofSeconds(5));
+
+        assertThat(delivered).hasSize(2);
+        assertThat(delivered.get(0).destination()).isEqualTo("inventory.customers");
+        assertThat(delivered.get(0).key()).isEqualTo("k1");
+        assertThat(delivered.get(0).value()).isEqualTo("{\"id\":1}");
+        assertThat(delivered.get(0).<Object> headers()).extracting(Header::getKey).containsExactly("h");
+        assertThat(delivered.get(1).key()).isEqualTo("k2".getBytes());
+        assertThat(delivered.get(1).value()).isNull();
+
+        final InOrder order = inOrder(committer);
+        order.verify(committer).markProcessed(first);
+        order.verify(committer).markProcessed(second);
+        order.verify(committer).markBatchFinished();
+
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDiscardBatchesAfterFailureAndRethrow() throws Exception {
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        final SpillingBatchHandler spill = new SpillingBatchHandler(directory, 1024, 1024 * 1024, (spilled, originals, sinkCommitter) -> {
+            throw new IllegalStateException("sink is down");
+        });
+
+        spill.submit(List.of(record("a", "k", "v")), committer);
+
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThatThrownBy(() -> spill.submit(List.of(record("a", "k", "v")), committer))
+                        .isInstanceOf(DebeziumException.class)
+                        .hasRootCauseMessage("sink is down"));
+        spill.close(Duration.ofSeconds(5));
+        verify(committer, never()).markBatchFinished();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCommitEngineRecordsWithoutKeepingTheirValues() throws Exception {
+        final SourceRecord sourceRecord = new SourceRecord(Map.of("server", "test"), Map.of("lsn", 42L), "inventory.customers", null,
+                Schema.STRING_SCHEMA, "k1", Schema.STRING_SCHEMA, "{\"id\":1}");
+        final ChangeEvent<Object, Object> engineRecord = new EmbeddedEngineChangeEvent<>("k1", "{\"id\":1}", List.of(), sourceRecord);
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+
+        final SpillingBatchHandler spill = new SpillingBatchHandler(directory, 1024, 1024 * 1024, (spilled, engineRecords, sinkCommitter) -> {
+            sinkCommitter.markProcessed(spilled.get(0));
+            sinkCommitter.markBatchFinished();
+        });
+        spill.submit(List.of(engineRecord), committer);
+        spill.close(Duration.ofSeconds(5));
+
+        final ArgumentCaptor<ChangeEvent<Object, Object>> committed = ArgumentCaptor.forClass(ChangeEvent.class);
+        verify(committer).markProcessed(committed.capture());
+        final SourceRecord committedSource = ((EmbeddedEngineChangeEvent<Object, Object, Object>) committed.getValue()).sourceRecord();
+        assertThat(committedSource.sourcePartition()).isEqualTo(Map.of("server", "test"));
+        assertThat(committedSource.sourceOffset()).isEqualTo(Map.of("lsn", 42L));
+        assertThat(committedSource.valueSchema()).isEqualTo(Schema.STRING_SCHEMA);
+        assertThat(committedSource.value()).isNull();
+        assertThat(committed.getValue().value()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldKeepSegmentsLeftOverFromPreviousRun() throws Exception {
+        final Path leftOver = Files.write(directory.resolve("00000000000000000007.spill"), new byte[]{ 1, 2, 3 });
+        final DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+
+        final SpillingBatchHandler spill = new SpillingBatchHandler(directory, 1024, 1024 * 1024, (spilled, engineRecords, sinkCommitter) -> {
+            sinkCommitter.markBatchFinished();
+        });
+        spill.submit(List.of(record("a", "k", "v")), committer);
+        spill.close(Duration.ofSeconds(5));
+
+        verify(committer).markBatchFinished();
+        assertThat(leftOver).exists().hasBinaryContent(new byte[]{ 1, 2, 3 });
+        assertThat(directory.resolve("00000000000000000008.spill")).doesNotExist();
+    }
+
+    @Test
+    public void shouldRejectSpillForSinkRequiringEngineRecords() {
+        final Config config = new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(Map.of(
+                        DefaultChangeConsumer.PROP_SPILL_ENABLED, "true",
+                        DefaultChangeConsumer.PROP_SPILL_DIRECTORY, directory.toString()), "test.properties"))
+                .build();
+
+        assertThatThrownBy(() -> new DefaultChangeConsumer(new TestEngineRecordsConsumer(), config))
+                .isInstanceOf(DebeziumException.class)
+                .hasMessageContaining(DefaultChangeConsumer.PROP_SPILL_ENABLED);
+    }
+
+    private static class TestEngineRecordsConsumer extends BaseChangeConsumer implements DebeziumEngine.ChangeConsumer<ChangeEvent<Object, Object>> {
+
+        @Override
+        public boolean requiresEngineRecords() {
+            return true;
+        }
+
+        @Override
+        public void handleBatch(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer) {
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeEvent<Object, Object> record(String destination, Object key, Object value) {
+        final Header<Object> header = mock(Header.class);
+        when(header.getKey()).thenReturn("h");
+        when(header.getValue()).thenReturn("v");
+
+        final ChangeEvent<Object, Object> record = mock(ChangeEvent.class);
+        when(record.destination()).thenReturn(destination);
+        when(record.key()).thenReturn(key);
+        when(record.value()).thenReturn(value);
+        when(record.<Object> headers()).thenReturn(List.of(header));
+        return record;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.debezium.DebeziumException;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class AdaptiveBatchSizerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    @Test
+    public void shouldKeepFixedSizeWhenDisabled() {
+        final AdaptiveBatchSizer sizer = AdaptiveBatchSizer.fromConfig(config(Map.of()), "debezium.sink.test.", 200, 500);
+
+        sizer.onFailure();
+        sizer.onSuccess(SLOW);
+
+        assertThat(sizer.size()).isEqualTo(200);
+    }
+
+    @Test
+    public void shouldIncreaseAdditivelyAndDecreaseMultiplicatively() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(true, 100, 10, 210, Duration.ofSeconds(1));
+
+        sizer.onSuccess(FAST);
+        assertThat(sizer.size()).isEqualTo(110);
+
+        sizer.onSuccess(SLOW);
+        assertThat(sizer.size()).isEqualTo(55);
+
+        sizer.onFailure();
+        sizer.onFailure();
+        sizer.onFailure();
+        assertThat(sizer.size()).isEqualTo(10);
+
+        for (int i = 0; i < 100; i++) {
+            sizer.onSuccess(FAST);
+        }
+        assertThat(sizer.size()).isEqualTo(210);
+    }
+
+    @Test
+    public void shouldRejectInvalidBounds() {
+        assertThatThrownBy(() -> AdaptiveBatchSizer.fromConfig(config(Map.of(
+                "debezium.sink.test.batch.adaptive.enabled", "true",
+                "debezium.sink.test.batch.adaptive.max.size", "1000")), "debezium.sink.test.", 200, 500))
+                .isInstanceOf(DebeziumException.class);
+    }
+
+    private static org.eclipse.microprofile.config.Config config(Map<String, String> values) {
+        return new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(values, "test.properties"))
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import io.debezium.server.RecordRejectedException;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void shouldNeverOpenWhenDisabled() throws Exception {
+        final CircuitBreaker breaker = CircuitBreaker.fromConfig(new SmallRyeConfigBuilder().build(), "debezium.sink.test.", "test");
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> breaker.execute(CircuitBreakerTest::fail)).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldFailFastWhenOpen() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CircuitBreaker breaker = new CircuitBreaker("test", true, 3, Duration.ofHours(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> breaker.execute(() -> {
+                calls.incrementAndGet();
+                fail();
+            })).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThatThrownBy(() -> breaker.execute(calls::incrementAndGet)).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    public void shouldResetFailuresAfterSuccess() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("test", true, 2, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> breaker.execute(CircuitBreakerTest::fail)).isInstanceOf(IllegalStateException.class);
+        breaker.execute(() -> "ok");
+        assertThatThrownBy(() -> breaker.execute(CircuitBreakerTest::fail)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldProbeAfterOpenInterval() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("test", true, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> breaker.execute(CircuitBreakerTest::fail)).isInstanceOf(IllegalStateException.class);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // A failed probe opens the breaker again
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThatThrownBy(() -> breaker.execute(CircuitBreakerTest::fail)).isInstanceOf(IllegalStateException.class));
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // A successful probe closes it
+        Awaitility.await().atMost(Duration.ofSeconds(5)).ignoreExceptions().until(() -> "ok".equals(breaker.execute(() -> "ok")));
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldCountAsyncOutcomes() {
+        final CircuitBreaker breaker = new CircuitBreaker("test", true, 1, Duration.ofHours(1));
+
+        assertThat(breaker.executeAsync(() -> CompletableFuture.completedFuture("ok")).toCompletableFuture().join()).isEqualTo("ok");
+        assertThat(breaker.executeAsync(() -> CompletableFuture.failedFuture(new IllegalStateException("down"))).toCompletableFuture())
+                .isCompletedExceptionally();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(breaker.executeAsync(() -> CompletableFuture.completedFuture("ok")).toCompletableFuture())
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    public void shouldNotStayHalfOpenAfterErrorInProbe() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("test", true, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> breaker.execute(CircuitBreakerTest::fail)).isInstanceOf(IllegalStateException.class);
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(
+                () -> assertThatThrownBy(() -> breaker.execute(() -> {
+                    throw new AssertionError("probe failed");
+                })).isInstanceOf(AssertionError.class));
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        Awaitility.await().atMost(Duration.ofSeconds(5)).ignoreExceptions().until(() -> "ok".equals(breaker.execute(() -> "ok")));
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldNotCountRejectedRecordsAsFailures() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker("test", true, 1, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> breaker.execute(() -> {
+            throw new RecordRejectedException("Bad request");
+        })).isInstanceOf(RecordRejectedException.class);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldHoldBackWhileOpen() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CircuitBreaker breaker = new CircuitBreaker("test", true, 1, Duration.ofMillis(50));
+        assertThatThrownBy(() -> breaker.execute(CircuitBreakerTest::fail)).isInstanceOf(IllegalStateException.class);
+
+        // Calls fail fast while the breaker is open, the operation is run again until the probe is let through
+        breaker.holdWhileOpen(() -> {
+            try {
+                breaker.execute(calls::incrementAndGet);
+            }
+            catch (InterruptedException | RuntimeException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(calls).hasValue(1);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void shouldHoldBackAsyncWhileOpen() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CircuitBreaker breaker = new CircuitBreaker("test", true, 1, Duration.ofMillis(50));
+        assertThat(breaker.executeAsync(() -> CompletableFuture.failedFuture(new IllegalStateException("down"))).toCompletableFuture())
+                .isCompletedExceptionally();
+
+        final CompletableFuture<String> result = breaker.holdWhileOpenAsync(() -> breaker.executeAsync(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("ok");
+        }));
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(calls).hasValue(1);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static Object fail() {
+        throw new IllegalStateException("down");
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.microprofile.config.Config;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import io.debezium.DebeziumException;
+import io.debezium.engine.ChangeEvent;
+import io.debezium.engine.DebeziumEngine.RecordCommitter;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class PartitionedBatchDeliveryTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPreserveOrderPerDestinationAndMarkInBatchOrder() throws Exception {
+        final List<ChangeEvent<Object, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            records.add(record("topic" + (i % 5), i));
+        }
+        final RecordCommitter<ChangeEvent<Object, Object>> committer = mock(RecordCommitter.class);
+        final Map<String, List<Object>> delivered = new ConcurrentHashMap<>();
+
+        try (PartitionedBatchDelivery delivery = new PartitionedBatchDelivery(4, false)) {
+            delivery.deliver(records, committer,
+                    record -> delivered.computeIfAbsent(record.destination(), d -> new CopyOnWriteArrayList<>()).add(record.value()));
+        }
+
+        for (Map.Entry<String, List<Object>> destination : delivered.entrySet()) {
+            assertThat(destination.getValue()).isSorted();
+        }
+        assertThat(delivered.values().stream().mapToInt(List::size).sum()).isEqualTo(100);
+
+        final InOrder order = inOrder(committer);
+        for (ChangeEvent<Object, Object> record : records) {
+            order.verify(committer).markProcessed(record);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDeliverOnVirtualThreads() throws Exception {
+        final List<ChangeEvent<Object, Object>> records = List.of(record("a", 1), record("b", 2), record("c", 3));
+        final RecordCommitter<ChangeEvent<Object, Object>> committer = mock(RecordCommitter.class);
+        final List<Boolean> virtual = new CopyOnWriteArrayList<>();
+
+        try (PartitionedBatchDelivery delivery = new PartitionedBatchDelivery(8, false, true)) {
+            delivery.deliver(records, committer, record -> virtual.add(Thread.currentThread().isVirtual()));
+        }
+
+        assertThat(virtual).hasSize(3).containsOnly(true);
+        for (ChangeEvent<Object, Object> record : records) {
+            verify(committer).markProcessed(record);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldNotMarkRecordsWhenPartitionFails() throws Exception {
+        final ChangeEvent<Object, Object> first = record("a", 1);
+        final ChangeEvent<Object, Object> second = record("b", 2);
+        final RecordCommitter<ChangeEvent<Object, Object>> committer = mock(RecordCommitter.class);
+
+        try (PartitionedBatchDelivery delivery = new PartitionedBatchDelivery(2, true)) {
+            assertThatThrownBy(() -> delivery.deliver(List.of(first, second), committer, record -> {
+                if (record == second) {
+                    throw new IllegalStateException("target is down");
+                }
+            }))
+                    .isInstanceOf(DebeziumException.class)
+                    .hasRootCauseMessage("target is down");
+        }
+        verify(committer, never()).markProcessed(first);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldNotParallelizeSinkWithoutThreadsInVirtualThreadMode() throws Exception {
+        final List<ChangeEvent<Object, Object>> records = List.of(record("a", 1), record("b", 2));
+        final RecordCommitter<ChangeEvent<Object, Object>> committer = mock(RecordCommitter.class);
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        try (PartitionedBatchDelivery delivery = PartitionedBatchDelivery.fromConfig(config(Map.of(
+                PartitionedBatchDelivery.PROP_VIRTUAL_THREADS_ENABLED, "true")), "debezium.sink.test.")) {
+            delivery.deliver(records, committer, record -> threads.add(Thread.currentThread()));
+        }
+
+        assertThat(threads).hasSize(2).containsOnly(Thread.currentThread());
+    }
+
+    @Test
+    public void shouldCapThreadsByMaxConcurrencyInBothModes() throws Exception {
+        assertCappedByMaxConcurrency(false);
+        assertCappedByMaxConcurrency(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertCappedByMaxConcurrency(boolean virtualThreads) throws Exception {
+        final List<ChangeEvent<Object, Object>> records = List.of(record("a", 1), record("b", 2));
+        final RecordCommitter<ChangeEvent<Object, Object>> committer = mock(RecordCommitter.class);
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        try (PartitionedBatchDelivery delivery = PartitionedBatchDelivery.fromConfig(config(Map.of(
+                PartitionedBatchDelivery.PROP_VIRTUAL_THREADS_ENABLED, String.valueOf(virtualThreads),
+                PartitionedBatchDelivery.PROP_MAX_CONCURRENCY, "1",
+                "debezium.sink.test." + PartitionedBatchDelivery.PROP_PARALLEL_THREADS, "8")), "debezium.sink.test.")) {
+            delivery.deliver(records, committer, record -> threads.add(Thread.currentThread()));
+        }
+
+        assertThat(threads).hasSize(2).containsOnly(Thread.currentThread());
+    }
+
+    private static Config config(Map<String, String> properties) {
+        return new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(properties, "test.properties"))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeEvent<Object, Object> record(String destination, int value) {
+        final ChangeEvent<Object, Object> record = mock(ChangeEvent.class);
+        when(record.destination()).thenReturn(destination);
+        when(record.key()).thenReturn(String.valueOf(value));
+        when(record.value()).thenReturn(value);
+        return record;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.debezium.DebeziumException;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class RateLimiterTest {
+
+    @Test
+    public void shouldBeUnlimitedByDefault() {
+        assertThat(RateLimiter.fromConfig(new SmallRyeConfigBuilder().build(), "debezium.sink.test.")).isSameAs(RateLimiter.unlimited());
+    }
+
+    @Test
+    public void shouldRejectNegativeRate() {
+        assertThatThrownBy(() -> RateLimiter.fromConfig(new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(Map.of("debezium.sink.test.rate.limit.records.per.second", "-1"), "test.properties"))
+                .build(), "debezium.sink.test.")).isInstanceOf(DebeziumException.class);
+    }
+
+    @Test
+    public void shouldPassBurstAndThenWaitForDeficit() {
+        final RateLimiter.TokenBucket bucket = new RateLimiter.TokenBucket(100);
+
+        assertThat(bucket.reserve(100)).isZero();
+        final long wait = bucket.reserve(50);
+        assertThat(wait).isBetween(TimeUnit.MILLISECONDS.toNanos(400), TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void shouldLimitGlobalRecordRate() throws Exception {
+        final RateLimiter limiter = new RateLimiter(10, 0, 0, 0);
+
+        final long start = System.nanoTime();
+        limiter.acquire("a", 10, 0);
+        limiter.acquire("b", 3, 0);
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    public void shouldLimitBytesPerDestination() throws Exception {
+        final RateLimiter limiter = new RateLimiter(0, 0, 0, 1_000);
+
+        final long start = System.nanoTime();
+        limiter.acquire("a", 1, 1_000);
+        limiter.acquire("b", 1, 1_000);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(200));
+
+        limiter.acquire("a", 1, 300);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.debezium.DebeziumException;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class RetryExecutorTest {
+
+    @Test
+    public void shouldRetryUntilSuccessAndNotifyListener() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger retries = new AtomicInteger();
+        final RetryExecutor executor = new RetryExecutor(5, 1, 10, 2.0, true, null).onRetry(retries::incrementAndGet);
+
+        final String result = executor.executeWithRetry(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("not yet");
+            }
+            return "done";
+        }, e -> true, "test");
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+        assertThat(retries).hasValue(2);
+    }
+
+    @Test
+    public void shouldStopAfterMaxAttempts() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final RetryExecutor executor = new RetryExecutor(3, 1, 1, 2.0);
+
+        assertThatThrownBy(() -> executor.executeWithRetry(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("down");
+        }, e -> true, "test"))
+                .isInstanceOf(DebeziumException.class)
+                .hasMessageContaining("Exceeded max retries (3)");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    public void shouldKeepJitteredIntervalsWithinBounds() {
+        final RetryExecutor executor = new RetryExecutor(10, 100, 1_000, 2.0, true, null);
+
+        long interval = 0;
+        for (int i = 0; i < 1_000; i++) {
+            final long next = executor.interval(interval);
+            assertThat(next).isBetween(100L, Math.min(1_000L, Math.max(interval, 100L) * 3));
+            interval = next;
+        }
+    }
+
+    @Test
+    public void shouldGrowExponentiallyWithoutJitter() {
+        final RetryExecutor executor = new RetryExecutor(10, 100, 500, 2.0);
+
+        assertThat(executor.interval(0)).isEqualTo(100);
+        assertThat(executor.interval(100)).isEqualTo(200);
+        assertThat(executor.interval(400)).isEqualTo(500);
+    }
+
+    @Test
+    public void shouldFailFastWhenBudgetIsExhausted() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final RetryExecutor executor = RetryExecutor.fromConfig(new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(Map.of(
+                        "debezium.sink.test.retry.budget.per.second", "0.001",
+                        "debezium.sink.test.retry.budget.burst", "2"), "test.properties"))
+                .build(), "debezium.sink.test.", 10, 1);
+
+        assertThatThrownBy(() -> executor.executeWithRetry(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("down");
+        }, e -> true, "test"))
+                .isInstanceOf(DebeziumException.class)
+                .hasMessageContaining("Retry budget exhausted");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    public void shouldRetryAsynchronously() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final RetryExecutor executor = new RetryExecutor(5, 1, 10, 2.0, true, null);
+
+        final CompletableFuture<Integer> result = executor.executeAsync(() -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new IllegalStateException("not yet"))
+                : CompletableFuture.completedFuture(attempts.get()), e -> true, "test");
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldNotRetryNonRetryableFailureAsynchronously() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final RetryExecutor executor = new RetryExecutor(5, 1, 10, 2.0, true, null);
+
+        final CompletableFuture<Object> result = executor.executeAsync(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalArgumentException("bad request"));
+        }, e -> !(e instanceof IllegalArgumentException), "test");
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DebeziumException.class)
+                .hasRootCauseMessage("bad request");
+        assertThat(attempts).hasValue(1);
+    }
+}
@@ -0,0 +1,26 @@
+#!/bin/bash
+# Creates the AppCDS archive used when ENABLE_CDS=true by running the server with the current configuration for
+# CDS_TRAINING_SECONDS (60 by default) and stopping it, the archive is written when the JVM exits.
+# The longer the training run, the more of the classes used while streaming are archived.
+#
+# Copyright Debezium Authors.
+#
+# Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+#
+CDS_TRAINING_SECONDS=${CDS_TRAINING_SECONDS:-60}
+export ENABLE_CDS=true
+export CDS_ARCHIVE=${CDS_ARCHIVE:-"data/debezium-server.jsa"}
+
+rm -f "${CDS_ARCHIVE}"
+./run.sh &
+SERVER_PID=$!
+sleep "${CDS_TRAINING_SECONDS}"
+kill -TERM "${SERVER_PID}" 2>/dev/null
+wait "${SERVER_PID}"
+
+if [ -f "${CDS_ARCHIVE}" ]; then
+  echo "CDS archive created at ${CDS_ARCHIVE}"
+else
+  echo "CDS archive was not created, check that the JVM supports -XX:+AutoCreateSharedArchive (Java 19 or newer)" >&2
+  exit 1
+fi
@@ -0,0 +1,12 @@
+#!/bin/bash
+# To start faster with an AppCDS (class-data sharing) archive, set the ENABLE_CDS environment variable to true.
+# The archive holds the classes loaded by a previous run, so the JVM maps them instead of loading and verifying them again.
+# It is written to CDS_ARCHIVE (data/debezium-server.jsa by default) when the server stops for the first time and used by
+# every later start. The JVM recreates it automatically when the Java version or the class path changed.
+# Use cds/create_cds_archive.sh to create the archive ahead of time, e.g. while building a container image.
+
+if [ "${ENABLE_CDS}" = "true" ]; then
+  CDS_ARCHIVE=${CDS_ARCHIVE:-"data/debezium-server.jsa"}
+  mkdir -p "$(dirname "${CDS_ARCHIVE}")"
+  export JAVA_OPTS="${JAVA_OPTS} -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=${CDS_ARCHIVE} -Xlog:cds=off -Xlog:cds+dynamic=off"
+fi
@@ -0,0 +1,57 @@
+#!/bin/bash
+# Measures the startup time of the server with the current configuration, without and with the AppCDS archive.
+# Every run is started, timed until Quarkus reports the application as started and stopped again.
+# Usage: cds/startup_benchmark.sh [runs per mode, 5 by default]
+#
+# Copyright Debezium Authors.
+#
+# Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+#
+RUNS=${1:-5}
+STARTUP_TIMEOUT_SECONDS=${STARTUP_TIMEOUT_SECONDS:-120}
+LOG_FILE=$(mktemp)
+trap 'rm -f "${LOG_FILE}"' EXIT
+
+measure() {
+  local start end elapsed_ms waited=0
+  : > "${LOG_FILE}"
+  start=$(date +%s%N)
+  ./run.sh > "${LOG_FILE}" 2>&1 &
+  local pid=$!
+  until grep -q "started in" "${LOG_FILE}"; do
+    if ! kill -0 "${pid}" 2>/dev/null || [ "${waited}" -ge $((STARTUP_TIMEOUT_SECONDS * 10)) ]; then
+      echo "Server did not start, see its output:" >&2
+      cat "${LOG_FILE}" >&2
+      kill -TERM "${pid}" 2>/dev/null
+      exit 1
+    fi
+    sleep 0.1
+    waited=$((waited + 1))
+  done
+  end=$(date +%s%N)
+  elapsed_ms=$(((end - start) / 1000000))
+  kill -TERM "${pid}" 2>/dev/null
+  wait "${pid}" 2>/dev/null
+  echo "${elapsed_ms} $(grep -o 'started in [0-9.]*s' "${LOG_FILE}" | head -1 | grep -o '[0-9.]*')"
+}
+
+benchmark() {
+  local mode=$1 total=0 result
+  for i in $(seq 1 "${RUNS}"); do
+    result=$(measure) || exit 1
+    echo "${mode} run ${i}: process start to ready ${result%% *} ms, reported by Quarkus ${result##* }s"
+    total=$((total + ${result%% *}))
+  done
+  echo "${mode} average: $((total / RUNS)) ms"
+}
+
+export ENABLE_CDS=false
+benchmark "Without CDS"
+
+export ENABLE_CDS=true
+export CDS_ARCHIVE=${CDS_ARCHIVE:-"data/debezium-server.jsa"}
+if [ ! -f "${CDS_ARCHIVE}" ]; then
+  echo "Creating the CDS archive with a training run"
+  measure > /dev/null
+fi
+benchmark "With CDS"
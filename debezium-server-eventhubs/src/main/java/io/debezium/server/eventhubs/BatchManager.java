@@ -127,7 +127,7 @@ public void sendEventToPartitionId(EventData eventData, Integer recordIndex, Int
                 // If we fail to add at least the very first event to the batch that is because
                 // the event's size exceeds the maxBatchSize in which case we cannot safely
                 // recover and dispatch the event, only option is to throw an exception.
-                throw new DebeziumException("Event data is too large to fit into batch");
+                throw new EventTooLargeException();
             }
             // reached the maximum allowed size for the batch
             LOGGER.debug("Maximum batch size reached, dispatching {} events.", batch.getCount());
@@ -140,7 +140,7 @@ public void sendEventToPartitionId(EventData eventData, Integer recordIndex, Int
             // Add event which we failed to add to the previous batch which was already full.
             if (!batch.tryAdd(eventData)) {
                 // This is the first event in the batch, if we failed to add it, it has to be too large.
-                throw new DebeziumException("Event data is too large to fit into batch");
+                throw new EventTooLargeException();
             }
         }
     }
@@ -165,7 +165,7 @@ public void sendEventWithDynamicPartitionKey(EventData eventData, String partiti
 
         if (!batch.tryAdd(eventData)) {
             if (batch.getCount() == 0) {
-                throw new DebeziumException("Event data is too large to fit into batch");
+                throw new EventTooLargeException();
             }
 
             LOGGER.debug("Maximum batch size reached for partition key '{}', dispatching {} events.", effectivePartitionKey, batch.getCount());
@@ -183,7 +183,7 @@ public void sendEventWithDynamicPartitionKey(EventData eventData, String partiti
 
             // Add event which we failed to add to the previous batch which was already full.
             if (!batch.tryAdd(eventData)) {
-                throw new DebeziumException("Event data is too large to fit into batch");
+                throw new EventTooLargeException();
             }
         }
     }
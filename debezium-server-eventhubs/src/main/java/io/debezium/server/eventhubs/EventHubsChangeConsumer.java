@@ -31,6 +31,8 @@
 import io.debezium.engine.DebeziumEngine.RecordCommitter;
 import io.debezium.server.BaseChangeConsumer;
 import io.debezium.server.CustomConsumerBuilder;
+import io.debezium.server.RecordRejectedException;
+import io.debezium.server.util.RateLimiter;
 
 /**
  * This sink adapter delivers change event messages to Azure Event Hubs
@@ -69,6 +71,7 @@ public class EventHubsChangeConsumer extends BaseChangeConsumer
 
     private EventHubProducerClient producer = null;
     private BatchManager batchManager = null;
+    private RateLimiter rateLimiter = RateLimiter.unlimited();
 
     @Inject
     @CustomConsumerBuilder
@@ -76,16 +79,8 @@ public class EventHubsChangeConsumer extends BaseChangeConsumer
 
     @PostConstruct
     void connect() {
-        if (customProducer.isResolvable()) {
-            producer = customProducer.get();
-            LOGGER.info("Obtained custom configured Event Hubs client for namespace '{}'",
-                    customProducer.get().getFullyQualifiedNamespace());
-            return;
-        }
-
         final Config config = ConfigProvider.getConfig();
-        connectionString = config.getValue(PROP_CONNECTION_STRING_NAME, String.class);
-        eventHubName = config.getValue(PROP_EVENTHUB_NAME, String.class);
+        rateLimiter = RateLimiter.fromConfig(config, PROP_PREFIX);
 
         // optional config
         maxBatchSize = config.getOptionalValue(PROP_MAX_BATCH_SIZE, Integer.class).orElse(0);
@@ -98,17 +93,29 @@ void connect() {
         hashMessageFunction = config.getOptionalValue(PROP_HASH_MESSAGE_KEY_FUNCTION, String.class)
                 .map(HashFunction::fromString);
 
-        String finalConnectionString = String.format(CONNECTION_STRING_FORMAT, connectionString, eventHubName);
-
-        try {
-            producer = new EventHubClientBuilder().connectionString(finalConnectionString).buildProducerClient();
-            batchManager = new BatchManager(producer, configuredPartitionId, configuredPartitionKey, maxBatchSize);
-        }
-        catch (Exception e) {
-            throw new DebeziumException(e);
+        if (customProducer.isResolvable()) {
+            producer = customProducer.get();
+            eventHubName = producer.getEventHubName();
+            LOGGER.info("Obtained custom configured Event Hubs client for namespace '{}'",
+                    producer.getFullyQualifiedNamespace());
         }
+        else {
+            connectionString = config.getValue(PROP_CONNECTION_STRING_NAME, String.class);
+            eventHubName = config.getValue(PROP_EVENTHUB_NAME, String.class);
+
+            String finalConnectionString = String.format(CONNECTION_STRING_FORMAT, connectionString, eventHubName);
 
-        LOGGER.info("Using default Event Hubs client for namespace '{}'", producer.getFullyQualifiedNamespace());
+            try {
+                producer = new EventHubClientBuilder().connectionString(finalConnectionString).buildProducerClient();
+            }
+            catch (Exception e) {
+                throw new DebeziumException(e);
+            }
+
+            LOGGER.info("Using default Event Hubs client for namespace '{}'", producer.getFullyQualifiedNamespace());
+        }
+        // The batches are managed the same way for a custom client, only the connection is provided by the user
+        batchManager = new BatchManager(producer, configuredPartitionId, configuredPartitionKey, maxBatchSize);
 
         // Retrieve available partition count for the EventHub
         partitionCount = (int) producer.getPartitionIds().stream().count();
@@ -214,6 +221,8 @@ else if (!configuredPartitionKey.isEmpty()) {
                     }
                 }
 
+                rateLimiter.acquire(record);
+
                 try {
                     if (dynamicPartitionKey != null) {
                         batchManager.sendEventWithDynamicPartitionKey(eventData, dynamicPartitionKey);
@@ -235,7 +244,15 @@ else if (!configuredPartitionKey.isEmpty()) {
                 catch (AmqpException e) {
                     // tryAdd throws AmqpException if "eventData is larger than the maximum size of
                     // the EventDataBatch."
-                    throw new DebeziumException("Event data was larger than the maximum size of the batch", e);
+                    final DebeziumException failure = new RecordRejectedException("Event data was larger than the maximum size of the batch", e);
+                    if (!deadLetter(record, failure)) {
+                        throw failure;
+                    }
+                }
+                catch (EventTooLargeException e) {
+                    if (!deadLetter(record, e)) {
+                        throw e;
+                    }
                 }
                 catch (Exception e) {
                     throw new DebeziumException(e);
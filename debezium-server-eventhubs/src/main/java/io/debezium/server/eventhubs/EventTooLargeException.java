@@ -0,0 +1,20 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.eventhubs;
+
+import io.debezium.server.RecordRejectedException;
+
+/**
+ * Thrown when a single event does not fit into an empty batch, the event can never be delivered.
+ */
+public class EventTooLargeException extends RecordRejectedException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EventTooLargeException() {
+        super("Event data is too large to fit into batch");
+    }
+}
@@ -11,17 +11,26 @@
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.Dependent;
 import jakarta.inject.Named;
 
@@ -35,14 +44,28 @@
 import io.debezium.engine.ChangeEvent;
 import io.debezium.engine.DebeziumEngine;
 import io.debezium.server.BaseChangeConsumer;
+import io.debezium.server.RecordRejectedException;
 import io.debezium.server.http.jwt.JWTAuthenticatorBuilder;
 import io.debezium.server.http.oauth2.OAuth2AuthenticatorBuilder;
 import io.debezium.server.http.webhooks.StandardWebhooksAuthenticatorBuilder;
-import io.debezium.util.Clock;
-import io.debezium.util.Metronome;
+import io.debezium.server.util.AdaptiveBatchSizer;
+import io.debezium.server.util.CircuitBreaker;
+import io.debezium.server.util.CircuitBreakerOpenException;
+import io.debezium.server.util.PartitionedBatchDelivery;
+import io.debezium.server.util.RateLimiter;
+import io.debezium.server.util.RetryExecutor;
+import io.debezium.util.BoundedConcurrentHashMap;
+import io.debezium.util.BoundedConcurrentHashMap.Eviction;
 
 /**
  * Implementation of the consumer that delivers the messages to an HTTP Webhook destination.
+ * <p>
+ * With {@code debezium.sink.http.max.in.flight} above {@code 1} the events are sent concurrently with non-blocking
+ * requests, multiplexed over a single connection when the endpoint supports HTTP/2. At most that many events are
+ * in flight, events with the same destination and key are still sent one after another and the events are marked
+ * as processed in their original order. As in sequential mode, only an event the endpoint rejected is written to
+ * the dead letter queue. Any other failure fails the batch, and the events after it with the same key are not
+ * sent.
  *
  * @author Chris Baumbauer
  */
@@ -54,8 +77,8 @@ public class HttpChangeConsumer extends BaseChangeConsumer implements DebeziumEn
     public static final String PROP_PREFIX = "debezium.sink.http.";
     public static final String PROP_WEBHOOK_URL = "url";
     public static final String PROP_CLIENT_TIMEOUT = "timeout.ms";
-    public static final String PROP_RETRIES = "retries";
-    public static final String PROP_RETRY_INTERVAL = "retry.interval.ms";
+    public static final String PROP_RETRIES = RetryExecutor.PROP_RETRIES;
+    public static final String PROP_RETRY_INTERVAL = RetryExecutor.PROP_RETRY_INTERVAL;
     public static final String PROP_HEADERS_ENCODE_BASE64 = "headers.encode.base64";
     public static final String PROP_HEADERS_PREFIX = "headers.prefix";
 
@@ -63,6 +86,7 @@ public class HttpChangeConsumer extends BaseChangeConsumer implements DebeziumEn
     public static final String PROP_AUTHENTICATION_TYPE = "type";
     public static final String PROP_BATCH_ENABLED = "batch.enabled";
     public static final String PROP_BATCH_MAX_SIZE = "batch.max-size";
+    public static final String PROP_MAX_IN_FLIGHT = "max.in.flight";
 
     public static final String JWT_AUTHENTICATION = "jwt";
     public static final String STANDARD_WEBHOOKS_AUTHENTICATION = "standard-webhooks";
@@ -73,14 +97,23 @@ public class HttpChangeConsumer extends BaseChangeConsumer implements DebeziumEn
     private static final long RETRY_INTERVAL = 1_000L; // Default to 1s
     private static final String DEFAULT_HEADERS_PREFIX = "X-DEBEZIUM-";
     private static final int DEFAULT_BATCH_MAX_SIZE = 200;
+    private static final int MAX_ADAPTIVE_BATCH_SIZE = 10_000;
+    private static final int HEADER_NAMES_CACHE_SIZE = 1_024;
 
     private static Duration timeoutDuration;
-    private static int retries;
-    private static Duration retryInterval;
     private boolean base64EncodeHeaders = true;
     private String headersPrefix = DEFAULT_HEADERS_PREFIX;
     private boolean batchEnabled = false;
     private int batchMaxSize = DEFAULT_BATCH_MAX_SIZE;
+    private int maxInFlight = 1;
+    private Semaphore inFlight;
+    private AdaptiveBatchSizer batchSizer;
+    private PartitionedBatchDelivery delivery;
+    private RetryExecutor retryExecutor;
+    private CircuitBreaker circuitBreaker;
+    private RateLimiter rateLimiter;
+    // Header keys may be derived from the data, the least recently used names are evicted
+    private final Map<String, String> headerNames = new BoundedConcurrentHashMap<>(HEADER_NAMES_CACHE_SIZE, 16, Eviction.LRU);
 
     private HttpClient client;
     private HttpRequest.Builder baseRequestBuilder;
@@ -104,8 +137,6 @@ void initWithConfig(Config config) throws URISyntaxException {
         client = createHttpClient();
         String sink = System.getenv("K_SINK");
         timeoutDuration = Duration.ofMillis(HTTP_TIMEOUT);
-        retries = DEFAULT_RETRIES;
-        retryInterval = Duration.ofMillis(RETRY_INTERVAL);
 
         if (sink != null) {
             sinkUrl = sink;
@@ -117,14 +148,13 @@ void initWithConfig(Config config) throws URISyntaxException {
         config.getOptionalValue(PROP_PREFIX + PROP_CLIENT_TIMEOUT, String.class)
                 .ifPresent(t -> timeoutDuration = Duration.ofMillis(Long.parseLong(t)));
 
-        config.getOptionalValue(PROP_PREFIX + PROP_RETRIES, String.class)
-                .ifPresent(n -> retries = Integer.parseInt(n));
-
-        config.getOptionalValue(PROP_PREFIX + PROP_RETRY_INTERVAL, String.class)
-                .ifPresent(t -> retryInterval = Duration.ofMillis(Long.parseLong(t)));
+        retryExecutor = RetryExecutor.fromConfig(config, PROP_PREFIX, DEFAULT_RETRIES, RETRY_INTERVAL).onRetry(this::countRetry);
+        circuitBreaker = CircuitBreaker.fromConfig(config, PROP_PREFIX, "http");
+        rateLimiter = RateLimiter.fromConfig(config, PROP_PREFIX);
 
         config.getOptionalValue(PROP_PREFIX + PROP_HEADERS_PREFIX, String.class)
                 .ifPresent(p -> headersPrefix = p);
+        headerNames.clear();
 
         config.getOptionalValue(PROP_PREFIX + PROP_HEADERS_ENCODE_BASE64, Boolean.class)
                 .ifPresent(b -> base64EncodeHeaders = b);
@@ -134,6 +164,16 @@ void initWithConfig(Config config) throws URISyntaxException {
 
         config.getOptionalValue(PROP_PREFIX + PROP_BATCH_MAX_SIZE, Integer.class)
                 .ifPresent(n -> batchMaxSize = n);
+        // Adaptive sizing starts from the configured size and may grow beyond it up to the ceiling
+        batchSizer = AdaptiveBatchSizer.fromConfig(config, PROP_PREFIX, batchMaxSize, Math.max(batchMaxSize, MAX_ADAPTIVE_BATCH_SIZE));
+
+        config.getOptionalValue(PROP_PREFIX + PROP_MAX_IN_FLIGHT, Integer.class)
+                .ifPresent(n -> maxInFlight = n);
+        if (maxInFlight < 1) {
+            throw new DebeziumException(PROP_PREFIX + PROP_MAX_IN_FLIGHT + " must be at least 1 but was " + maxInFlight);
+        }
+        inFlight = new Semaphore(maxInFlight);
+        delivery = PartitionedBatchDelivery.fromConfig(config, PROP_PREFIX);
 
         contentType = switch (config.getValue("debezium.format.value", String.class).toLowerCase()) {
             case "avro" -> "avro/bytes";
@@ -148,18 +188,31 @@ void initWithConfig(Config config) throws URISyntaxException {
         LOGGER.info("Using http content-type type {}", contentType);
         LOGGER.info("Using sink URL: {}", sinkUrl);
         LOGGER.info("Batch mode: {}", batchEnabled ? "enabled (max-size=" + batchMaxSize + ")" : "disabled");
+        if (!batchEnabled && maxInFlight > 1) {
+            LOGGER.info("Concurrent mode enabled with at most {} events in flight", maxInFlight);
+        }
         baseRequestBuilder = HttpRequest
                 .newBuilder(new URI(sinkUrl))
                 .timeout(timeoutDuration)
                 .setHeader("content-type", contentType);
     }
 
+    @PreDestroy
+    void close() {
+        if (delivery != null) {
+            delivery.close();
+        }
+    }
+
     @Override
     public void handleBatch(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
             throws InterruptedException {
         if (batchEnabled) {
             handleBatchAggregated(records, committer);
         }
+        else if (maxInFlight > 1) {
+            handleBatchConcurrent(records, committer);
+        }
         else {
             handleBatchIndividual(records, committer);
         }
@@ -167,28 +220,152 @@ public void handleBatch(List<ChangeEvent<Object, Object>> records, DebeziumEngin
 
     private void handleBatchIndividual(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
             throws InterruptedException {
+        // Tombstones are not delivered and not marked as processed
+        final List<ChangeEvent<Object, Object>> nonNullRecords = new ArrayList<>(records.size());
         for (ChangeEvent<Object, Object> record : records) {
             LOGGER.trace("Received event '{}'", record);
+            if (record.value() != null) {
+                nonNullRecords.add(record);
+            }
+        }
 
+        delivery.deliver(nonNullRecords, committer, record -> {
             UUID messageId = UUID.randomUUID();
             LOGGER.trace("Using message ID '{}'", messageId);
 
-            if (record.value() != null) {
-                int attempts = 0;
-                while (!recordSent(record, messageId)) {
-                    attempts++;
-                    if (attempts >= retries) {
-                        throw new DebeziumException("Exceeded maximum number of attempts to publish event " + record);
+            rateLimiter.acquire(record);
+
+            try {
+                // While the endpoint is down the batch is held back and delivered again once it recovers
+                circuitBreaker.holdWhileOpen(() -> retryExecutor.executeWithRetry(() -> circuitBreaker.execute(() -> {
+                    if (!recordSent(record, messageId)) {
+                        throw new DebeziumException("Failed to publish event");
                     }
-                    Metronome.sleeper(retryInterval, Clock.SYSTEM).pause();
+                }), HttpChangeConsumer::isRetryable, "HTTP publish"));
+            }
+            catch (DebeziumException e) {
+                final DebeziumException failure = publishFailure(record, e);
+                if (deadLetter(record, failure)) {
+                    return;
                 }
-                committer.markProcessed(record);
+                throw failure;
+            }
+        });
+
+        committer.markBatchFinished();
+    }
+
+    private void handleBatchConcurrent(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
+            throws InterruptedException {
+        // Tombstones are not delivered and not marked as processed
+        final List<ChangeEvent<Object, Object>> nonNullRecords = new ArrayList<>(records.size());
+        final List<CompletableFuture<Void>> results = new ArrayList<>(records.size());
+        // The last send of every destination and key, the next event with the same ordering key waits for it
+        final Map<List<Object>, CompletableFuture<Void>> lastSends = new HashMap<>();
+        final AtomicBoolean failed = new AtomicBoolean();
+
+        for (ChangeEvent<Object, Object> record : records) {
+            LOGGER.trace("Received event '{}'", record);
+            if (record.value() == null) {
+                continue;
+            }
+            if (failed.get()) {
+                // Do not send any more events once the batch is known to fail
+                break;
             }
+            // The token is refreshed here, the sends run on the completion threads of the HTTP client and must not block
+            if (authenticator != null) {
+                authenticator.authenticate();
+            }
+            rateLimiter.acquire(record);
+            inFlight.acquire();
+
+            final List<Object> orderingKey = orderingKey(record);
+            final CompletableFuture<Void> previous = lastSends.getOrDefault(orderingKey, CompletableFuture.completedFuture(null));
+            final CompletableFuture<Void> sent = previous.thenCompose(v -> publishAsync(record));
+            sent.whenComplete((v, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    failed.set(true);
+                }
+            });
+            lastSends.put(orderingKey, sent);
+            nonNullRecords.add(record);
+            results.add(sent);
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                results.get(i).get();
+            }
+            catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof DebeziumException debeziumException) {
+                    throw debeziumException;
+                }
+                throw new DebeziumException("Failed to publish event " + nonNullRecords.get(i), cause);
+            }
+            committer.markProcessed(nonNullRecords.get(i));
         }
 
         committer.markBatchFinished();
     }
 
+    private static List<Object> orderingKey(ChangeEvent<Object, Object> record) {
+        final Object key = record.key();
+        return Arrays.asList(record.destination(), key instanceof byte[] bytes ? ByteBuffer.wrap(bytes) : key);
+    }
+
+    /**
+     * Publishes the event without blocking, the returned future completes once the event was delivered or
+     * written to the dead letter queue.
+     */
+    private CompletableFuture<Void> publishAsync(ChangeEvent<Object, Object> record) {
+        final UUID messageId = UUID.randomUUID();
+        LOGGER.trace("Using message ID '{}'", messageId);
+
+        // While the endpoint is down the event is held back and sent again once it recovers
+        return circuitBreaker.holdWhileOpenAsync(
+                () -> retryExecutor.executeAsync(() -> circuitBreaker.executeAsync(() -> sendAsync(record, messageId)), HttpChangeConsumer::isRetryable, "HTTP publish"))
+                .exceptionallyCompose(error -> {
+                    final Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    final DebeziumException failure = publishFailure(record, e);
+                    return deadLetterAsync(record, failure)
+                            .thenCompose(quarantined -> quarantined ? CompletableFuture.<Void> completedFuture(null) : CompletableFuture.<Void> failedFuture(failure));
+                });
+    }
+
+    private static DebeziumException publishFailure(ChangeEvent<Object, Object> record, Throwable cause) {
+        if (RecordRejectedException.isRejection(cause)) {
+            return new DebeziumException("HTTP endpoint rejected event " + record, cause);
+        }
+        return new DebeziumException("Exceeded maximum number of attempts to publish event " + record, cause);
+    }
+
+    private CompletableFuture<Void> sendAsync(ChangeEvent<Object, Object> record, UUID messageId) {
+        final HttpRequest.Builder requestBuilder = generateRequest(record);
+
+        if (authenticator != null) {
+            authenticator.setAuthorizationHeader(requestBuilder, (String) record.value(), messageId);
+        }
+
+        return client.sendAsync(requestBuilder.build(), HttpResponse.BodyHandlers.ofString())
+                .handle((r, error) -> {
+                    if (error != null) {
+                        LOGGER.info("Failed to send event: {}", error.getMessage());
+                        throw new DebeziumException("Failed to publish event", error);
+                    }
+                    if (HttpUtil.isRejectedStatusCode(r.statusCode())) {
+                        throw rejected(r);
+                    }
+                    if (!HttpUtil.isSuccessStatusCode(r.statusCode())) {
+                        LOGGER.info("Failed to publish event: {}", r.body());
+                        throw new DebeziumException("Failed to publish event");
+                    }
+                    return null;
+                });
+    }
+
     private void handleBatchAggregated(List<ChangeEvent<Object, Object>> records, DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer)
             throws InterruptedException {
         // Collect records with non-null values, preserving the record references for markProcessed
@@ -204,9 +381,11 @@ private void handleBatchAggregated(List<ChangeEvent<Object, Object>> records, De
             return;
         }
 
-        // Chunk records into sub-batches of at most batchMaxSize
-        for (int from = 0; from < nonNullRecords.size(); from += batchMaxSize) {
-            int to = Math.min(from + batchMaxSize, nonNullRecords.size());
+        // Chunk records into sub-batches of at most the current batch size
+        int size;
+        for (int from = 0; from < nonNullRecords.size(); from += size) {
+            size = batchSizer.size();
+            int to = Math.min(from + size, nonNullRecords.size());
             List<ChangeEvent<Object, Object>> chunk = nonNullRecords.subList(from, to);
 
             List<String> values = new ArrayList<>(chunk.size());
@@ -217,15 +396,20 @@ private void handleBatchAggregated(List<ChangeEvent<Object, Object>> records, De
             // Values are assumed to be pre-serialized JSON from the Debezium format serializer
             String batchPayload = "[" + String.join(",", values) + "]";
 
-            Map<String, String> chunkHeaders = convertHeaders(chunk.getFirst());
+            rateLimiter.acquire(chunk);
             UUID messageId = UUID.randomUUID();
-            int attempts = 0;
-            while (!batchSent(batchPayload, messageId, chunkHeaders)) {
-                attempts++;
-                if (attempts >= retries) {
-                    throw new DebeziumException("Exceeded maximum number of attempts to publish batch of " + chunk.size() + " events");
-                }
-                Metronome.sleeper(retryInterval, Clock.SYSTEM).pause();
+            try {
+                circuitBreaker.holdWhileOpen(() -> retryExecutor.executeWithRetry(() -> circuitBreaker.execute(() -> {
+                    final long start = System.nanoTime();
+                    if (!batchSent(batchPayload, messageId, chunk.getFirst())) {
+                        batchSizer.onFailure();
+                        throw new DebeziumException("Failed to publish batch");
+                    }
+                    batchSizer.onSuccess(System.nanoTime() - start);
+                }), HttpChangeConsumer::isRetryable, "HTTP batch publish"));
+            }
+            catch (DebeziumException e) {
+                throw new DebeziumException("Exceeded maximum number of attempts to publish batch of " + chunk.size() + " events", e);
             }
 
             // Mark records processed immediately after their chunk is successfully sent
@@ -237,17 +421,23 @@ private void handleBatchAggregated(List<ChangeEvent<Object, Object>> records, De
         committer.markBatchFinished();
     }
 
-    private boolean batchSent(String batchPayload, UUID messageId, Map<String, String> headers) throws InterruptedException {
+    /**
+     * Failed sends are retried, unless the endpoint rejected the event or the circuit breaker is open and the
+     * send is held back until the breaker lets a probe through.
+     */
+    private static boolean isRetryable(Exception e) {
+        return e instanceof DebeziumException && !(e instanceof CircuitBreakerOpenException) && !(e instanceof RecordRejectedException);
+    }
+
+    private static RecordRejectedException rejected(HttpResponse<String> response) {
+        return new RecordRejectedException("HTTP endpoint rejected event with status " + response.statusCode() + ": " + response.body());
+    }
+
+    private boolean batchSent(String batchPayload, UUID messageId, ChangeEvent<Object, Object> headersRecord) throws InterruptedException {
         HttpRequest.Builder requestBuilder = baseRequestBuilder.copy()
                 .POST(HttpRequest.BodyPublishers.ofString(batchPayload));
 
-        for (Map.Entry<String, String> entry : headers.entrySet()) {
-            String headerValue = entry.getValue();
-            if (base64EncodeHeaders) {
-                headerValue = Base64.getEncoder().encodeToString(headerValue.getBytes(StandardCharsets.UTF_8));
-            }
-            requestBuilder.header(headersPrefix + entry.getKey().toUpperCase(Locale.ROOT), headerValue);
-        }
+        forEachHeader(headersRecord, (name, headerValue) -> addHeader(requestBuilder, name, headerValue));
 
         if (authenticator != null) {
             authenticator.authenticate();
@@ -309,6 +499,9 @@ private boolean recordSent(ChangeEvent<Object, Object> record, UUID messageId) t
             return false;
         }
 
+        if (HttpUtil.isRejectedStatusCode(r.statusCode())) {
+            throw rejected(r);
+        }
         if (HttpUtil.isSuccessStatusCode(r.statusCode())) {
             return true;
         }
@@ -324,19 +517,26 @@ HttpRequest.Builder generateRequest(ChangeEvent<Object, Object> record) {
         HttpRequest.Builder builder = baseRequestBuilder.copy()
                 .POST(HttpRequest.BodyPublishers.ofString(value));
 
-        Map<String, String> headers = convertHeaders(record);
-
-        for (Map.Entry<String, String> entry : headers.entrySet()) {
-            String headerValue = entry.getValue();
-            if (base64EncodeHeaders) {
-                headerValue = Base64.getEncoder().encodeToString(headerValue.getBytes(StandardCharsets.UTF_8));
-            }
-            builder.header(headersPrefix + entry.getKey().toUpperCase(Locale.ROOT), headerValue);
-        }
+        forEachHeader(record, (name, headerValue) -> addHeader(builder, name, headerValue));
 
         return builder;
     }
 
+    private void addHeader(HttpRequest.Builder builder, String key, String value) {
+        String headerValue = value;
+        if (base64EncodeHeaders) {
+            headerValue = Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // Header names repeat for every record, the prefixed upper-case form is computed only once per key.
+        // A duplicate key replaces the earlier value, as the headers used to be collected into a map
+        String headerName = headerNames.get(key);
+        if (headerName == null) {
+            headerName = headersPrefix + key.toUpperCase(Locale.ROOT);
+            headerNames.put(key, headerName);
+        }
+        builder.setHeader(headerName, headerValue);
+    }
+
     @VisibleForTesting
     HttpClient createHttpClient() {
         return HttpClient.newHttpClient();
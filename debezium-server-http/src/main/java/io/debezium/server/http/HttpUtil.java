@@ -9,7 +9,19 @@
 
 public class HttpUtil {
 
+    private static final int HTTP_UNPROCESSABLE_CONTENT = 422;
+
     public static final boolean isSuccessStatusCode(int statusCode) {
         return statusCode >= HttpURLConnection.HTTP_OK && statusCode < HttpURLConnection.HTTP_MULT_CHOICE;
     }
+
+    /**
+     * Whether the endpoint rejected the request content itself, sending the same request again cannot succeed.
+     * Authentication, throttling and timeouts are not rejections, they may succeed later.
+     */
+    public static final boolean isRejectedStatusCode(int statusCode) {
+        return statusCode == HttpURLConnection.HTTP_BAD_REQUEST
+                || statusCode == HttpURLConnection.HTTP_ENTITY_TOO_LARGE
+                || statusCode == HTTP_UNPROCESSABLE_CONTENT;
+    }
 }
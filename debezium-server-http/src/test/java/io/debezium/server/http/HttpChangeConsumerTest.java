@@ -9,8 +9,11 @@
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -20,15 +23,25 @@
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import org.awaitility.Awaitility;
 import org.eclipse.microprofile.config.Config;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
+import io.debezium.DebeziumException;
 import io.debezium.engine.ChangeEvent;
 import io.debezium.engine.DebeziumEngine;
 import io.debezium.engine.Header;
+import io.debezium.server.util.AdaptiveBatchSizer;
 import io.smallrye.config.PropertiesConfigSource;
 import io.smallrye.config.SmallRyeConfigBuilder;
 
@@ -75,6 +88,26 @@ public void verifyGenerateRequestHasNoDuplicateHeaders() throws Exception {
         assertEquals(1, headers2.size());
     }
 
+    @Test
+    public void verifyGenerateRequestKeepsLastValueOfDuplicateHeader() throws Exception {
+        HttpChangeConsumer changeConsumer = createTestHttpChangeConsumer(Map.of(
+                HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_HEADERS_ENCODE_BASE64, "false",
+                HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_WEBHOOK_URL, "http://url",
+                "debezium.format.value", "avro"));
+        ChangeEvent<Object, Object> event = createChangeEvent();
+        Header first = mock(Header.class);
+        when(first.getKey()).thenReturn("h1Key");
+        when(first.getValue()).thenReturn("h1First");
+        Header last = mock(Header.class);
+        when(last.getKey()).thenReturn("h1Key");
+        when(last.getValue()).thenReturn("h1Last");
+        when(event.headers()).thenReturn(List.of(first, last));
+
+        HttpRequest request = changeConsumer.generateRequest(event).build();
+
+        assertEquals(List.of("h1Last"), request.headers().allValues("X-DEBEZIUM-h1key"));
+    }
+
     @Test
     public void verifyGenerateRequestWithDifferentHeaderPrefix() throws Exception {
         HttpChangeConsumer changeConsumer = createTestHttpChangeConsumer(Map.of(
@@ -196,6 +229,38 @@ public void testBatchModeChunksByMaxSize() throws Exception {
         verify(committer, times(1)).markBatchFinished();
     }
 
+    @Test
+    public void testAdaptiveBatchModeGrowsBeyondConfiguredSize() throws Exception {
+        HttpClient mockHttpClient = mock(HttpClient.class);
+        @SuppressWarnings("unchecked")
+        HttpResponse<String> mockResponse = mock(HttpResponse.class);
+        when(mockResponse.statusCode()).thenReturn(200);
+        doReturn(mockResponse).when(mockHttpClient).send(any(), any());
+
+        HttpChangeConsumer changeConsumer = createTestHttpChangeConsumer(
+                Map.of(
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_WEBHOOK_URL, "http://url",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_BATCH_ENABLED, "true",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_BATCH_MAX_SIZE, "2",
+                        HttpChangeConsumer.PROP_PREFIX + AdaptiveBatchSizer.PROP_ADAPTIVE_ENABLED, "true",
+                        "debezium.format.value", "json"),
+                mockHttpClient);
+
+        List<ChangeEvent<Object, Object>> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(createChangeEventWithValue("{\"id\":" + i + "}"));
+        }
+
+        @SuppressWarnings("unchecked")
+        DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        changeConsumer.handleBatch(events, committer);
+
+        // The first chunk uses the configured size, the fast response lets the next chunk take the remaining 8 events
+        verify(mockHttpClient, times(2)).send(any(), any());
+        verify(committer, times(10)).markProcessed(any());
+        verify(committer, times(1)).markBatchFinished();
+    }
+
     @Test
     public void testBatchModeDisabledSendsIndividually() throws Exception {
         HttpClient mockHttpClient = mock(HttpClient.class);
@@ -267,10 +332,225 @@ public void testBatchModeWithAuthentication() throws Exception {
         verify(committer, times(1)).markBatchFinished();
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void testRejectedEventIsNotRetried() throws Exception {
+        HttpClient mockHttpClient = mock(HttpClient.class);
+        @SuppressWarnings("unchecked")
+        HttpResponse<String> mockResponse = mock(HttpResponse.class);
+        when(mockResponse.statusCode()).thenReturn(400);
+        when(mockResponse.body()).thenReturn("malformed");
+        doReturn(mockResponse).when(mockHttpClient).send(any(), any());
+
+        HttpChangeConsumer changeConsumer = createTestHttpChangeConsumer(
+                Map.of(
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_WEBHOOK_URL, "http://url",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_RETRIES, "3",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_RETRY_INTERVAL, "1",
+                        "debezium.format.value", "json"),
+                mockHttpClient);
+
+        @SuppressWarnings("unchecked")
+        DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        DebeziumException e = assertThrows(DebeziumException.class,
+                () -> changeConsumer.handleBatch(List.of(createChangeEventWithValue("{\"id\":1}")), committer));
+
+        assertTrue(e.getMessage().startsWith("HTTP endpoint rejected event"));
+        verify(mockHttpClient, times(1)).send(any(), any());
+        verify(committer, never()).markProcessed(any());
+    }
+
+    @Test
+    public void testConcurrentModePreservesKeyOrder() throws Exception {
+        HttpClient mockHttpClient = mock(HttpClient.class);
+        @SuppressWarnings("unchecked")
+        HttpResponse<String> mockResponse = mock(HttpResponse.class);
+        when(mockResponse.statusCode()).thenReturn(200);
+        CompletableFuture<HttpResponse<String>> firstResponse = new CompletableFuture<>();
+        doReturn(firstResponse, CompletableFuture.completedFuture(mockResponse)).when(mockHttpClient).sendAsync(any(), any());
+
+        HttpChangeConsumer changeConsumer = createTestHttpChangeConsumer(
+                Map.of(
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_WEBHOOK_URL, "http://url",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_MAX_IN_FLIGHT, "4",
+                        "debezium.format.value", "json"),
+                mockHttpClient);
+
+        ChangeEvent<Object, Object> event1 = createChangeEventWithValue("k1", "{\"id\":1}");
+        ChangeEvent<Object, Object> event2 = createChangeEventWithValue("k1", "{\"id\":2}");
+        ChangeEvent<Object, Object> event3 = createChangeEventWithValue("k2", "{\"id\":3}");
+
+        @SuppressWarnings("unchecked")
+        DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        CompletableFuture<Void> handled = CompletableFuture.runAsync(() -> {
+            try {
+                changeConsumer.handleBatch(List.of(event1, event2, event3), committer);
+            }
+            catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // The second event waits for the first one with the same key, the third one is sent meanwhile
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(mockHttpClient, times(2)).sendAsync(any(), any()));
+        verify(committer, never()).markProcessed(any());
+
+        firstResponse.complete(mockResponse);
+        handled.get(5, TimeUnit.SECONDS);
+
+        verify(mockHttpClient, times(3)).sendAsync(any(), any());
+        InOrder order = inOrder(committer);
+        order.verify(committer).markProcessed(event1);
+        order.verify(committer).markProcessed(event2);
+        order.verify(committer).markProcessed(event3);
+        order.verify(committer).markBatchFinished();
+    }
+
+    @Test
+    public void testConcurrentModeAuthenticatesOnCallingThread() throws Exception {
+        HttpClient mockHttpClient = mock(HttpClient.class);
+
+        // The token expires immediately so that every send needs a new one
+        @SuppressWarnings("unchecked")
+        HttpResponse<String> tokenResponse = mock(HttpResponse.class);
+        when(tokenResponse.statusCode()).thenReturn(200);
+        when(tokenResponse.body()).thenReturn("{\"access_token\":\"test-token\",\"expires_in\":0,\"token_type\":\"bearer\"}");
+        List<Thread> tokenThreads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            tokenThreads.add(Thread.currentThread());
+            return tokenResponse;
+        }).when(mockHttpClient).send(any(), any());
+
+        @SuppressWarnings("unchecked")
+        HttpResponse<String> mockResponse = mock(HttpResponse.class);
+        when(mockResponse.statusCode()).thenReturn(200);
+        CompletableFuture<HttpResponse<String>> firstResponse = new CompletableFuture<>();
+        doReturn(firstResponse, CompletableFuture.completedFuture(mockResponse)).when(mockHttpClient).sendAsync(any(), any());
+
+        HttpChangeConsumer changeConsumer = createTestHttpChangeConsumer(
+                Map.of(
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_WEBHOOK_URL, "http://url",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_MAX_IN_FLIGHT, "4",
+                        HttpChangeConsumer.PROP_AUTHENTICATION_PREFIX + HttpChangeConsumer.PROP_AUTHENTICATION_TYPE, "oauth2",
+                        HttpChangeConsumer.PROP_AUTHENTICATION_PREFIX + "oauth2.client_id", "test-client",
+                        HttpChangeConsumer.PROP_AUTHENTICATION_PREFIX + "oauth2.client_secret", "test-secret",
+                        HttpChangeConsumer.PROP_AUTHENTICATION_PREFIX + "oauth2.token_url", "http://auth.example.com/token",
+                        "debezium.format.value", "json"),
+                mockHttpClient);
+
+        ChangeEvent<Object, Object> event1 = createChangeEventWithValue("k1", "{\"id\":1}");
+        ChangeEvent<Object, Object> event2 = createChangeEventWithValue("k1", "{\"id\":2}");
+
+        @SuppressWarnings("unchecked")
+        DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        CompletableFuture<Thread> batchThread = new CompletableFuture<>();
+        CompletableFuture<Void> handled = CompletableFuture.runAsync(() -> {
+            batchThread.complete(Thread.currentThread());
+            try {
+                changeConsumer.handleBatch(List.of(event1, event2), committer);
+            }
+            catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // The second event is sent from the thread completing the first one, it must not request a token there
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(mockHttpClient, times(1)).sendAsync(any(), any()));
+        firstResponse.complete(mockResponse);
+        handled.get(5, TimeUnit.SECONDS);
+
+        verify(mockHttpClient, times(2)).sendAsync(any(), any());
+        assertEquals(2, tokenThreads.size());
+        assertTrue(tokenThreads.stream().allMatch(thread -> thread == batchThread.join()));
+        verify(committer, times(1)).markBatchFinished();
+    }
+
+    @Test
+    public void testConcurrentModeFailsBatch() throws Exception {
+        HttpClient mockHttpClient = mock(HttpClient.class);
+        @SuppressWarnings("unchecked")
+        HttpResponse<String> mockResponse = mock(HttpResponse.class);
+        when(mockResponse.statusCode()).thenReturn(500);
+        doReturn(CompletableFuture.completedFuture(mockResponse)).when(mockHttpClient).sendAsync(any(), any());
+
+        HttpChangeConsumer changeConsumer = createTestHttpChangeConsumer(
+                Map.of(
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_WEBHOOK_URL, "http://url",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_MAX_IN_FLIGHT, "4",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_RETRIES, "2",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_RETRY_INTERVAL, "1",
+                        "debezium.format.value", "json"),
+                mockHttpClient);
+
+        @SuppressWarnings("unchecked")
+        DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        DebeziumException e = assertThrows(DebeziumException.class,
+                () -> changeConsumer.handleBatch(List.of(createChangeEventWithValue("k1", "{\"id\":1}")), committer));
+
+        assertTrue(e.getMessage().startsWith("Exceeded maximum number of attempts to publish event"));
+        verify(committer, never()).markProcessed(any());
+        verify(committer, never()).markBatchFinished();
+    }
+
+    @Test
+    public void testConcurrentModeFailureHoldsBackLaterEventsOfSameKey() throws Exception {
+        HttpClient mockHttpClient = mock(HttpClient.class);
+        @SuppressWarnings("unchecked")
+        HttpResponse<String> okResponse = mock(HttpResponse.class);
+        when(okResponse.statusCode()).thenReturn(200);
+        @SuppressWarnings("unchecked")
+        HttpResponse<String> errorResponse = mock(HttpResponse.class);
+        when(errorResponse.statusCode()).thenReturn(500);
+        CompletableFuture<HttpResponse<String>> failingResponse = new CompletableFuture<>();
+        doReturn(CompletableFuture.completedFuture(okResponse), failingResponse, CompletableFuture.completedFuture(okResponse))
+                .when(mockHttpClient).sendAsync(any(), any());
+
+        HttpChangeConsumer changeConsumer = createTestHttpChangeConsumer(
+                Map.of(
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_WEBHOOK_URL, "http://url",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_MAX_IN_FLIGHT, "4",
+                        HttpChangeConsumer.PROP_PREFIX + HttpChangeConsumer.PROP_RETRIES, "1",
+                        "debezium.format.value", "json"),
+                mockHttpClient);
+
+        ChangeEvent<Object, Object> event1 = createChangeEventWithValue("k2", "{\"id\":1}");
+        ChangeEvent<Object, Object> event2 = createChangeEventWithValue("k1", "{\"id\":2}");
+        ChangeEvent<Object, Object> event3 = createChangeEventWithValue("k1", "{\"id\":3}");
+        ChangeEvent<Object, Object> event4 = createChangeEventWithValue("k2", "{\"id\":4}");
+
+        @SuppressWarnings("unchecked")
+        DebeziumEngine.RecordCommitter<ChangeEvent<Object, Object>> committer = mock(DebeziumEngine.RecordCommitter.class);
+        CompletableFuture<Void> handled = CompletableFuture.runAsync(() -> {
+            try {
+                changeConsumer.handleBatch(List.of(event1, event2, event3, event4), committer);
+            }
+            catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // The third event waits for the second one in flight, the fourth one is sent meanwhile
+        Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(mockHttpClient, times(3)).sendAsync(any(), any()));
+
+        failingResponse.complete(errorResponse);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> handled.get(5, TimeUnit.SECONDS));
+
+        assertTrue(e.getCause().getMessage().startsWith("Exceeded maximum number of attempts to publish event"));
+        verify(mockHttpClient, times(3)).sendAsync(any(), any());
+        verify(committer).markProcessed(event1);
+        verify(committer, never()).markProcessed(event2);
+        verify(committer, never()).markProcessed(event3);
+        verify(committer, never()).markProcessed(event4);
+        verify(committer, never()).markBatchFinished();
+    }
+
     private static ChangeEvent<Object, Object> createChangeEventWithValue(String value) {
+        return createChangeEventWithValue("key", value);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static ChangeEvent<Object, Object> createChangeEventWithValue(String key, String value) {
         ChangeEvent<Object, Object> result = mock(ChangeEvent.class);
-        when(result.key()).thenReturn("key");
+        when(result.key()).thenReturn(key);
         when(result.value()).thenReturn(value);
         when(result.destination()).thenReturn("dest");
         when(result.headers()).thenReturn(List.of());
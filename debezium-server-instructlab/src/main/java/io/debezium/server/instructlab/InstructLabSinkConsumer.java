@@ -94,6 +94,12 @@ void configure() {
     void close() {
     }
 
+    @Override
+    public boolean requiresEngineRecords() {
+        // The source record is read from the engine records
+        return true;
+    }
+
     @Override
     public void handleBatch(List<ChangeEvent<Object, Object>> records, RecordCommitter<ChangeEvent<Object, Object>> committer)
             throws InterruptedException {
@@ -0,0 +1,56 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import io.debezium.util.BoundedConcurrentHashMap;
+import io.debezium.util.BoundedConcurrentHashMap.Eviction;
+
+/**
+ * Interns the encoded Kafka headers of change events.
+ * <p>
+ * Headers such as {@code __debezium.context.*} carry the same values for every record, the cache hands out one
+ * shared {@link RecordHeader} per key and value instead of encoding the value for every record. Only values up to
+ * {@value #MAX_VALUE_LENGTH} characters are cached, the least recently used headers are evicted once the cache holds
+ * {@code maxSize} headers so that headers with unique values neither grow it unbounded nor push out the shared ones.
+ */
+class HeaderCache {
+
+    static final int MAX_VALUE_LENGTH = 256;
+
+    private final Map<HeaderKey, Header> headers;
+
+    /**
+     * @param maxSize the maximum number of cached headers, {@code 0} disables the cache
+     */
+    HeaderCache(int maxSize) {
+        this.headers = maxSize > 0 ? new BoundedConcurrentHashMap<>(maxSize, 16, Eviction.LRU) : null;
+    }
+
+    Header get(String key, String value) {
+        if (headers == null || value.length() > MAX_VALUE_LENGTH) {
+            return new RecordHeader(key, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        final HeaderKey headerKey = new HeaderKey(key, value);
+        final Header cached = headers.get(headerKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        final Header header = new RecordHeader(key, value.getBytes(StandardCharsets.UTF_8));
+        headers.put(headerKey, header);
+        return header;
+    }
+
+    private record HeaderKey(String key, String value) {
+    }
+}
@@ -5,13 +5,20 @@
  */
 package io.debezium.server.kafka;
 
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -21,10 +28,12 @@
 import jakarta.inject.Named;
 
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
 import org.eclipse.microprofile.config.Config;
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
@@ -41,6 +50,19 @@
 
 /**
  * An implementation of the {@link DebeziumEngine.ChangeConsumer} interface that publishes change event messages to Kafka.
+ * <p>
+ * With {@code debezium.sink.kafka.exactly.once.enabled} every batch is sent in a Kafka transaction and the source
+ * offsets of the batch are written to the compacted topic {@code debezium.sink.kafka.exactly.once.offset.topic}
+ * within the same transaction by {@link TransactionalOffsetBackingStore}, so a batch is either delivered together
+ * with its offsets or not at all. Consumers must read with {@code isolation.level=read_committed}. The offsets are
+ * committed by the engine only within the batch, so the mode cannot be combined with fan-out to several sinks,
+ * pipelined delivery or spilling to disk.
+ * <p>
+ * Topics can be isolated from each other by dedicated producers. {@code debezium.sink.kafka.producer.groups} lists
+ * the producer groups, each group requires {@code debezium.sink.kafka.producer.group.<group>.destinations}, a regular
+ * expression matched against the topic name, and may override any producer property with
+ * {@code debezium.sink.kafka.producer.group.<group>.<property>}, e.g. {@code buffer.memory} or {@code linger.ms}. A
+ * topic is sent by the producer of the first matching group, topics matching no group by the default producer.
  */
 @Named("kafka")
 @Dependent
@@ -52,38 +74,212 @@ public class KafkaChangeConsumer extends BaseChangeConsumer implements DebeziumE
 
     private static final String PROP_PREFIX_PRODUCER = PROP_PREFIX + "producer.";
 
+    private static final String PRODUCER_GROUPS = "groups";
+    private static final String PRODUCER_GROUP_PREFIX = "group.";
+    private static final String PRODUCER_GROUP_DESTINATIONS = "destinations";
+
+    private static final String PROP_OFFSET_STORAGE = "debezium.source.offset.storage";
+    private static final String PROP_OFFSET_STORAGE_TOPIC = "debezium.source." + TransactionalOffsetBackingStore.PROP_TOPIC;
+    private static final String PROP_OFFSET_FLUSH_INTERVAL = "debezium.source.offset.flush.interval.ms";
+    private static final String PROP_SINK_TYPE = "debezium.sink.type";
+    private static final String PROP_PIPELINE_ENABLED = "debezium.pipeline.enabled";
+    private static final String PROP_SPILL_ENABLED = "debezium.spill.enabled";
+
     @ConfigProperty(name = PROP_PREFIX + "wait.message.delivery.timeout.ms", defaultValue = "30000")
     Integer waitMessageDeliveryTimeout;
 
-    private KafkaProducer<Object, Object> producer;
+    @ConfigProperty(name = PROP_PREFIX + "exactly.once.enabled", defaultValue = "false")
+    boolean exactlyOnce;
+
+    @ConfigProperty(name = PROP_PREFIX + "exactly.once.offset.topic", defaultValue = TransactionalOffsetBackingStore.DEFAULT_TOPIC)
+    String offsetTopic;
+
+    @ConfigProperty(name = PROP_PREFIX + "header.cache.size", defaultValue = "1024")
+    int headerCacheSize;
+
+    private HeaderCache headerCache;
+
+    private Producer<Object, Object> producer;
+    private final List<ProducerGroup> producerGroups = new ArrayList<>();
+    private final Map<String, Producer<Object, Object>> topicProducers = new ConcurrentHashMap<>();
+    private volatile boolean inTransaction;
+    private volatile boolean offsetsWritten;
 
     @Inject
     @CustomConsumerBuilder
-    Instance<KafkaProducer<Object, Object>> customKafkaProducer;
+    Instance<Producer<Object, Object>> customKafkaProducer;
 
     @PostConstruct
     void start() {
+        headerCache = new HeaderCache(headerCacheSize);
+        if (exactlyOnce) {
+            try {
+                validateExactlyOnce(ConfigProvider.getConfig());
+            }
+            catch (DebeziumException e) {
+                // The offset store of the engine waits for the sink, it fails with the same error
+                TransactionalOffsetBackingStore.failed(offsetTopic, e);
+                throw e;
+            }
+        }
         if (customKafkaProducer.isResolvable()) {
             producer = customKafkaProducer.get();
-            LOGGER.info("Obtained custom configured KafkaProducer '{}'", producer);
+            LOGGER.info("Obtained custom configured Producer '{}'", producer);
             return;
         }
 
         final Config config = ConfigProvider.getConfig();
-        producer = new KafkaProducer<>(getConfigSubset(config, PROP_PREFIX_PRODUCER));
+        if (exactlyOnce) {
+            startTransactional(config, producerConfig(config));
+        }
+        else {
+            startProducers(config, KafkaProducer::new);
+        }
         LOGGER.info("consumer started...");
     }
 
+    private Map<String, Object> producerConfig(Config config) {
+        final Map<String, Object> producerConfig = getConfigSubset(config, PROP_PREFIX_PRODUCER);
+        producerConfig.remove(PRODUCER_GROUPS);
+        // The groups are nested under their own prefix so that a group name cannot shadow a producer property
+        producerConfig.keySet().removeIf(name -> name.startsWith(PRODUCER_GROUP_PREFIX));
+        return producerConfig;
+    }
+
+    /**
+     * Starts the default producer and a dedicated producer for each producer group.
+     */
+    void startProducers(Config config, Function<Map<String, Object>, Producer<Object, Object>> producerFactory) {
+        final Map<String, Object> producerConfig = producerConfig(config);
+        producer = producerFactory.apply(producerConfig);
+        for (String group : config.getOptionalValues(PROP_PREFIX_PRODUCER + PRODUCER_GROUPS, String.class).orElse(List.of())) {
+            final String groupPrefix = PROP_PREFIX_PRODUCER + PRODUCER_GROUP_PREFIX + group + ".";
+            final Map<String, Object> groupConfig = new HashMap<>(producerConfig);
+            groupConfig.putAll(getConfigSubset(config, groupPrefix));
+            final Object destinations = groupConfig.remove(PRODUCER_GROUP_DESTINATIONS);
+            if (destinations == null) {
+                throw new DebeziumException("Producer group '" + group + "' requires '" + groupPrefix + PRODUCER_GROUP_DESTINATIONS + "'");
+            }
+            if (groupConfig.containsKey(ProducerConfig.CLIENT_ID_CONFIG)) {
+                groupConfig.put(ProducerConfig.CLIENT_ID_CONFIG, groupConfig.get(ProducerConfig.CLIENT_ID_CONFIG) + "-" + group);
+            }
+            producerGroups.add(new ProducerGroup(group, Pattern.compile(destinations.toString()), producerFactory.apply(groupConfig)));
+            LOGGER.info("Started producer group '{}' for topics matching '{}'", group, destinations);
+        }
+    }
+
+    Producer<Object, Object> producerFor(String topicName) {
+        if (producerGroups.isEmpty()) {
+            return producer;
+        }
+        return topicProducers.computeIfAbsent(topicName, topic -> producerGroups.stream()
+                .filter(group -> group.destinations().matcher(topic).matches())
+                .findFirst()
+                .map(ProducerGroup::producer)
+                .orElse(producer));
+    }
+
+    /**
+     * Rejects the configurations the exactly-once mode does not support. The offsets of a batch must be committed
+     * by the engine while the sink is still handling it, within the transaction of the batch.
+     */
+    private void validateExactlyOnce(Config config) {
+        final String offsetStorage = config.getOptionalValue(PROP_OFFSET_STORAGE, String.class).orElse(null);
+        if (!TransactionalOffsetBackingStore.class.getName().equals(offsetStorage)) {
+            throw new DebeziumException("Exactly-once delivery requires '" + PROP_OFFSET_STORAGE + "' to be set to '"
+                    + TransactionalOffsetBackingStore.class.getName() + "'");
+        }
+        final String storeTopic = config.getOptionalValue(PROP_OFFSET_STORAGE_TOPIC, String.class).orElse(TransactionalOffsetBackingStore.DEFAULT_TOPIC);
+        if (!offsetTopic.equals(storeTopic)) {
+            throw new DebeziumException("Exactly-once delivery requires '" + PROP_OFFSET_STORAGE_TOPIC + "' to be set to the offset topic '"
+                    + offsetTopic + "' of the sink but was '" + storeTopic + "'");
+        }
+        if (config.getOptionalValue(PROP_OFFSET_FLUSH_INTERVAL, Long.class).orElse(-1L) != 0) {
+            throw new DebeziumException("Exactly-once delivery requires '" + PROP_OFFSET_FLUSH_INTERVAL
+                    + "' to be set to 0 so the offsets are written with every batch");
+        }
+        if (customKafkaProducer.isResolvable()) {
+            throw new DebeziumException("Exactly-once delivery is not supported with a custom producer");
+        }
+        if (config.getOptionalValues(PROP_PREFIX_PRODUCER + PRODUCER_GROUPS, String.class).isPresent()) {
+            throw new DebeziumException("Exactly-once delivery is not supported with producer groups");
+        }
+        if (config.getValue(PROP_SINK_TYPE, String.class).contains(",")) {
+            throw new DebeziumException("Exactly-once delivery is not supported with fan-out to several sinks in '" + PROP_SINK_TYPE + "'");
+        }
+        if (config.getOptionalValue(PROP_PIPELINE_ENABLED, Boolean.class).orElse(false)) {
+            throw new DebeziumException("Exactly-once delivery is not supported with pipelined delivery enabled by '" + PROP_PIPELINE_ENABLED + "'");
+        }
+        if (config.getOptionalValue(PROP_SPILL_ENABLED, Boolean.class).orElse(false)) {
+            throw new DebeziumException("Exactly-once delivery is not supported with spilling to disk enabled by '" + PROP_SPILL_ENABLED + "'");
+        }
+    }
+
+    private void startTransactional(Config config, Map<String, Object> producerConfig) {
+        producerConfig.putIfAbsent(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "debezium-server-" + offsetTopic);
+        producer = new KafkaProducer<>(producerConfig,
+                offsetTopicSerializer(producerConfig, ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, true),
+                offsetTopicSerializer(producerConfig, ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, false));
+        producer.initTransactions();
+        TransactionalOffsetBackingStore.register(new TransactionalOffsetBackingStore.OffsetTopic(offsetTopic, producerConfig, this::writeOffsets));
+        LOGGER.info("Exactly-once delivery enabled with transactional id '{}', offsets are stored in topic '{}'",
+                producerConfig.get(ProducerConfig.TRANSACTIONAL_ID_CONFIG), offsetTopic);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Serializer<Object> offsetTopicSerializer(Map<String, Object> producerConfig, String property, boolean isKey) {
+        final Serializer<Object> delegate = new ProducerConfig(producerConfig).getConfiguredInstance(property, Serializer.class);
+        delegate.configure(producerConfig, isKey);
+        return new OffsetTopicSerializer(offsetTopic, delegate);
+    }
+
+    /**
+     * Writes the offsets flushed by the engine, within the transaction of the current batch if there is one.
+     */
+    private void writeOffsets(Map<ByteBuffer, ByteBuffer> offsets) {
+        final boolean standalone = !inTransaction;
+        if (standalone) {
+            producer.beginTransaction();
+        }
+        try {
+            for (Map.Entry<ByteBuffer, ByteBuffer> offset : offsets.entrySet()) {
+                producer.send(new ProducerRecord<>(offsetTopic, toArray(offset.getKey()), toArray(offset.getValue())));
+            }
+            if (standalone) {
+                producer.commitTransaction();
+            }
+            else {
+                offsetsWritten = true;
+            }
+        }
+        catch (RuntimeException e) {
+            if (standalone) {
+                abortTransaction();
+            }
+            throw e;
+        }
+    }
+
     @PreDestroy
     void stop() {
         LOGGER.info("consumer destroyed...");
+        if (exactlyOnce) {
+            TransactionalOffsetBackingStore.unregister(offsetTopic);
+        }
+        for (ProducerGroup group : producerGroups) {
+            closeProducer(group.producer());
+        }
         if (producer != null) {
-            try {
-                producer.close(Duration.ofSeconds(5));
-            }
-            catch (Throwable t) {
-                LOGGER.warn("Could not close producer", t);
-            }
+            closeProducer(producer);
+        }
+    }
+
+    private static void closeProducer(Producer<Object, Object> producer) {
+        try {
+            producer.close(Duration.ofSeconds(5));
+        }
+        catch (Throwable t) {
+            LOGGER.warn("Could not close producer", t);
         }
     }
 
@@ -91,8 +287,33 @@ void stop() {
     public void handleBatch(final List<ChangeEvent<Object, Object>> records,
                             final RecordCommitter<ChangeEvent<Object, Object>> committer)
             throws InterruptedException {
+        if (!exactlyOnce) {
+            deliver(records, committer);
+            return;
+        }
+
+        producer.beginTransaction();
+        offsetsWritten = false;
+        inTransaction = true;
+        try {
+            deliver(records, committer);
+            if (!records.isEmpty() && !offsetsWritten) {
+                throw new DebeziumException("Offsets of the batch were not written within its transaction");
+            }
+            producer.commitTransaction();
+        }
+        catch (RuntimeException | InterruptedException e) {
+            abortTransaction();
+            throw e;
+        }
+        finally {
+            inTransaction = false;
+        }
+    }
 
-        final List<Future<RecordMetadata>> deliveryFutures = new ArrayList<>(records.size());
+    private void deliver(List<ChangeEvent<Object, Object>> records, RecordCommitter<ChangeEvent<Object, Object>> committer)
+            throws InterruptedException {
+        final DeliveryTracker tracker = new DeliveryTracker(records.size());
 
         for (ChangeEvent<Object, Object> record : records) {
             try {
@@ -100,56 +321,142 @@ public void handleBatch(final List<ChangeEvent<Object, Object>> records,
                 Headers headers = convertKafkaHeaders(record);
 
                 String topicName = streamNameMapper.map(record.destination());
-                deliveryFutures.add(producer.send(new ProducerRecord<>(topicName, null, null, record.key(), record.value(), headers),
+                producerFor(topicName).send(new ProducerRecord<>(topicName, null, null, record.key(), record.value(), headers),
                         (metadata, exception) -> {
                             if (exception != null) {
                                 LOGGER.error("Failed to send record with key '{}' to {}:", asString(record.key()), topicName,
                                         exception);
-                                throw new DebeziumException(exception);
+                                tracker.failed(exception);
                             }
                             else {
                                 LOGGER.trace("Sent message with offset: {}", metadata.offset());
+                                tracker.delivered();
                             }
-                        }));
+                        });
             }
             catch (Exception e) {
                 throw new DebeziumException(e);
             }
         }
 
-        try {
-            for (int i = 0; i < records.size(); i++) {
-                final var recordMetadataFuture = deliveryFutures.get(i);
-                final var record = records.get(i);
+        tracker.await(waitMessageDeliveryTimeout);
+        for (ChangeEvent<Object, Object> record : records) {
+            committer.markProcessed(record);
+        }
+        committer.markBatchFinished();
+    }
+
+    private record ProducerGroup(String name, Pattern destinations, Producer<Object, Object> producer) {
+    }
+
+    /**
+     * Tracks the delivery of a batch from the producer callbacks, completes once all records were acknowledged or
+     * with the first failure.
+     */
+    private static final class DeliveryTracker {
+
+        private final int records;
+        private final AtomicInteger pending;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        DeliveryTracker(int records) {
+            this.records = records;
+            this.pending = new AtomicInteger(records);
+            if (records == 0) {
+                completion.complete(null);
+            }
+        }
+
+        void delivered() {
+            if (pending.decrementAndGet() == 0) {
+                completion.complete(null);
+            }
+        }
 
-                if (waitMessageDeliveryTimeout == 0) {
-                    recordMetadataFuture.get();
+        void failed(Exception exception) {
+            completion.completeExceptionally(exception);
+        }
+
+        /**
+         * Waits for the whole batch to be delivered, {@code timeoutMs} of {@code 0} waits indefinitely.
+         */
+        void await(long timeoutMs) throws InterruptedException {
+            try {
+                if (timeoutMs == 0) {
+                    completion.get();
                 }
                 else {
-                    try {
-                        recordMetadataFuture.get(waitMessageDeliveryTimeout, TimeUnit.MILLISECONDS);
-                    }
-                    catch (TimeoutException e) {
-                        LOGGER.error("Timed out while waiting to send a record to '{}'", streamNameMapper.map(record.destination()));
-                        throw new DebeziumException(e);
-                    }
-
+                    completion.get(timeoutMs, TimeUnit.MILLISECONDS);
                 }
-                committer.markProcessed(record);
+            }
+            catch (ExecutionException e) {
+                throw new DebeziumException(e.getCause());
+            }
+            catch (TimeoutException e) {
+                LOGGER.error("Timed out while waiting for {} of {} records to be sent", pending.get(), records);
+                throw new DebeziumException(e);
             }
         }
-        catch (ExecutionException e) {
-            throw new DebeziumException(e);
+    }
+
+    private void abortTransaction() {
+        try {
+            producer.abortTransaction();
+        }
+        catch (RuntimeException e) {
+            // A fenced producer cannot abort, the transaction is aborted by the broker on timeout
+            LOGGER.warn("Could not abort transaction", e);
         }
+    }
 
-        committer.markBatchFinished();
+    private static byte[] toArray(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Passes the already serialized offsets through and delegates to the configured serializer for change events.
+     */
+    private static final class OffsetTopicSerializer implements Serializer<Object> {
+
+        private final String offsetTopic;
+        private final Serializer<Object> delegate;
+
+        OffsetTopicSerializer(String offsetTopic, Serializer<Object> delegate) {
+            this.offsetTopic = offsetTopic;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public byte[] serialize(String topic, Object data) {
+            return offsetTopic.equals(topic) ? (byte[]) data : delegate.serialize(topic, data);
+        }
+
+        @Override
+        public byte[] serialize(String topic, Headers headers, Object data) {
+            return offsetTopic.equals(topic) ? (byte[]) data : delegate.serialize(topic, headers, data);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
     }
 
     private Headers convertKafkaHeaders(ChangeEvent<Object, Object> record) {
         List<Header<Object>> headers = record.headers();
         Headers kafkaHeaders = new RecordHeaders();
         for (Header<Object> header : headers) {
-            kafkaHeaders.add(header.getKey(), getBytes(header.getValue()));
+            if (header.getValue() instanceof String value) {
+                kafkaHeaders.add(headerCache.get(header.getKey(), value));
+            }
+            else {
+                kafkaHeaders.add(header.getKey(), getBytes(header.getValue()));
+            }
         }
         return kafkaHeaders;
     }
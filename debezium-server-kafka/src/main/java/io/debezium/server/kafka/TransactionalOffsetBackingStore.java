@@ -0,0 +1,202 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kafka;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.connect.runtime.WorkerConfig;
+import org.apache.kafka.connect.storage.MemoryOffsetBackingStore;
+import org.apache.kafka.connect.util.Callback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.debezium.DebeziumException;
+
+/**
+ * Offset store of the exactly-once mode of {@link KafkaChangeConsumer}.
+ * <p>
+ * The offsets are written by the Kafka sink within the transaction of the batch they belong to, the store itself
+ * only keeps them in memory and loads the committed ones from the compacted offset topic on start. The store
+ * is configured by the sink, it is enabled with {@code debezium.source.offset.storage} set to this class together
+ * with {@code debezium.sink.kafka.exactly.once.enabled=true}. The store is paired with the sink by the offset topic,
+ * {@code debezium.source.offset.storage.topic} must name the offset topic of the sink.
+ */
+public class TransactionalOffsetBackingStore extends MemoryOffsetBackingStore {
+
+    public static final String PROP_TOPIC = "offset.storage.topic";
+    public static final String DEFAULT_TOPIC = "debezium-server-offsets";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionalOffsetBackingStore.class);
+
+    private static final Duration REGISTRATION_TIMEOUT = Duration.ofMinutes(1);
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    /**
+     * The offset topic as registered by the sink, the client configuration is the one of the sink producer.
+     */
+    record OffsetTopic(String name, Map<String, Object> clientConfig, Consumer<Map<ByteBuffer, ByteBuffer>> writer) {
+    }
+
+    /**
+     * The registrations of the sinks keyed by the offset topic, the sink and the engine can be started in parallel
+     * so the store waits for the sink writing to its topic.
+     */
+    private static final Map<String, CompletableFuture<OffsetTopic>> REGISTRATIONS = new ConcurrentHashMap<>();
+
+    private String topicName = DEFAULT_TOPIC;
+    private OffsetTopic topic;
+
+    static void register(OffsetTopic topic) {
+        if (!registration(topic.name()).complete(topic)) {
+            throw new DebeziumException("Offset topic '" + topic.name() + "' is already used by another Kafka sink with exactly-once delivery");
+        }
+    }
+
+    /**
+     * Fails the store waiting for the sink with the error the sink failed to start with.
+     */
+    static void failed(String topicName, Throwable cause) {
+        registration(topicName).completeExceptionally(cause);
+    }
+
+    static void unregister(String topicName) {
+        REGISTRATIONS.remove(topicName);
+    }
+
+    private static CompletableFuture<OffsetTopic> registration(String topicName) {
+        return REGISTRATIONS.computeIfAbsent(topicName, name -> new CompletableFuture<>());
+    }
+
+    @Override
+    public void configure(WorkerConfig config) {
+        super.configure(config);
+        final String configuredTopic = config.originalsStrings().get(PROP_TOPIC);
+        if (configuredTopic != null && !configuredTopic.isBlank()) {
+            topicName = configuredTopic;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        super.start();
+        try {
+            topic = registration(topicName).get(REGISTRATION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DebeziumException("Interrupted while waiting for the Kafka sink", e);
+        }
+        catch (ExecutionException e) {
+            throw new DebeziumException("Kafka sink with exactly-once delivery failed to start", e.getCause());
+        }
+        catch (TimeoutException e) {
+            throw new DebeziumException("Kafka sink with exactly-once delivery for offset topic '" + topicName + "' was not started within "
+                    + REGISTRATION_TIMEOUT, e);
+        }
+        createTopicIfMissing();
+        load();
+    }
+
+    @Override
+    public Future<Void> set(Map<ByteBuffer, ByteBuffer> values, Callback<Void> callback) {
+        try {
+            topic.writer().accept(values);
+        }
+        catch (RuntimeException e) {
+            LOGGER.error("Failed to write offsets to topic '{}'", topic.name(), e);
+            if (callback != null) {
+                callback.onCompletion(e, null);
+            }
+            return CompletableFuture.failedFuture(e);
+        }
+        return super.set(values, callback);
+    }
+
+    private void createTopicIfMissing() {
+        try (Admin admin = Admin.create(clientConfig(AdminClientConfig.configNames()))) {
+            if (!admin.listTopics().names().get().contains(topic.name())) {
+                LOGGER.info("Creating offset topic '{}'", topic.name());
+                admin.createTopics(List.of(new NewTopic(topic.name(), Optional.of(1), Optional.empty())
+                        .configs(Map.of(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT))))
+                        .all()
+                        .get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DebeziumException("Interrupted while creating offset topic '" + topic.name() + "'", e);
+        }
+        catch (ExecutionException e) {
+            if (!(e.getCause() instanceof TopicExistsException)) {
+                throw new DebeziumException("Failed to create offset topic '" + topic.name() + "'", e.getCause());
+            }
+        }
+    }
+
+    private void load() {
+        final Map<String, Object> consumerConfig = clientConfig(ConsumerConfig.configNames());
+        consumerConfig.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        consumerConfig.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerConfig, new ByteArrayDeserializer(), new ByteArrayDeserializer())) {
+            final List<TopicPartition> partitions = consumer.partitionsFor(topic.name()).stream()
+                    .map(p -> new TopicPartition(p.topic(), p.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            // With read_committed the end offsets are the last stable offsets, open transactions are not waited for
+            final Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            while (partitions.stream().anyMatch(p -> consumer.position(p) < endOffsets.get(p))) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    final ByteBuffer key = record.key() == null ? null : ByteBuffer.wrap(record.key());
+                    if (record.value() == null) {
+                        data.remove(key);
+                    }
+                    else {
+                        data.put(key, ByteBuffer.wrap(record.value()));
+                    }
+                }
+            }
+        }
+        LOGGER.info("Loaded {} offsets from topic '{}'", data.size(), topic.name());
+    }
+
+    private Map<String, Object> clientConfig(Set<String> configNames) {
+        final Map<String, Object> config = new HashMap<>();
+        topic.clientConfig().forEach((name, value) -> {
+            if (configNames.contains(name)) {
+                config.put(name, value);
+            }
+        });
+        // The client id identifies the producer, the store clients must not clash with it
+        config.remove(CommonClientConfigs.CLIENT_ID_CONFIG);
+        return config;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kafka;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+public class ExactlyOnceProfile implements QuarkusTestProfile {
+
+    public static final String OFFSET_TOPIC = "exactly-once-offsets";
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> config = new HashMap<String, String>();
+
+        config.put("debezium.sink.kafka.exactly.once.enabled", "true");
+        config.put("debezium.sink.kafka.exactly.once.offset.topic", OFFSET_TOPIC);
+        config.put("debezium.source.offset.storage", TransactionalOffsetBackingStore.class.getName());
+        config.put("debezium.source.offset.storage.topic", OFFSET_TOPIC);
+
+        return config;
+    }
+}
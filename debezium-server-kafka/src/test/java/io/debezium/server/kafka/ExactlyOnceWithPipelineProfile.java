@@ -0,0 +1,22 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kafka;
+
+import java.util.Map;
+
+public class ExactlyOnceWithPipelineProfile extends ExactlyOnceProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> config = super.getConfigOverrides();
+
+        config.put("debezium.pipeline.enabled", "true");
+        // The sink is started in the background so its failure is reported by the engine instead of failing the startup
+        config.put("debezium.bootstrap.parallel.enabled", "true");
+
+        return config;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.Test;
+
+public class HeaderCacheTest {
+
+    @Test
+    public void shouldShareHeadersWithSameKeyAndValue() {
+        final HeaderCache cache = new HeaderCache(16);
+
+        final Header header = cache.get("__debezium.context.taskId", "0");
+
+        assertThat(header.key()).isEqualTo("__debezium.context.taskId");
+        assertThat(header.value()).isEqualTo("0".getBytes(StandardCharsets.UTF_8));
+        assertThat(cache.get("__debezium.context.taskId", "0")).isSameAs(header);
+        assertThat(cache.get("__debezium.context.taskId", "1")).isNotSameAs(header);
+        assertThat(cache.get("other", "0")).isNotSameAs(header);
+    }
+
+    @Test
+    public void shouldNotCacheWhenDisabledOrValueTooLong() {
+        final String longValue = "x".repeat(HeaderCache.MAX_VALUE_LENGTH + 1);
+        final HeaderCache cache = new HeaderCache(16);
+        final HeaderCache disabled = new HeaderCache(0);
+
+        assertThat(cache.get("k", longValue)).isNotSameAs(cache.get("k", longValue));
+        assertThat(disabled.get("k", "v")).isNotSameAs(disabled.get("k", "v"));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedHeaderWhenFull() {
+        final HeaderCache cache = new HeaderCache(2);
+
+        final Header first = cache.get("k", "1");
+        final Header second = cache.get("k", "2");
+        assertThat(cache.get("k", "1")).isSameAs(first);
+        final Header third = cache.get("k", "3");
+
+        assertThat(cache.get("k", "1")).isSameAs(first);
+        assertThat(cache.get("k", "3")).isSameAs(third);
+        assertThat(cache.get("k", "2")).isNotSameAs(second);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import io.debezium.testing.testcontainers.PostgresTestResourceLifecycleManager;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Integration test verifying that the Kafka sink in exactly-once mode delivers change events in committed
+ * transactions together with their offsets.
+ */
+@QuarkusTest
+@QuarkusTestResource(PostgresTestResourceLifecycleManager.class)
+@QuarkusTestResource(KafkaTestResourceLifecycleManager.class)
+@TestProfile(ExactlyOnceProfile.class)
+public class KafkaExactlyOnceIT extends KafkaBaseIT {
+
+    @Test
+    public void testKafkaExactlyOnce() {
+        testKafka();
+
+        final Map<String, Object> configs = Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, KafkaTestResourceLifecycleManager.getBootstrapServers(),
+                ConsumerConfig.GROUP_ID_CONFIG, "test-" + UUID.randomUUID(),
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        try (KafkaConsumer<String, String> offsetConsumer = new KafkaConsumer<>(configs, new StringDeserializer(), new StringDeserializer())) {
+            offsetConsumer.subscribe(List.of(ExactlyOnceProfile.OFFSET_TOPIC));
+            final List<ConsumerRecord<String, String>> offsets = new ArrayList<>();
+            Awaitility.await()
+                    .atMost(Duration.ofSeconds(KafkaTestConfigSource.waitForSeconds()))
+                    .until(() -> {
+                        offsetConsumer.poll(Duration.ofSeconds(1)).iterator().forEachRemaining(offsets::add);
+                        return !offsets.isEmpty();
+                    });
+            assertThat(offsets.get(0).key()).contains("testc");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.enterprise.event.Observes;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import io.debezium.server.events.ConnectorCompletedEvent;
+import io.debezium.testing.testcontainers.PostgresTestResourceLifecycleManager;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Integration test verifying that the exactly-once mode of the Kafka sink is rejected together with pipelined
+ * delivery and that the engine waiting for the sink in the offset store fails with the same error.
+ */
+@QuarkusTest
+@QuarkusTestResource(PostgresTestResourceLifecycleManager.class)
+@QuarkusTestResource(KafkaTestResourceLifecycleManager.class)
+@TestProfile(ExactlyOnceWithPipelineProfile.class)
+public class KafkaExactlyOnceRejectionIT {
+
+    private static final AtomicReference<ConnectorCompletedEvent> completed = new AtomicReference<>();
+
+    void connectorCompleted(@Observes final ConnectorCompletedEvent event) {
+        completed.set(event);
+    }
+
+    @Test
+    public void testExactlyOnceWithPipelineIsRejected() {
+        Awaitility.await()
+                .atMost(Duration.ofSeconds(KafkaTestConfigSource.waitForSeconds()))
+                .until(() -> completed.get() != null);
+
+        final ConnectorCompletedEvent event = completed.get();
+        assertThat(event.isSuccess()).isFalse();
+        assertThat(event.getError()).isPresent();
+        Throwable error = event.getError().get();
+        while (error.getCause() != null && !String.valueOf(error.getMessage()).contains("debezium.pipeline.enabled")) {
+            error = error.getCause();
+        }
+        assertThat(error).hasMessageContaining("Exactly-once delivery is not supported with pipelined delivery");
+    }
+}
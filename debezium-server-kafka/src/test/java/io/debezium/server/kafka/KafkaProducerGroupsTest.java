@@ -0,0 +1,97 @@
+/*
+ * Copyright Debezium Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.debezium.server.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.eclipse.microprofile.config.Config;
+import org.junit.jupiter.api.Test;
+
+import io.debezium.DebeziumException;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+public class KafkaProducerGroupsTest {
+
+    private static final String PREFIX = "debezium.sink.kafka.producer.";
+
+    private final List<Map<String, Object>> producerConfigs = new ArrayList<>();
+    private final List<Producer<Object, Object>> producers = new ArrayList<>();
+
+    @Test
+    public void shouldRouteTopicsToFirstMatchingGroup() {
+        final KafkaChangeConsumer consumer = new KafkaChangeConsumer();
+        consumer.startProducers(config(Map.of(
+                PREFIX + "bootstrap.servers", "localhost:9092",
+                PREFIX + "groups", "audit,bulk",
+                PREFIX + "group.audit.destinations", "audit\\..*",
+                PREFIX + "group.bulk.destinations", "(audit|bulk)\\..*")), this::producer);
+
+        assertThat(producers).hasSize(3);
+        assertThat(consumer.producerFor("audit.logins")).isSameAs(producers.get(1));
+        assertThat(consumer.producerFor("bulk.orders")).isSameAs(producers.get(2));
+        assertThat(consumer.producerFor("inventory.customers")).isSameAs(producers.get(0));
+        assertThat(consumer.producerFor("audit.logins")).isSameAs(producers.get(1));
+    }
+
+    @Test
+    public void shouldApplyGroupOverridesOnTopOfDefaultProducerConfig() {
+        final KafkaChangeConsumer consumer = new KafkaChangeConsumer();
+        // A group named like a producer property must not drop the property from the default producer
+        consumer.startProducers(config(Map.of(
+                PREFIX + "bootstrap.servers", "localhost:9092",
+                PREFIX + "client.id", "dbz",
+                PREFIX + "linger.ms", "5",
+                PREFIX + "batch.size", "32768",
+                PREFIX + "groups", "batch",
+                PREFIX + "group.batch.destinations", "bulk\\..*",
+                PREFIX + "group.batch.linger.ms", "100")), this::producer);
+
+        final Map<String, Object> defaults = new HashMap<>(Map.of(
+                "bootstrap.servers", "localhost:9092",
+                "client.id", "dbz",
+                "linger.ms", "5",
+                "batch.size", "32768"));
+        assertThat(producerConfigs.get(0)).isEqualTo(defaults);
+
+        defaults.put("client.id", "dbz-batch");
+        defaults.put("linger.ms", "100");
+        assertThat(producerConfigs.get(1)).isEqualTo(defaults);
+    }
+
+    @Test
+    public void shouldRequireDestinationsOfGroup() {
+        final KafkaChangeConsumer consumer = new KafkaChangeConsumer();
+
+        assertThatThrownBy(() -> consumer.startProducers(config(Map.of(
+                PREFIX + "bootstrap.servers", "localhost:9092",
+                PREFIX + "groups", "audit")), this::producer))
+                .isInstanceOf(DebeziumException.class)
+                .hasMessageContaining(PREFIX + "group.audit.destinations");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Producer<Object, Object> producer(Map<String, Object> producerConfig) {
+        final Producer<Object, Object> producer = mock(Producer.class);
+        producerConfigs.add(producerConfig);
+        producers.add(producer);
+        return producer;
+    }
+
+    private static Config config(Map<String, String> properties) {
+        return new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(properties, "test.properties"))
+                .build();
+    }
+}
@@ -32,8 +32,9 @@
 import io.debezium.engine.DebeziumEngine.RecordCommitter;
 import io.debezium.server.BaseChangeConsumer;
 import io.debezium.server.CustomConsumerBuilder;
-import io.debezium.util.Clock;
-import io.debezium.util.Metronome;
+import io.debezium.server.util.AdaptiveBatchSizer;
+import io.debezium.server.util.RateLimiter;
+import io.debezium.server.util.RetryExecutor;
 
 import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
 import software.amazon.awssdk.core.SdkBytes;
@@ -73,7 +74,10 @@ public class KinesisChangeConsumer extends BaseChangeConsumer implements Debeziu
     private Optional<String> endpointOverride;
     private Optional<String> credentialsProfile;
     private Integer batchSize;
+    private AdaptiveBatchSizer batchSizer;
     private Integer maxRetries;
+    private RetryExecutor retryExecutor;
+    private RateLimiter rateLimiter;
 
     @ConfigProperty(name = PROP_PREFIX + "null.key", defaultValue = "default")
     String nullKey;
@@ -96,6 +100,9 @@ void connect() {
         else if (batchSize > MAX_BATCH_SIZE) {
             throw new DebeziumException("Batch size must be less than or equal to MAX_BATCH_SIZE");
         }
+        batchSizer = AdaptiveBatchSizer.fromConfig(config, PROP_PREFIX, batchSize, MAX_BATCH_SIZE);
+        retryExecutor = RetryExecutor.fromConfig(config, PROP_PREFIX, maxRetries, RETRY_INTERVAL.toMillis()).onRetry(this::countRetry);
+        rateLimiter = RateLimiter.fromConfig(config, PROP_PREFIX);
 
         if (customClient.isResolvable()) {
             client = customClient.get();
@@ -145,10 +152,12 @@ public void handleBatch(List<ChangeEvent<Object, Object>> records, RecordCommitt
         for (List<ChangeEvent<Object, Object>> segmentedBatch : segmentedBatches.values()) {
             // Iterate over the batch
 
-            for (int i = 0; i < segmentedBatch.size(); i += batchSize) {
+            int size;
+            for (int i = 0; i < segmentedBatch.size(); i += size) {
 
-                // Create a sublist of the batch given the batchSize
-                batch = segmentedBatch.subList(i, Math.min(i + batchSize, segmentedBatch.size()));
+                // Create a sublist of the batch given the current batch size
+                size = batchSizer.size();
+                batch = segmentedBatch.subList(i, Math.min(i + size, segmentedBatch.size()));
                 List<PutRecordsRequestEntry> putRecordsRequestEntryList = new ArrayList<>();
                 streamName = batch.get(0).destination();
 
@@ -164,47 +173,43 @@ public void handleBatch(List<ChangeEvent<Object, Object>> records, RecordCommitt
                     putRecordsRequestEntryList.add(putRecordsRequestEntry);
                 }
 
-                // Handle Error
-                boolean notSuccesful = true;
-                int attempts = 0;
-                List<PutRecordsRequestEntry> batchRequest = putRecordsRequestEntryList;
-
-                while (notSuccesful) {
-
-                    if (attempts >= maxRetries) {
-                        throw new DebeziumException("Exceeded maximum number of attempts to publish event");
-                    }
-
-                    try {
-                        PutRecordsResponse response = recordsSent(batchRequest, streamName);
-                        attempts++;
-                        if (response.failedRecordCount() > 0) {
-                            LOGGER.warn("Failed to send {} number of records, retrying", response.failedRecordCount());
-                            Metronome.sleeper(RETRY_INTERVAL, Clock.SYSTEM).pause();
-
-                            final List<PutRecordsResultEntry> putRecordsResults = response.records();
-                            List<PutRecordsRequestEntry> failedRecordsList = new ArrayList<>();
-
-                            for (int index = 0; index < putRecordsResults.size(); index++) {
-                                PutRecordsResultEntry entryResult = putRecordsResults.get(index);
-                                if (entryResult.errorCode() != null) {
-                                    failedRecordsList.add(batchRequest.get(index));
+                rateLimiter.acquire(batch);
+
+                // Only the records the stream rejected are sent again
+                final String stream = streamName;
+                final List<PutRecordsRequestEntry> pending = putRecordsRequestEntryList;
+                try {
+                    retryExecutor.executeWithRetry(() -> {
+                        final long start = System.nanoTime();
+                        try {
+                            final PutRecordsResponse response = recordsSent(pending, stream);
+                            if (response.failedRecordCount() > 0) {
+                                LOGGER.warn("Failed to send {} number of records, retrying", response.failedRecordCount());
+                                final List<PutRecordsResultEntry> putRecordsResults = response.records();
+                                final List<PutRecordsRequestEntry> failedRecordsList = new ArrayList<>();
+                                for (int index = 0; index < putRecordsResults.size(); index++) {
+                                    if (putRecordsResults.get(index).errorCode() != null) {
+                                        failedRecordsList.add(pending.get(index));
+                                    }
                                 }
+                                pending.clear();
+                                pending.addAll(failedRecordsList);
+                                throw new FailedRecordsException(response.failedRecordCount());
                             }
-                            batchRequest = failedRecordsList;
-
                         }
-                        else {
-                            notSuccesful = false;
-                            attempts = 0;
+                        catch (KinesisException | FailedRecordsException e) {
+                            batchSizer.onFailure();
+                            throw e;
                         }
-
-                    }
-                    catch (KinesisException exception) {
-                        LOGGER.warn("Failed to send record to {}", streamName, exception);
-                        attempts++;
-                        Metronome.sleeper(RETRY_INTERVAL, Clock.SYSTEM).pause();
+                        batchSizer.onSuccess(System.nanoTime() - start);
+                    }, KinesisChangeConsumer::isRetryable, "Kinesis publish to " + stream);
+                }
+                catch (DebeziumException e) {
+                    // Only a failure that was retried until the attempts ran out is reported as such
+                    if (e.getCause() instanceof Exception cause && isRetryable(cause)) {
+                        throw new DebeziumException("Exceeded maximum number of attempts to publish event", e);
                     }
+                    throw e;
                 }
 
                 for (ChangeEvent<Object, Object> record : batch) {
@@ -217,6 +222,10 @@ public void handleBatch(List<ChangeEvent<Object, Object>> records, RecordCommitt
         committer.markBatchFinished();
     }
 
+    private static boolean isRetryable(Exception e) {
+        return e instanceof KinesisException || e instanceof FailedRecordsException;
+    }
+
     private PutRecordsResponse recordsSent(List<PutRecordsRequestEntry> putRecordsRequestEntryList, String streamName) {
 
         // Create a PutRecordsRequest
@@ -227,4 +236,16 @@ private PutRecordsResponse recordsSent(List<PutRecordsRequestEntry> putRecordsRe
         LOGGER.trace("Response Receieved: " + putRecordsResponse);
         return putRecordsResponse;
     }
+
+    /**
+     * Signals that the stream rejected some of the records of a request.
+     */
+    private static class FailedRecordsException extends DebeziumException {
+
+        private static final long serialVersionUID = 1L;
+
+        FailedRecordsException(int failedRecordCount) {
+            super("Stream rejected " + failedRecordCount + " record(s)");
+        }
+    }
 }
@@ -82,8 +82,8 @@ void connect() {
                     .uri(uri)
                     .build();
             milvusClient = new MilvusClientV2(config);
-            schema = new MilvusSchema(milvusClient);
         }
+        schema = new MilvusSchema(milvusClient);
 
         final var databases = milvusClient.listDatabases().getDatabaseNames();
         if (!databases.contains(databaseName)) {
@@ -101,6 +101,12 @@ void close() {
         }
     }
 
+    @Override
+    public boolean requiresEngineRecords() {
+        // The source record is read from the engine records
+        return true;
+    }
+
     @Override
     public void handleBatch(List<ChangeEvent<Object, Object>> records, RecordCommitter<ChangeEvent<Object, Object>> committer)
             throws InterruptedException {
@@ -145,9 +145,11 @@ public class NatsJetStreamChangeConsumer extends BaseChangeConsumer
 
     @PostConstruct
     void connect() {
-        // Read config
-        final Config config = ConfigProvider.getConfig();
-        String url = config.getValue(PROP_URL, String.class);
+        this.retryExecutor = new RetryExecutor(
+                syncMaxRetryAttempts,
+                syncRetryIntervalMs,
+                syncRetryMaxIntervalMs,
+                syncRetryBackoffMultiplier).onRetry(this::countRetry);
 
         if (customStreamingConnection.isResolvable()) {
             js = customStreamingConnection.get();
@@ -155,6 +157,10 @@ void connect() {
             return;
         }
 
+        // Read config
+        final Config config = ConfigProvider.getConfig();
+        String url = config.getValue(PROP_URL, String.class);
+
         try {
             // Setup NATS connection
             Options.Builder natsOptionsBuilder = new io.nats.client.Options.Builder()
@@ -207,12 +213,6 @@ else if (tlsKeyStore.isPresent() && tlsKeyStorePassword.isPresent() && tlsPasswo
         else {
             LOGGER.info("Synchronous publishing mode enabled");
         }
-
-        this.retryExecutor = new RetryExecutor(
-                syncMaxRetryAttempts,
-                syncRetryIntervalMs,
-                syncRetryMaxIntervalMs,
-                syncRetryBackoffMultiplier);
     }
 
     @PreDestroy
@@ -249,15 +249,12 @@ private void handleBatchSync(List<ChangeEvent<Object, Object>> records,
                 LOGGER.trace("Received event @ {} = '{}'", subject, rec.value());
                 byte[] recordBytes = getBytes(rec.value());
 
-                final var headers = convertHeaders(rec);
                 final var natsHeaders = new Headers();
-                if (!headers.isEmpty()) {
-                    headers.forEach((key, value) -> {
-                        if (value != null) {
-                            natsHeaders.add(key, value);
-                        }
-                    });
-                }
+                forEachHeader(rec, (key, value) -> {
+                    if (value != null) {
+                        natsHeaders.put(key, value);
+                    }
+                });
 
                 publishWithRetry(subject, natsHeaders, recordBytes);
 
@@ -279,14 +276,11 @@ private void handleBatchAsync(List<ChangeEvent<Object, Object>> records,
                     byte[] recordBytes = getBytes(rec.value());
 
                     Headers natsHeaders = new Headers();
-                    var headers = convertHeaders(rec);
-                    if (!headers.isEmpty()) {
-                        headers.forEach((key, value) -> {
-                            if (value != null) {
-                                natsHeaders.add(key, value);
-                            }
-                        });
-                    }
+                    forEachHeader(rec, (key, value) -> {
+                        if (value != null) {
+                            natsHeaders.put(key, value);
+                        }
+                    });
 
                     Message msg = NatsMessage.builder()
                             .subject(subject)
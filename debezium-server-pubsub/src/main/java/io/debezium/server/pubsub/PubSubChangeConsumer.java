@@ -56,6 +56,7 @@
 import io.debezium.engine.DebeziumEngine.RecordCommitter;
 import io.debezium.server.BaseChangeConsumer;
 import io.debezium.server.CustomConsumerBuilder;
+import io.debezium.server.util.RateLimiter;
 import io.debezium.util.Threads;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
@@ -88,6 +89,7 @@ public interface PublisherBuilder {
 
     private final Map<String, Publisher> publishers = new HashMap<>();
     private PublisherBuilder publisherBuilder;
+    private RateLimiter rateLimiter = RateLimiter.unlimited();
 
     @ConfigProperty(name = PROP_PREFIX + "ordering.enabled", defaultValue = "true")
     boolean orderingEnabled;
@@ -167,6 +169,7 @@ public interface PublisherBuilder {
     void connect() {
         final Config config = ConfigProvider.getConfig();
         projectId = config.getOptionalValue(PROP_PROJECT_ID, String.class).orElse(ServiceOptions.getDefaultProjectId());
+        rateLimiter = RateLimiter.fromConfig(config, PROP_PREFIX);
 
         if (customPublisherBuilder.isResolvable()) {
             publisherBuilder = customPublisherBuilder.get();
@@ -296,6 +299,7 @@ public void handleBatch(List<ChangeEvent<Object, Object>> records, RecordCommitt
 
             PubsubMessage message = buildPubSubMessage(record);
 
+            rateLimiter.acquire(record);
             deliveries.add(publisher.publish(message));
         }
         List<String> messageIds;
@@ -343,7 +347,7 @@ else if (record.value() instanceof byte[]) {
             pubsubMessage.setData(ByteString.copyFrom((byte[]) record.value()));
         }
 
-        pubsubMessage.putAllAttributes(convertHeaders(record));
+        forEachHeader(record, pubsubMessage::putAttributes);
 
         return pubsubMessage.build();
     }
@@ -80,15 +80,15 @@ public interface PublisherBuilder {
 
     @PostConstruct
     void connect() {
-        final Config config = ConfigProvider.getConfig();
-        String projectId = config.getOptionalValue(PROP_PROJECT_ID, String.class).orElse(ServiceOptions.getDefaultProjectId());
-        String region = config.getValue(PROP_REGION, String.class);
-
         if (customPublisherBuilder.isResolvable()) {
             publisherBuilder = customPublisherBuilder.get();
             LOGGER.info("Obtained custom configured PublisherBuilder '{}'", customPublisherBuilder);
             return;
         }
+
+        final Config config = ConfigProvider.getConfig();
+        String projectId = config.getOptionalValue(PROP_PROJECT_ID, String.class).orElse(ServiceOptions.getDefaultProjectId());
+        String region = config.getValue(PROP_REGION, String.class);
         publisherBuilder = (t) -> {
             TopicPath topicPath = TopicPath
                     .newBuilder()
@@ -173,7 +173,7 @@ else if (record.value() instanceof byte[]) {
             pubsubMessage.setData(ByteString.copyFrom((byte[]) record.value()));
         }
 
-        pubsubMessage.putAllAttributes(convertHeaders(record));
+        forEachHeader(record, pubsubMessage::putAttributes);
 
         return pubsubMessage.build();
     }
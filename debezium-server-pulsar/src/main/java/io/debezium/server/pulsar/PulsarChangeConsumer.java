@@ -181,8 +181,8 @@ public void handleBatch(List<ChangeEvent<Object, Object>> records, RecordCommitt
             else {
                 message = producer.newMessage();
             }
+            forEachHeader(record, message::property);
             message
-                    .properties(convertHeaders(record))
                     .key(key)
                     .value(record.value());
 
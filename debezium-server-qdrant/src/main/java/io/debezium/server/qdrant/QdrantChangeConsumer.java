@@ -105,6 +105,12 @@ void close() {
         }
     }
 
+    @Override
+    public boolean requiresEngineRecords() {
+        // The source record is read from the engine records
+        return true;
+    }
+
     @Override
     public void handleBatch(List<ChangeEvent<Object, Object>> records,
                             RecordCommitter<ChangeEvent<Object, Object>> committer)
@@ -16,7 +16,6 @@
 import java.util.Locale;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -39,7 +38,9 @@
 import io.debezium.storage.redis.RedisClient;
 import io.debezium.storage.redis.RedisClientConnectionException;
 import io.debezium.storage.redis.RedisConnection;
-import io.debezium.util.DelayStrategy;
+import io.debezium.server.util.RetryExecutor;
+import io.debezium.util.Clock;
+import io.debezium.util.Metronome;
 
 /**
  * Implementation of the consumer that delivers the messages into Redis (stream)
@@ -72,6 +73,8 @@ public class RedisStreamChangeConsumer extends BaseChangeConsumer
 
     private String heartbeatPrefix;
 
+    private RetryExecutor retryExecutor;
+
     @PostConstruct
     void connect() {
         // Get configuration from ConfigProvider
@@ -92,13 +95,10 @@ void connect() {
                 Map<String, String> recordMap = new LinkedHashMap<>();
                 String key = (record.key() != null) ? getString(record.key()) : config.getNullKey();
                 String value = (record.value() != null) ? getString(record.value()) : config.getNullValue();
-                Map<String, String> headers = convertHeaders(record);
 
                 recordMap.put(EXTENDED_MESSAGE_KEY_KEY, key);
                 recordMap.put(EXTENDED_MESSAGE_VALUE_KEY, value);
-                for (Map.Entry<String, String> entry : headers.entrySet()) {
-                    recordMap.put(entry.getKey().toUpperCase(Locale.ROOT), entry.getValue());
-                }
+                forEachHeader(record, (headerKey, headerValue) -> recordMap.put(headerKey.toUpperCase(Locale.ROOT), headerValue));
                 return recordMap;
             };
         }
@@ -115,6 +115,12 @@ else if (MESSAGE_FORMAT_COMPACT.equals(messageFormat)) {
                 config.getWaitTimeout(), config.isWaitRetryEnabled(), config.getWaitRetryDelay());
 
         redisMemoryThreshold = new RedisMemoryThreshold(client, config);
+
+        if (retryExecutor == null) {
+            // Redis is retried until it recovers, the backoff keeps the exponential timings without jitter
+            retryExecutor = new RetryExecutor(Integer.MAX_VALUE, config.getInitialRetryDelay(), config.getMaxRetryDelay(), 2.0)
+                    .onRetry(this::countRetry);
+        }
     }
 
     @PreDestroy
@@ -151,124 +157,116 @@ private <T> Stream<List<T>> batches(List<T> source, int length) {
     public void handleBatch(List<ChangeEvent<Object, Object>> records,
                             RecordCommitter<ChangeEvent<Object, Object>> committer)
             throws InterruptedException {
-        DelayStrategy delayStrategy = DelayStrategy.exponential(Duration.ofMillis(config.getInitialRetryDelay()),
-                Duration.ofMillis(config.getMaxRetryDelay()));
+        LOGGER.debug("Handling a batch of {} records", records.size());
+        for (List<ChangeEvent<Object, Object>> batch : batches(records, config.getBatchSize()).toList()) {
+            // The records delivered by an attempt are removed, a retry only sends the rest of the batch.
+            // As long as the batch fails because of a connection error or OOM in Redis it is retried.
+            final List<ChangeEvent<Object, Object>> pending = new ArrayList<>(batch);
+            retryExecutor.executeWithRetry(() -> deliver(pending, committer), e -> e instanceof RetriableRedisException, "Redis publish");
+        }
 
-        DelayStrategy delayStrategyOnRecordsConsumption = DelayStrategy.constant(Duration.ofMillis(config.getWaitRetryDelay()));
+        // Mark the whole batch as finished once the sub batches completed
+        committer.markBatchFinished();
+    }
 
-        LOGGER.debug("Handling a batch of {} records", records.size());
-        batches(records, config.getBatchSize()).forEach(batch -> {
-            boolean completedSuccessfully = false;
-
-            // Clone the batch and remove the records that have been successfully processed.
-            // Move to the next batch once this list is empty.
-            List<ChangeEvent<Object, Object>> clonedBatch = batch.stream().collect(Collectors.toList());
-
-            // As long as we failed to execute the current batch to the stream, we should
-            // retry if the reason
-            // was either a connection error or OOM in Redis.
-            while (!completedSuccessfully) {
-                if (client == null) {
-                    // Try to reconnect
-                    try {
-                        connect();
-                        continue; // Managed to establish a new connection to Redis, avoid a redundant retry
-                    }
-                    catch (Exception e) {
-                        close();
-                        LOGGER.error("Can't connect to Redis", e);
-                    }
+    /**
+     * Delivers the pending records and removes them from the list once processed.
+     *
+     * @throws RetriableRedisException if Redis is not reachable or some of the records were rejected for lack of memory
+     */
+    private void deliver(List<ChangeEvent<Object, Object>> pending, RecordCommitter<ChangeEvent<Object, Object>> committer)
+            throws InterruptedException {
+        while (true) {
+            if (client == null) {
+                // Try to reconnect
+                try {
+                    connect();
+                }
+                catch (Exception e) {
+                    close();
+                    throw new RetriableRedisException("Can't connect to Redis", e);
                 }
-                else {
-                    try {
-                        LOGGER.debug("Preparing a Redis Pipeline of {} records", clonedBatch.size());
-
-                        List<SimpleEntry<String, Map<String, String>>> recordsMap = new ArrayList<>(clonedBatch.size());
-                        List<ChangeEvent<Object, Object>> processedRecords = new ArrayList<ChangeEvent<Object, Object>>();
-                        for (ChangeEvent<Object, Object> record : clonedBatch) {
-                            String destination = streamNameMapper.map(record.destination());
-
-                            // Check if this is a heartbeat message that should be skipped
-                            if (config.isSkipHeartbeatMessages() && destination.startsWith(heartbeatPrefix)) {
-                                // Mark as processed and track for removal from clonedBatch
-                                committer.markProcessed(record);
-                                processedRecords.add(record);
-                                continue;
-                            }
-
-                            Map<String, String> recordMap = recordMapFunction.apply(record);
-                            recordsMap.add(new SimpleEntry<>(destination, recordMap));
-                        }
-
-                        clonedBatch.removeAll(processedRecords);
-                        processedRecords.clear();
-
-                        if (clonedBatch.size() == 0) {
-                            completedSuccessfully = true;
-                            continue;
-                        }
-
-                        if (recordsMap.size() == 0) {
-                            continue;
-                        }
-
-                        if (!redisMemoryThreshold.checkMemory(getObjectSize(recordsMap.get(0)), recordsMap.size(),
-                                config.getBufferFillRate())) {
-                            LOGGER.info("Stopped consuming records!\n");
-                            delayStrategyOnRecordsConsumption.sleepWhen(true);
-                            continue;
-                        }
-                        List<String> responses = client.xadd(recordsMap);
-                        int index = 0;
-                        int totalOOMResponses = 0;
-
-                        for (String message : responses) {
-                            // When Redis reaches its max memory limitation, an OOM error message will be
-                            // retrieved.
-                            // In this case, we will retry execute the failed commands, assuming some memory
-                            // will be freed eventually as result
-                            // of evicting elements from the stream by the target DB.
-                            if (message.contains("OOM command not allowed when used memory > 'maxmemory'")) {
-                                totalOOMResponses++;
-                            }
-                            else {
-                                // Mark the record as processed
-                                ChangeEvent<Object, Object> currentRecord = clonedBatch.get(index);
-                                committer.markProcessed(currentRecord);
-                                processedRecords.add(currentRecord);
-                            }
-
-                            index++;
-                        }
-
-                        clonedBatch.removeAll(processedRecords);
-
-                        if (totalOOMResponses > 0) {
-                            LOGGER.info("Redis sink currently full, will retry ({} command(s) will be retried)",
-                                    totalOOMResponses);
-                        }
-
-                        if (clonedBatch.size() == 0) {
-                            completedSuccessfully = true;
-                        }
+            }
+
+            final int totalOOMResponses;
+            try {
+                LOGGER.debug("Preparing a Redis Pipeline of {} records", pending.size());
+
+                List<SimpleEntry<String, Map<String, String>>> recordsMap = new ArrayList<>(pending.size());
+                List<ChangeEvent<Object, Object>> processedRecords = new ArrayList<ChangeEvent<Object, Object>>();
+                for (ChangeEvent<Object, Object> record : pending) {
+                    String destination = streamNameMapper.map(record.destination());
+
+                    // Check if this is a heartbeat message that should be skipped
+                    if (config.isSkipHeartbeatMessages() && destination.startsWith(heartbeatPrefix)) {
+                        // Mark as processed and track for removal from the pending records
+                        committer.markProcessed(record);
+                        processedRecords.add(record);
+                        continue;
                     }
-                    catch (RedisClientConnectionException jce) {
-                        LOGGER.error("Connection error", jce);
-                        close();
+
+                    Map<String, String> recordMap = recordMapFunction.apply(record);
+                    recordsMap.add(new SimpleEntry<>(destination, recordMap));
+                }
+
+                pending.removeAll(processedRecords);
+                processedRecords.clear();
+
+                if (pending.isEmpty()) {
+                    return;
+                }
+
+                if (!redisMemoryThreshold.checkMemory(getObjectSize(recordsMap.get(0)), recordsMap.size(),
+                        config.getBufferFillRate())) {
+                    // Back pressure rather than a failure, so it is waited for without counting as a retry
+                    LOGGER.info("Stopped consuming records!\n");
+                    Metronome.sleeper(Duration.ofMillis(config.getWaitRetryDelay()), Clock.SYSTEM).pause();
+                    continue;
+                }
+                List<String> responses = client.xadd(recordsMap);
+                int index = 0;
+                int oomResponses = 0;
+
+                for (String message : responses) {
+                    // When Redis reaches its max memory limitation, an OOM error message will be
+                    // retrieved.
+                    // In this case, we will retry execute the failed commands, assuming some memory
+                    // will be freed eventually as result
+                    // of evicting elements from the stream by the target DB.
+                    if (message.contains("OOM command not allowed when used memory > 'maxmemory'")) {
+                        oomResponses++;
                     }
-                    catch (Exception e) {
-                        LOGGER.error("Unexpected Exception", e);
-                        throw new DebeziumException(e);
+                    else {
+                        // Mark the record as processed
+                        ChangeEvent<Object, Object> currentRecord = pending.get(index);
+                        committer.markProcessed(currentRecord);
+                        processedRecords.add(currentRecord);
                     }
+
+                    index++;
                 }
 
-                // Failed to execute the transaction, retry...
-                delayStrategy.sleepWhen(!completedSuccessfully);
+                pending.removeAll(processedRecords);
+                totalOOMResponses = oomResponses;
+            }
+            catch (RedisClientConnectionException jce) {
+                close();
+                throw new RetriableRedisException("Connection error", jce);
+            }
+            catch (InterruptedException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                LOGGER.error("Unexpected Exception", e);
+                throw new DebeziumException(e);
             }
-        });
 
-        // Mark the whole batch as finished once the sub batches completed
-        committer.markBatchFinished();
+            if (pending.isEmpty()) {
+                return;
+            }
+            LOGGER.info("Redis sink currently full, will retry ({} command(s) will be retried)", totalOOMResponses);
+            throw new RetriableRedisException("Redis sink currently full");
+        }
     }
 
     private static long getObjectSize(SimpleEntry<String, Map<String, String>> record) {
@@ -282,4 +280,20 @@ private static long getObjectSize(SimpleEntry<String, Map<String, String>> recor
         LOGGER.debug("Estimated record size is {}", approximateSize);
         return approximateSize;
     }
+
+    /**
+     * Signals a failure of a batch that is retried, Redis is either not reachable or out of memory.
+     */
+    private static class RetriableRedisException extends DebeziumException {
+
+        private static final long serialVersionUID = 1L;
+
+        RetriableRedisException(String message) {
+            super(message);
+        }
+
+        RetriableRedisException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
 }
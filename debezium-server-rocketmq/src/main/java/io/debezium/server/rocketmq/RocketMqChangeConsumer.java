@@ -6,7 +6,6 @@
 package io.debezium.server.rocketmq;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
@@ -139,10 +138,7 @@ public void handleBatch(List<ChangeEvent<Object, Object>> records, DebeziumEngin
 
                 Message message = new Message(topicName, null, key, getBytes(record.value()));
 
-                Map<String, String> headers = convertHeaders(record);
-                for (Map.Entry<String, String> entry : headers.entrySet()) {
-                    message.putUserProperty(entry.getKey(), entry.getValue());
-                }
+                forEachHeader(record, message::putUserProperty);
 
                 mqProducer.send(message, new SelectMessageQueueByHash(), key, new SendCallback() {
                     @Override
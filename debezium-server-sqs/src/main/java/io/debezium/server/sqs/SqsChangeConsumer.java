@@ -24,16 +24,22 @@
 import io.debezium.engine.DebeziumEngine.ChangeConsumer;
 import io.debezium.engine.DebeziumEngine.RecordCommitter;
 import io.debezium.server.BaseChangeConsumer;
-import io.debezium.util.Clock;
-import io.debezium.util.Metronome;
+import io.debezium.server.RecordRejectedException;
+import io.debezium.server.util.CircuitBreaker;
+import io.debezium.server.util.CircuitBreakerOpenException;
+import io.debezium.server.util.PartitionedBatchDelivery;
+import io.debezium.server.util.RateLimiter;
+import io.debezium.server.util.RetryExecutor;
 
 import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.SqsClientBuilder;
+import software.amazon.awssdk.services.sqs.model.InvalidMessageContentsException;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest.Builder;
+import software.amazon.awssdk.services.sqs.model.SqsException;
 
 /**
  * Implementation of the consumer that delivers the messages into Amazon SQS destination.
@@ -48,6 +54,7 @@ public class SqsChangeConsumer extends BaseChangeConsumer implements ChangeConsu
     private static final Logger LOGGER = LoggerFactory.getLogger(SqsChangeConsumer.class);
     private static final Duration RETRY_INTERVAL = Duration.ofSeconds(1);
     private static final int DEFAULT_RETRIES = 5;
+    private static final String INVALID_PARAMETER_VALUE = "InvalidParameterValue";
     private static final String PROP_ENDPOINT_NAME = PROP_PREFIX + "endpoint";
     private static final String PROP_QUEUE_URL = PROP_PREFIX + "queue.url";
     private static final String PROP_CREDENTIALS_PROFILE = PROP_PREFIX + "credentials.profile";
@@ -56,6 +63,10 @@ public class SqsChangeConsumer extends BaseChangeConsumer implements ChangeConsu
     private String messageGroupId = null;
     private String queueUrl;
     private SqsClient client = null;
+    private PartitionedBatchDelivery delivery;
+    private RetryExecutor retryExecutor;
+    private CircuitBreaker circuitBreaker;
+    private RateLimiter rateLimiter;
 
     @PostConstruct
     void connect() {
@@ -81,10 +92,18 @@ void connect() {
         if (queueUrl.endsWith(".fifo")) {
             messageGroupId = config.getOptionalValue(PROP_QUEUE_FIFO_MESSAGE_GROUP_ID, String.class).orElse("cdc-group");
         }
+
+        delivery = PartitionedBatchDelivery.fromConfig(config, PROP_PREFIX);
+        retryExecutor = RetryExecutor.fromConfig(config, PROP_PREFIX, DEFAULT_RETRIES, RETRY_INTERVAL.toMillis()).onRetry(this::countRetry);
+        circuitBreaker = CircuitBreaker.fromConfig(config, PROP_PREFIX, "sqs");
+        rateLimiter = RateLimiter.fromConfig(config, PROP_PREFIX);
     }
 
     @PreDestroy
     void close() {
+        if (delivery != null) {
+            delivery.close();
+        }
         try {
             client.close();
         }
@@ -96,19 +115,28 @@ void close() {
     @Override
     public void handleBatch(List<ChangeEvent<Object, Object>> records, RecordCommitter<ChangeEvent<Object, Object>> committer)
             throws InterruptedException {
-        for (ChangeEvent<Object, Object> record : records) {
+        delivery.deliver(records, committer, record -> {
             LOGGER.trace("Received event '{}'", record);
 
-            int attempts = 0;
-            while (!recordSent(record)) {
-                attempts++;
-                if (attempts >= DEFAULT_RETRIES) {
-                    throw new DebeziumException("Exceeded maximum number of attempts to publish event " + record);
+            rateLimiter.acquire(record);
+            try {
+                // While the queue is unavailable the batch is held back and delivered again once it recovers
+                circuitBreaker.holdWhileOpen(() -> retryExecutor.executeWithRetry(() -> circuitBreaker.execute(() -> {
+                    if (!recordSent(record)) {
+                        throw new DebeziumException("Failed to publish event");
+                    }
+                }), e -> e instanceof DebeziumException && !(e instanceof CircuitBreakerOpenException) && !(e instanceof RecordRejectedException), "SQS publish"));
+            }
+            catch (DebeziumException e) {
+                final DebeziumException failure = RecordRejectedException.isRejection(e)
+                        ? new DebeziumException("SQS rejected event " + record, e)
+                        : new DebeziumException("Exceeded maximum number of attempts to publish event " + record, e);
+                if (deadLetter(record, failure)) {
+                    return;
                 }
-                Metronome.sleeper(RETRY_INTERVAL, Clock.SYSTEM).pause();
+                throw failure;
             }
-            committer.markProcessed(record);
-        }
+        });
         committer.markBatchFinished();
     }
 
@@ -137,5 +165,24 @@ private boolean recordSent(ChangeEvent<Object, Object> event) {
             LOGGER.error("Failed to send record to {}", event.destination(), exception);
             return false;
         }
+        catch (SqsException exception) {
+            if (isRejection(exception)) {
+                throw new RecordRejectedException("SQS rejected record for " + event.destination() + ": " + exception.getMessage(), exception);
+            }
+            // Throttling or unavailability of the service, retried and failing the batch when it persists
+            LOGGER.error("Failed to send record to {}", event.destination(), exception);
+            return false;
+        }
+    }
+
+    /**
+     * The message content itself is invalid or too large, other service errors such as throttling or a missing
+     * queue are not specific to the record.
+     */
+    private static boolean isRejection(SqsException exception) {
+        if (exception instanceof InvalidMessageContentsException) {
+            return true;
+        }
+        return exception.awsErrorDetails() != null && INVALID_PARAMETER_VALUE.equals(exception.awsErrorDetails().errorCode());
     }
 }